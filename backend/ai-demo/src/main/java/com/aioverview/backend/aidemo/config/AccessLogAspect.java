@@ -0,0 +1,287 @@
+package com.aioverview.backend.aidemo.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 访问日志切面
+ * 每个请求在处理结束时输出一条 key=value 格式的日志；慢请求和失败请求总是以WARN记录，其余请求按采样率以INFO记录。
+ * 参数和返回值只在确定要输出时才渲染，并且按字符数截断，不会对大段提示词做完整的toString。
+ * 返回 Mono/Flux（或响应体为 Mono/Flux 的 ResponseEntity）的接口在响应完成时记录，耗时包含整个流。
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "ai-demo.access-log", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class AccessLogAspect {
+
+    private static final String TRUNCATED = "...";
+
+    private final AccessLogProperties properties;
+
+    public AccessLogAspect(AccessLogProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 所有控制器方法（含响应式模式的控制器）
+     */
+    @Pointcut("execution(public * com.aioverview.backend.aidemo.controller..*.*(..))")
+    public void accessLogPointCut() {}
+
+    @Around("accessLogPointCut()")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!log.isInfoEnabled()) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        // Servlet模式在当前线程取请求信息；异步完成时请求对象可能已被回收，因此只保存需要的字段
+        RequestInfo request = servletRequest();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable t) {
+            complete(joinPoint, request, start, null, t);
+            throw t;
+        }
+        if (result instanceof Mono<?> mono) {
+            return logged(mono, joinPoint, request, start);
+        }
+        if (result instanceof Flux<?> flux) {
+            return logged(flux, joinPoint, request, start, 0);
+        }
+        if (result instanceof ResponseEntity<?> entity && entity.getBody() instanceof Publisher<?> body) {
+            // 响应头先返回、响应体随后流式输出，在响应体结束时记录，状态码取自ResponseEntity
+            int status = entity.getStatusCode().value();
+            Publisher<?> loggedBody = body instanceof Mono<?> mono
+                    ? logged(mono, joinPoint, request, start)
+                    : logged(Flux.from(body), joinPoint, request, start, status);
+            return new ResponseEntity<>(loggedBody, entity.getHeaders(), entity.getStatusCode());
+        }
+        complete(joinPoint, request, start, result, null);
+        return result;
+    }
+
+    private Mono<?> logged(Mono<?> mono, ProceedingJoinPoint joinPoint, RequestInfo request, long start) {
+        return Mono.deferContextual(context -> {
+            RequestInfo info = request != null ? request : exchangeRequest(context);
+            return mono.doOnSuccess(value -> complete(joinPoint, info, start, value, null))
+                    .doOnError(e -> complete(joinPoint, info, start, null, e))
+                    .doOnCancel(() -> complete(joinPoint, info, start, Cancelled.INSTANCE, null));
+        });
+    }
+
+    private Flux<?> logged(Flux<?> flux, ProceedingJoinPoint joinPoint, RequestInfo request, long start, int status) {
+        return Flux.deferContextual(context -> {
+            RequestInfo info = request != null ? request : exchangeRequest(context);
+            AtomicLong items = new AtomicLong();
+            return flux.doOnNext(item -> items.incrementAndGet())
+                    .doOnComplete(() -> complete(joinPoint, info, start, new Streamed(status, items.get(), false), null))
+                    .doOnError(e -> complete(joinPoint, info, start, null, e))
+                    .doOnCancel(() -> complete(joinPoint, info, start, new Streamed(status, items.get(), true), null));
+        });
+    }
+
+    private void complete(ProceedingJoinPoint joinPoint, RequestInfo request, long start, Object result, Throwable error) {
+        long nanos = System.nanoTime() - start;
+        int status = result instanceof ResponseEntity<?> entity ? entity.getStatusCode().value()
+                : result instanceof Streamed streamed ? streamed.status() : 0;
+        boolean failed = error != null || status >= 500;
+        boolean slow = nanos >= properties.getSlowThreshold().toNanos();
+        // 正常请求在渲染任何内容之前先做采样判断
+        if (!failed && !slow && ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate()) {
+            return;
+        }
+
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        StringBuilder line = new StringBuilder(256);
+        if (request != null) {
+            line.append("method=").append(request.method())
+                    .append(" uri=").append(request.uri())
+                    .append(" ip=").append(request.ip())
+                    .append(' ');
+        }
+        line.append("handler=").append(signature.getDeclaringType().getSimpleName())
+                .append('.').append(signature.getName());
+        if (status != 0) {
+            line.append(" status=").append(status);
+        }
+        line.append(" durationMs=").append(TimeUnit.NANOSECONDS.toMillis(nanos));
+        if (slow) {
+            line.append(" slow=true");
+        }
+
+        line.append(" args=");
+        appendBounded(line, joinPoint.getArgs(), line.length() + properties.getMaxArgsLength());
+        if (error != null) {
+            line.append(" error=").append(error.getClass().getSimpleName()).append(": ");
+            appendBounded(line, error.getMessage(), line.length() + properties.getMaxResultLength());
+        } else if (result instanceof Streamed streamed) {
+            line.append(" items=").append(streamed.items());
+            if (streamed.cancelled()) {
+                line.append(" cancelled=true");
+            }
+        } else if (result == Cancelled.INSTANCE) {
+            line.append(" cancelled=true");
+        } else {
+            line.append(" result=");
+            Object body = result instanceof ResponseEntity<?> entity ? entity.getBody() : result;
+            appendBounded(line, body, line.length() + properties.getMaxResultLength());
+        }
+
+        if (failed || slow) {
+            log.warn("{}", line);
+        } else {
+            log.info("{}", line);
+        }
+    }
+
+    /**
+     * 把对象写入line，写到limit为止；字符串、集合、数组和record逐项渲染，不生成完整的toString
+     * @return 是否已达到上限
+     */
+    private static boolean appendBounded(StringBuilder line, Object value, int limit) {
+        if (line.length() >= limit) {
+            line.append(TRUNCATED);
+            return true;
+        }
+        if (value == null) {
+            line.append("null");
+        } else if (value instanceof CharSequence text) {
+            int room = limit - line.length();
+            if (text.length() > room) {
+                line.append(text, 0, room).append(TRUNCATED);
+                return true;
+            }
+            line.append(text);
+        } else if (value instanceof Number || value instanceof Boolean || value instanceof Enum<?>) {
+            line.append(value);
+        } else if (value instanceof Map<?, ?> map) {
+            line.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!first) {
+                    line.append(", ");
+                }
+                first = false;
+                if (appendBounded(line, entry.getKey(), limit)) {
+                    return true;
+                }
+                line.append('=');
+                if (appendBounded(line, entry.getValue(), limit)) {
+                    return true;
+                }
+            }
+            line.append('}');
+        } else if (value instanceof Collection<?> collection) {
+            return appendElements(line, collection, limit);
+        } else if (value.getClass().isArray()) {
+            if (!(value instanceof Object[])) {
+                line.append(value.getClass().getComponentType().getSimpleName())
+                        .append('[').append(Array.getLength(value)).append(']');
+            } else {
+                return appendElements(line, Arrays.asList((Object[]) value), limit);
+            }
+        } else if (value.getClass().isRecord()) {
+            line.append(value.getClass().getSimpleName()).append('[');
+            RecordComponent[] components = value.getClass().getRecordComponents();
+            for (int i = 0; i < components.length; i++) {
+                if (i > 0) {
+                    line.append(", ");
+                }
+                line.append(components[i].getName()).append('=');
+                Object component;
+                try {
+                    component = components[i].getAccessor().invoke(value);
+                } catch (ReflectiveOperationException e) {
+                    component = "?";
+                }
+                if (appendBounded(line, component, limit)) {
+                    return true;
+                }
+            }
+            line.append(']');
+        } else {
+            return appendBounded(line, value.toString(), limit);
+        }
+        return false;
+    }
+
+    private static boolean appendElements(StringBuilder line, Iterable<?> elements, int limit) {
+        line.append('[');
+        boolean first = true;
+        for (Object element : elements) {
+            if (!first) {
+                line.append(", ");
+            }
+            first = false;
+            if (appendBounded(line, element, limit)) {
+                return true;
+            }
+        }
+        line.append(']');
+        return false;
+    }
+
+    private static RequestInfo servletRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            return new RequestInfo(request.getMethod(), request.getRequestURI(), ClientIpResolver.resolve(request));
+        }
+        return null;
+    }
+
+    private static RequestInfo exchangeRequest(ContextView context) {
+        return ServerWebExchangeContextFilter.getExchange(context)
+                .map(exchange -> {
+                    ServerHttpRequest request = exchange.getRequest();
+                    return new RequestInfo(request.getMethod().name(), request.getPath().value(),
+                            ClientIpResolver.resolve(request));
+                })
+                .orElse(null);
+    }
+
+    private record RequestInfo(String method, String uri, String ip) {
+    }
+
+    /**
+     * 流式响应只记录输出的片段数
+     * @param status 响应体外层ResponseEntity的状态码，直接返回Flux时为0
+     */
+    private record Streamed(int status, long items, boolean cancelled) {
+    }
+
+    /**
+     * 客户端在响应完成前断开
+     */
+    private enum Cancelled {
+        INSTANCE
+    }
+}
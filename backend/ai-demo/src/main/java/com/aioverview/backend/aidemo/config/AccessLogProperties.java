@@ -0,0 +1,42 @@
+package com.aioverview.backend.aidemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 访问日志配置
+ * 每个请求最多一条日志；慢请求和失败请求总是记录，其余请求按采样率记录
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai-demo.access-log")
+public class AccessLogProperties {
+
+    /**
+     * 是否启用访问日志
+     */
+    private boolean enabled = true;
+
+    /**
+     * 正常请求的采样率（0~1），1表示全部记录
+     */
+    private double sampleRate = 0.1;
+
+    /**
+     * 超过该耗时的请求以WARN级别记录，不受采样率限制
+     */
+    private Duration slowThreshold = Duration.ofSeconds(2);
+
+    /**
+     * 请求参数最多输出的字符数
+     */
+    private int maxArgsLength = 256;
+
+    /**
+     * 响应结果最多输出的字符数
+     */
+    private int maxResultLength = 100;
+}
@@ -1,28 +1,39 @@
 package com.aioverview.backend.aidemo.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class CacheConfig {
 
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(
+            @Value("${ai-demo.concept-cache.ttl:7d}") Duration conceptTtl,
+            @Value("${ai-demo.concept-cache.maximum-size:5000}") long conceptMaximumSize) {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // 默认配置同样开启统计，各缓存都能导出命中率指标
         cacheManager.setCaffeine(Caffeine.newBuilder()
                 .expireAfterWrite(1, TimeUnit.DAYS)
-                .maximumSize(1000));
+                .maximumSize(1000)
+                .recordStats());
         // 预先定义所有需要的缓存名称
         cacheManager.setCacheNames(java.util.Arrays.asList(
-                "rateLimitCache",      // 速率限制缓存
-                "concepts",            // 概念解释缓存
-                "conceptComparisons"   // 概念比较缓存
+                "conceptComparisons",  // 概念比较缓存（二级缓存见 ResponseStore）
+                "prompts"              // 生成和优化的提示词缓存（二级缓存见 ResponseStore）
         ));
+        // 概念解释缓存：独立的过期时间和容量，开启统计以便导出命中率指标
+        cacheManager.registerCustomCache("concepts", Caffeine.newBuilder()
+                .expireAfterWrite(conceptTtl)
+                .maximumSize(conceptMaximumSize)
+                .recordStats()
+                .build());
         return cacheManager;
     }
 
-}
\ No newline at end of file
+}
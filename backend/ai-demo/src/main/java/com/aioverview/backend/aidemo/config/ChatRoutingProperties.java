@@ -0,0 +1,92 @@
+package com.aioverview.backend.aidemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 多模型路由配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai-demo.routing")
+public class ChatRoutingProperties {
+
+    /**
+     * 用户指定的模型健康时优先使用，否则选择延迟最低的健康模型
+     */
+    private boolean honorRequestedModel = true;
+
+    /**
+     * 延迟和错误率的指数加权平滑系数，越大越偏向最近的调用
+     */
+    private double ewmaAlpha = 0.2;
+
+    /**
+     * 连续失败达到该次数后熔断
+     */
+    private int failureThreshold = 3;
+
+    /**
+     * 错误率达到该值后熔断（样本数不少于 minSamples 时生效）
+     */
+    private double errorRateThreshold = 0.5;
+
+    /**
+     * 按错误率熔断所需的最少调用次数
+     */
+    private int minSamples = 10;
+
+    /**
+     * 熔断持续时间，到期后放行一个探测请求
+     */
+    private Duration openDuration = Duration.ofSeconds(30);
+
+    /**
+     * 每个服务商同时进行的最大调用数，未配置的服务商使用 defaultMaxConcurrent
+     */
+    private Map<String, Integer> maxConcurrent = new HashMap<>();
+
+    /**
+     * 未单独配置的服务商的最大并发调用数
+     */
+    private int defaultMaxConcurrent = 64;
+
+    /**
+     * 所有候选模型都满载时，同步调用排队等待的最长时间（流式调用不排队）
+     */
+    private Duration queueTimeout = Duration.ofSeconds(10);
+
+    /**
+     * 对冲请求配置
+     */
+    private Hedge hedge = new Hedge();
+
+    @Data
+    public static class Hedge {
+
+        /**
+         * 是否开启对冲：首选模型迟迟未返回时，向下一个健康模型并发发出同样的请求，先返回者胜出
+         */
+        private boolean enabled = true;
+
+        /**
+         * 对冲等待时间 = max(minDelay, 平滑延迟 × latencyMultiplier)
+         */
+        private double latencyMultiplier = 2.0;
+
+        /**
+         * 对冲等待时间下限
+         */
+        private Duration minDelay = Duration.ofSeconds(5);
+
+        /**
+         * 还没有延迟样本时的对冲等待时间
+         */
+        private Duration initialDelay = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,109 @@
+package com.aioverview.backend.aidemo.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * 客户端IP解析工具
+ * {@link #resolve} 依次读取代理头，多级代理时取第一个IP，这些头由客户端随意填写，只用于日志和统计展示；
+ * 限流等安全相关的场景使用 {@link #resolveTrusted}，只信任已知数量的代理追加的地址
+ */
+public final class ClientIpResolver {
+
+    private ClientIpResolver() {
+    }
+
+    /**
+     * 获取客户端真实IP地址
+     * @param request HttpServletRequest
+     * @return IP地址
+     */
+    public static String resolve(HttpServletRequest request) {
+        return resolve(request::getHeader, request.getRemoteAddr());
+    }
+
+    /**
+     * 获取客户端真实IP地址（响应式模式）
+     * @param request ServerHttpRequest
+     * @return IP地址
+     */
+    public static String resolve(ServerHttpRequest request) {
+        return resolve(request.getHeaders()::getFirst, remoteAddr(request));
+    }
+
+    /**
+     * 获取不可伪造的客户端IP，用于限流
+     * 不信任代理时直接使用连接的对端地址；经过 trustedProxies 个可信代理时，从 X-Forwarded-For 右侧
+     * 跳过可信代理追加的地址，取第一个不可信的地址，客户端自己写入的更左侧的值会被忽略
+     * @param request HttpServletRequest
+     * @param trustedProxies 应用前面的可信代理层数
+     * @return IP地址
+     */
+    public static String resolveTrusted(HttpServletRequest request, int trustedProxies) {
+        return resolveTrusted(Collections.list(request.getHeaders("X-Forwarded-For")), request.getRemoteAddr(), trustedProxies);
+    }
+
+    /**
+     * 获取不可伪造的客户端IP，用于限流（响应式模式）
+     * @param request ServerHttpRequest
+     * @param trustedProxies 应用前面的可信代理层数
+     * @return IP地址
+     */
+    public static String resolveTrusted(ServerHttpRequest request, int trustedProxies) {
+        List<String> forwarded = request.getHeaders().get("X-Forwarded-For");
+        return resolveTrusted(forwarded != null ? forwarded : List.of(), remoteAddr(request), trustedProxies);
+    }
+
+    private static String resolveTrusted(List<String> forwardedHeaders, String remoteAddr, int trustedProxies) {
+        if (trustedProxies <= 0) {
+            return remoteAddr;
+        }
+        // 多个同名头按出现顺序拼接，与逗号分隔等价
+        List<String> hops = new ArrayList<>();
+        for (String header : forwardedHeaders) {
+            for (String hop : header.split(",")) {
+                if (!hop.isBlank()) {
+                    hops.add(hop.trim());
+                }
+            }
+        }
+        // 对端地址是最后一个可信代理，它追加的是上一跳，依此类推
+        int index = hops.size() - trustedProxies;
+        if (index < 0) {
+            // 头部少于可信代理数，说明请求没有经过全部代理，只能以对端地址为准
+            return remoteAddr;
+        }
+        return hops.get(index);
+    }
+
+    private static String remoteAddr(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress == null ? null
+                : remoteAddress.getAddress() != null ? remoteAddress.getAddress().getHostAddress()
+                : remoteAddress.getHostString();
+    }
+
+    private static String resolve(UnaryOperator<String> header, String remoteAddr) {
+        String ip = header.apply("X-Forwarded-For");
+        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
+            ip = header.apply("Proxy-Client-IP");
+        }
+        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
+            ip = header.apply("WL-Proxy-Client-IP");
+        }
+        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
+            ip = remoteAddr;
+        }
+        // 多级代理的情况，取第一个IP
+        if (ip != null && ip.contains(",")) {
+            ip = ip.split(",")[0].trim();
+        }
+        return ip;
+    }
+}
@@ -0,0 +1,70 @@
+package com.aioverview.backend.aidemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 概念解释缓存预热配置
+ * 定期读取前端的术语表，为缓存中缺失或即将过期的术语提前生成解释，用户首次点击即可命中缓存
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai-demo.concept-warmup")
+public class ConceptWarmupProperties {
+
+    /**
+     * 是否启用，预热会消耗模型调用额度
+     */
+    private boolean enabled = false;
+
+    /**
+     * 术语表位置（Spring资源路径），JSON数组，每项至少包含 id 和 name，可选 abbr、enName
+     */
+    private List<String> catalogues = List.of(
+            "file:../frontend/src/lib/concept_term.json",
+            "file:../frontend/src/lib/aiTerms.json");
+
+    /**
+     * 两次预热之间的间隔
+     */
+    private Duration interval = Duration.ofHours(6);
+
+    /**
+     * 启动后首次预热的延迟，避开启动阶段
+     */
+    private Duration initialDelay = Duration.ofMinutes(2);
+
+    /**
+     * 缓存剩余有效期少于该值时提前重新生成
+     */
+    private Duration refreshMargin = Duration.ofDays(1);
+
+    /**
+     * 同时进行的预热调用数
+     */
+    private int maxConcurrent = 2;
+
+    /**
+     * 用户请求的在途模型调用数超过该值时暂停预热
+     */
+    private int maxInteractiveInflight = 4;
+
+    /**
+     * 退避的初始等待时间，每次翻倍
+     */
+    private Duration backoffInitial = Duration.ofSeconds(5);
+
+    /**
+     * 退避的最长等待时间
+     */
+    private Duration backoffMax = Duration.ofMinutes(5);
+
+    /**
+     * 连续失败达到该次数时放弃本轮预热
+     */
+    private int maxFailures = 5;
+}
@@ -0,0 +1,101 @@
+package com.aioverview.backend.aidemo.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个服务商的连接配额
+ * JDK HttpClient 不限制连接数，这里用信号量限制同时进行的请求数，并导出连接池指标
+ */
+final class ConnectionLimiter {
+
+    private final String provider;
+    private final int maxConnections;
+    private final long acquireTimeoutNanos;
+    private final Semaphore permits;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Timer acquireTimer;
+    private final Counter rejected;
+
+    ConnectionLimiter(String provider, int maxConnections, Duration acquireTimeout, MeterRegistry meterRegistry) {
+        this.provider = provider;
+        this.maxConnections = maxConnections;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.permits = new Semaphore(maxConnections, true);
+
+        Gauge.builder("http.client.pool.active", permits, p -> maxConnections - p.availablePermits())
+                .description("正在使用的连接数")
+                .tag("provider", provider)
+                .register(meterRegistry);
+        Gauge.builder("http.client.pool.pending", pending, AtomicInteger::get)
+                .description("等待连接的请求数")
+                .tag("provider", provider)
+                .register(meterRegistry);
+        Gauge.builder("http.client.pool.max", () -> maxConnections)
+                .description("最大连接数")
+                .tag("provider", provider)
+                .register(meterRegistry);
+        this.acquireTimer = Timer.builder("http.client.pool.acquire")
+                .description("等待连接的耗时")
+                .tag("provider", provider)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("http.client.pool.rejected")
+                .description("等待连接超时而失败的请求数")
+                .tag("provider", provider)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 非阻塞地获取连接配额
+     * @return 归还配额的回调，获取失败时返回null
+     */
+    Runnable tryAcquire() {
+        return permits.tryAcquire() ? releaseOnce() : null;
+    }
+
+    /**
+     * 获取连接配额，最多等待 acquireTimeout
+     * @return 归还配额的回调，只会生效一次
+     */
+    Runnable acquire() throws IOException {
+        Runnable release = tryAcquire();
+        if (release != null) {
+            acquireTimer.record(0, TimeUnit.NANOSECONDS);
+            return release;
+        }
+        long start = System.nanoTime();
+        pending.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                rejected.increment();
+                throw new IOException("等待 " + provider + " 的连接超时，当前最大连接数 " + maxConnections);
+            }
+            return releaseOnce();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待连接时被中断");
+        } finally {
+            pending.decrementAndGet();
+            acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Runnable releaseOnce() {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+    }
+}
@@ -0,0 +1,109 @@
+package com.aioverview.backend.aidemo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.reactivestreams.Publisher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 控制器方法耗时指标
+ * 每个控制器方法一组 api.requests 计时器（按成功/失败区分，抛出异常或返回5xx算失败），发布百分位直方图供 Prometheus 计算 p99；
+ * 返回 Mono/Flux（或响应体为 Mono/Flux 的 ResponseEntity）的方法在响应完成时才结束计时，流式接口统计的是整个流的时长
+ */
+@Aspect
+@Component
+public class ControllerMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<Method, MethodTimers> timers = new ConcurrentHashMap<>();
+
+    public ControllerMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 所有控制器方法（含响应式模式的控制器）
+     */
+    @Pointcut("execution(public * com.aioverview.backend.aidemo.controller..*.*(..))")
+    public void controllerMethods() {}
+
+    @Around("controllerMethods()")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodTimers methodTimers = timers.computeIfAbsent(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), this::register);
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable t) {
+            methodTimers.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw t;
+        }
+        if (result instanceof Mono<?> mono) {
+            return timed(mono, methodTimers, start);
+        }
+        if (result instanceof Flux<?> flux) {
+            return flux.doFinally(signal -> methodTimers.record(signal, start));
+        }
+        if (result instanceof ResponseEntity<?> entity && entity.getBody() instanceof Publisher<?> body) {
+            // 响应头先返回、响应体随后流式输出，计时到响应体结束为止
+            boolean failed = entity.getStatusCode().is5xxServerError();
+            Publisher<?> timedBody = body instanceof Mono<?> mono
+                    ? timed(mono, methodTimers, start)
+                    : Flux.from(body).doFinally(signal -> methodTimers.record(failed ? SignalType.ON_ERROR : signal, start));
+            return new ResponseEntity<>(timedBody, entity.getHeaders(), entity.getStatusCode());
+        }
+        methodTimers.record(result, start);
+        return result;
+    }
+
+    private static Mono<?> timed(Mono<?> mono, MethodTimers methodTimers, long start) {
+        return mono.doOnSuccess(value -> methodTimers.record(value, start))
+                .doOnError(e -> methodTimers.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                .doOnCancel(() -> methodTimers.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    private MethodTimers register(Method method) {
+        return new MethodTimers(timer(method, "SUCCESS"), timer(method, "ERROR"));
+    }
+
+    private Timer timer(Method method, String outcome) {
+        return Timer.builder("api.requests")
+                .description("控制器方法耗时")
+                .tag("controller", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                // 大模型接口可能持续数分钟，直方图上限放宽到5分钟
+                .maximumExpectedValue(Duration.ofMinutes(5))
+                .register(meterRegistry);
+    }
+
+    private record MethodTimers(Timer success, Timer error) {
+
+        void record(Object result, long start) {
+            boolean failed = result instanceof ResponseEntity<?> entity && entity.getStatusCode().is5xxServerError();
+            (failed ? error : success).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        void record(SignalType signal, long start) {
+            // 客户端取消的流按成功计，与已发送的内容一致
+            Timer timer = signal == SignalType.ON_ERROR ? error : success;
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
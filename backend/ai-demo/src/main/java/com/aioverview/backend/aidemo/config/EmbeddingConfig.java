@@ -0,0 +1,63 @@
+package com.aioverview.backend.aidemo.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.MetadataMode;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.openai.OpenAiEmbeddingModel;
+import org.springframework.ai.openai.OpenAiEmbeddingOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.ai.retry.RetryUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.util.StringUtils;
+
+/**
+ * 向量模型配置
+ * DeepSeek 不提供 Embedding 接口，向量模型指向单独的服务商。Spring AI 的自动配置在向量密钥为空时会改用
+ * spring.ai.openai.api-key，也就是把 DeepSeek 的密钥发给向量服务商，因此关闭自动配置（spring.ai.model.embedding=none），
+ * 只在配置了向量密钥时创建 EmbeddingModel。未配置时语义缓存只做精确匹配，开启RAG会因缺少 EmbeddingModel 启动失败。
+ */
+@Configuration
+@Slf4j
+public class EmbeddingConfig {
+
+    private static final String API_KEY = "spring.ai.openai.embedding.api-key";
+
+    @Bean
+    @Conditional(EmbeddingApiKeyCondition.class)
+    public EmbeddingModel embeddingModel(@Value("${spring.ai.openai.embedding.base-url}") String baseUrl,
+                                         @Value("${" + API_KEY + "}") String apiKey,
+                                         @Value("${spring.ai.openai.embedding.options.model:text-embedding-3-small}") String model,
+                                         UpstreamHttpClients upstreamHttpClients,
+                                         ObjectProvider<ObservationRegistry> observationRegistryProvider) {
+        OpenAiApi openAiApi = OpenAiApi.builder()
+                .baseUrl(baseUrl)
+                .apiKey(apiKey)
+                .restClientBuilder(upstreamHttpClients.restClientBuilder("embedding"))
+                .webClientBuilder(upstreamHttpClients.webClientBuilder("embedding"))
+                .build();
+        log.info("向量模型已配置: {}, {}", baseUrl, model);
+        return new OpenAiEmbeddingModel(openAiApi, MetadataMode.EMBED,
+                OpenAiEmbeddingOptions.builder().model(model).build(),
+                RetryUtils.DEFAULT_RETRY_TEMPLATE,
+                observationRegistryProvider.getIfAvailable(() -> ObservationRegistry.NOOP));
+    }
+
+    /**
+     * 配置了向量密钥（非空）时才创建向量模型
+     */
+    static class EmbeddingApiKeyCondition implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return StringUtils.hasText(context.getEnvironment().getProperty(API_KEY));
+        }
+    }
+}
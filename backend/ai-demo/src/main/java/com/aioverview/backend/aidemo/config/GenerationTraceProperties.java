@@ -0,0 +1,36 @@
+package com.aioverview.backend.aidemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 提示词生成记录配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai-demo.generation-trace")
+public class GenerationTraceProperties {
+
+    /**
+     * 内存中保留的最近记录条数（向上取整为2的幂）
+     */
+    private int capacity = 256;
+
+    /**
+     * 记录中任务描述最多保留的字符数
+     */
+    private int maxTaskLength = 200;
+
+    /**
+     * 每个 log-period 内最多输出的日志条数，超出部分只计数，在下一条日志中汇总
+     */
+    private int logCapacity = 20;
+
+    /**
+     * 日志限额的补满周期
+     */
+    private Duration logPeriod = Duration.ofMinutes(1);
+}
@@ -1,9 +1,13 @@
 package com.aioverview.backend.aidemo.config;
 
+import com.aioverview.backend.aidemo.service.strategy.ProviderBusyException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.servlet.NoHandlerFoundException;
@@ -13,8 +17,10 @@ import java.util.Map;
 /**
  * 全局异常处理器
  * 用于处理各种异常，包括404等不存在的API请求
+ * 响应式模式下由 {@link ReactiveExceptionHandler} 处理
  */
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 public class GlobalExceptionHandler {
 
@@ -38,6 +44,39 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    /**
+     * 处理400 - 请求体缺失、格式错误或未通过请求对象的校验
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<?> handleNotReadable(HttpMessageNotReadableException ex, HttpServletRequest request) {
+        Throwable cause = ex.getMostSpecificCause();
+        String message = cause instanceof IllegalArgumentException ? cause.getMessage() : "请求体格式错误";
+        log.warn("请求参数错误: {} {}, {}", request.getMethod(), request.getRequestURI(), message);
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of(
+                        "code", 400,
+                        "error", "请求参数错误",
+                        "message", message
+                ));
+    }
+
+    /**
+     * 处理503 - 模型并发已满
+     */
+    @ExceptionHandler(ProviderBusyException.class)
+    public ResponseEntity<?> handleProviderBusy(ProviderBusyException ex, HttpServletRequest request) {
+        log.warn("模型服务繁忙: {} {}", request.getMethod(), request.getRequestURI());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of(
+                        "code", 503,
+                        "error", "服务繁忙",
+                        "message", ex.getMessage()
+                ));
+    }
+
     /**
      * 处理其他所有异常
      */
@@ -0,0 +1,63 @@
+package com.aioverview.backend.aidemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 知识库检索增强（RAG）配置
+ * 对站内笔记和工具介绍的Markdown建立向量索引，概念解释时检索相关片段作为参考
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai-demo.rag")
+public class RagProperties {
+
+    /**
+     * 是否启用，需要可用的向量模型
+     */
+    private boolean enabled = false;
+
+    /**
+     * Markdown文件的根目录
+     */
+    private String baseDir = "../frontend/public/lib";
+
+    /**
+     * 相对于根目录的文件匹配规则
+     */
+    private List<String> includes = List.of("notes/**/*.md", "tools/*.md");
+
+    /**
+     * 索引文件目录（向量和文件清单），重启后按内容哈希增量更新
+     */
+    private String indexDir = "./ai-demo/db/rag";
+
+    /**
+     * 重新扫描文件的间隔
+     */
+    private Duration reindexInterval = Duration.ofMinutes(10);
+
+    /**
+     * 每个片段的目标token数
+     */
+    private int chunkSize = 400;
+
+    /**
+     * 检索返回的片段数
+     */
+    private int topK = 4;
+
+    /**
+     * 相似度下限，低于该值的片段不作为参考
+     */
+    private double similarityThreshold = 0.5;
+
+    /**
+     * 使用检索结果时的最大输出token数，参考内容让回答更聚焦，可以比默认值小
+     */
+    private int maxTokens = 1024;
+}
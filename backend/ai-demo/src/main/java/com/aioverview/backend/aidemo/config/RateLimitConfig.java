@@ -0,0 +1,42 @@
+package com.aioverview.backend.aidemo.config;
+
+import com.aioverview.backend.aidemo.service.strategy.ChatModelStrategyFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * 限流过滤器注册，只作用于大模型接口
+ * Servlet模式注册 {@link RateLimitFilter}，响应式模式注册 {@link ReactiveRateLimitFilter}
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "ai-demo.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitProperties properties,
+                                                                   ChatModelStrategyFactory strategyFactory,
+                                                                   ObjectMapper objectMapper,
+                                                                   MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+                new RateLimitFilter(properties, strategyFactory, objectMapper, meterRegistry));
+        registration.setUrlPatterns(properties.getUrlPatterns());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public ReactiveRateLimitFilter reactiveRateLimitFilter(RateLimitProperties properties,
+                                                           ChatModelStrategyFactory strategyFactory,
+                                                           ObjectMapper objectMapper,
+                                                           MeterRegistry meterRegistry) {
+        return new ReactiveRateLimitFilter(properties, strategyFactory, objectMapper, meterRegistry);
+    }
+}
@@ -0,0 +1,171 @@
+package com.aioverview.backend.aidemo.config;
+
+import com.aioverview.backend.aidemo.service.strategy.ChatModelStrategyFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 大模型接口限流过滤器
+ * 先按"客户端IP+接口"限流，请求指定了模型时再按"客户端IP+模型"限流，超限返回429并带上Retry-After
+ * 规则见 {@link RateLimitRules}
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitRules rules;
+
+    public RateLimitFilter(RateLimitProperties properties,
+                           ChatModelStrategyFactory strategyFactory,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.rules = new RateLimitRules(properties, strategyFactory, objectMapper, meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // CORS预检请求不计入限额
+        return HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String clientIp = ClientIpResolver.resolveTrusted(request, rules.properties().getTrustedProxies());
+        String path = request.getServletPath();
+
+        RateLimitRules.Rejection rejection = rules.acquireEndpoint(path, clientIp);
+        if (rejection != null) {
+            reject(response, rejection);
+            return;
+        }
+
+        HttpServletRequest effectiveRequest = request;
+        if (rules.limitsModels()) {
+            String requestedModel = request.getParameter("model");
+            if (requestedModel == null && isJsonBody(request)) {
+                int maxBodyBytes = rules.maxBodyBytes();
+                if (request.getContentLengthLong() > maxBodyBytes) {
+                    reject(response, rules.bodyTooLarge());
+                    return;
+                }
+                // 未声明长度（分块传输）时最多多读一个字节，用来判断是否超限
+                byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+                if (body.length > maxBodyBytes) {
+                    reject(response, rules.bodyTooLarge());
+                    return;
+                }
+                CachedBodyRequest cached = new CachedBodyRequest(request, body);
+                requestedModel = rules.readModel(body);
+                effectiveRequest = cached;
+            }
+            rejection = rules.acquireModel(path, clientIp, requestedModel);
+            if (rejection != null) {
+                reject(response, rejection);
+                return;
+            }
+        }
+
+        filterChain.doFilter(effectiveRequest, response);
+    }
+
+    private void reject(HttpServletResponse response, RateLimitRules.Rejection rejection) throws IOException {
+        response.setStatus(rejection.status().value());
+        if (rejection.retryAfterSeconds() > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(rejection.retryAfterSeconds()));
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getOutputStream().write(rules.responseBody(rejection));
+    }
+
+    private boolean isJsonBody(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.startsWith(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    /**
+     * 缓存请求体，读取model字段后仍可被控制器再次读取
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // 请求体已全部缓存在内存中，立即通知可读并读完
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.aioverview.backend.aidemo.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 限流配置
+ * 按"客户端IP+接口"和"客户端IP+模型"两个维度分别限流
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai-demo.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * 是否启用限流
+     */
+    private boolean enabled = true;
+
+    /**
+     * 需要限流的大模型接口
+     */
+    private List<String> urlPatterns = List.of(
+            "/api/concept-explainer/explain",
+            "/api/concept-explainer/explain-batch",
+            "/api/concept-explainer/compare",
+            "/api/prompt-optimizer/generate",
+            "/api/prompt-optimizer/generate-stream",
+            "/api/prompt-optimizer/optimize");
+
+    /**
+     * 应用前面的可信反向代理层数，限流按X-Forwarded-For中这些代理之前的一跳识别客户端；
+     * 为0时只使用连接的对端地址，客户端伪造的代理头不影响限流
+     */
+    private int trustedProxies = 0;
+
+    /**
+     * 未单独配置的接口使用的默认限额
+     */
+    private Limit defaultLimit = new Limit(20, Duration.ofHours(1));
+
+    /**
+     * 按接口路径单独配置的限额
+     */
+    private Map<String, Limit> endpoints = new LinkedHashMap<>();
+
+    /**
+     * 按模型名称（glm、deepseek等）配置的限额，只作用于请求参数或请求体中指定了模型的请求，未配置的模型不做模型维度限流
+     */
+    private Map<String, Limit> models = new LinkedHashMap<>();
+
+    /**
+     * 为读取model字段缓存的JSON请求体上限，超过时直接返回413；
+     * 提示词优化请求的请求体包含完整的提示词，上限要留出余量
+     */
+    private DataSize maxBodySize = DataSize.ofKilobytes(64);
+
+    /**
+     * 内存中最多跟踪的限流key数量，达到后新的客户端共用一个溢出桶
+     */
+    private int maxKeys = 100_000;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        /**
+         * 桶容量：一个周期内允许的请求数
+         */
+        private int capacity;
+        /**
+         * 补满整桶所需时间
+         */
+        private Duration period;
+    }
+}
@@ -0,0 +1,166 @@
+package com.aioverview.backend.aidemo.config;
+
+import com.aioverview.backend.aidemo.service.ratelimit.TokenBucketRateLimiter;
+import com.aioverview.backend.aidemo.service.strategy.ChatModelStrategyFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流规则，{@link RateLimitFilter} 和 {@link ReactiveRateLimitFilter} 共用
+ * 先按"客户端IP+接口"扣令牌，请求指定了模型时再按"客户端IP+模型"扣令牌，模型维度拒绝时退还接口维度的令牌。
+ * 未指定模型的请求由 ChatModelRouter 选择服务商，过滤器无从得知实际使用的模型，只按接口限流。
+ */
+final class RateLimitRules {
+
+    private final RateLimitProperties properties;
+    private final ChatModelStrategyFactory strategyFactory;
+    private final ObjectMapper objectMapper;
+    private final TokenBucketRateLimiter limiter;
+
+    private final Counter endpointRejected;
+    private final Counter modelRejected;
+
+    RateLimitRules(RateLimitProperties properties,
+                   ChatModelStrategyFactory strategyFactory,
+                   ObjectMapper objectMapper,
+                   MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.strategyFactory = strategyFactory;
+        this.objectMapper = objectMapper;
+        this.limiter = new TokenBucketRateLimiter(properties.getMaxKeys());
+
+        this.endpointRejected = Counter.builder("http.ratelimit.rejected")
+                .tag("scope", "endpoint")
+                .register(meterRegistry);
+        this.modelRejected = Counter.builder("http.ratelimit.rejected")
+                .tag("scope", "model")
+                .register(meterRegistry);
+        Gauge.builder("http.ratelimit.keys", limiter, TokenBucketRateLimiter::size)
+                .register(meterRegistry);
+    }
+
+    RateLimitProperties properties() {
+        return properties;
+    }
+
+    /**
+     * 是否配置了模型维度的限额，未配置时不需要读取请求中的模型
+     */
+    boolean limitsModels() {
+        return !properties.getModels().isEmpty();
+    }
+
+    /**
+     * 按"客户端IP+接口"扣一个令牌
+     * @return 放行时返回null
+     */
+    Rejection acquireEndpoint(String path, String clientIp) {
+        RateLimitProperties.Limit limit = endpointLimit(path);
+        long waitNanos = acquire(endpointKey(path, clientIp), limit);
+        if (waitNanos > 0) {
+            endpointRejected.increment();
+            return Rejection.tooManyRequests(waitNanos, "请求过于频繁，请稍后再试");
+        }
+        return null;
+    }
+
+    /**
+     * 请求指定了模型时按"客户端IP+模型"扣一个令牌，被拒绝时退还 {@link #acquireEndpoint} 已扣的令牌
+     * @param requestedModel 请求参数或请求体中的model，未指定时为null
+     * @return 放行时返回null
+     */
+    Rejection acquireModel(String path, String clientIp, String requestedModel) {
+        if (requestedModel == null || requestedModel.isBlank()) {
+            return null;
+        }
+        // 以工厂实际选中的策略为准（不可用时会回退到deepseek）
+        String model = strategyFactory.getStrategy(requestedModel).getModelName();
+        RateLimitProperties.Limit limit = properties.getModels().get(model);
+        if (limit == null) {
+            return null;
+        }
+        long waitNanos = acquire("model:" + model + '|' + clientIp, limit);
+        if (waitNanos > 0) {
+            RateLimitProperties.Limit endpoint = endpointLimit(path);
+            limiter.release(endpointKey(path, clientIp), endpoint.getCapacity(), endpoint.getPeriod().toNanos());
+            modelRejected.increment();
+            return Rejection.tooManyRequests(waitNanos, "模型 " + model + " 请求过于频繁，请稍后再试");
+        }
+        return null;
+    }
+
+    /**
+     * 为读取model字段允许缓存的请求体字节数
+     */
+    int maxBodyBytes() {
+        return (int) Math.min(Integer.MAX_VALUE - 1, properties.getMaxBodySize().toBytes());
+    }
+
+    /**
+     * 请求体超过 {@link #maxBodyBytes} 时的拒绝原因
+     */
+    Rejection bodyTooLarge() {
+        return new Rejection(HttpStatus.PAYLOAD_TOO_LARGE, "请求体过大",
+                "请求体不能超过 " + properties.getMaxBodySize().toKilobytes() + "KB", 0);
+    }
+
+    /**
+     * 读取JSON请求体中的model字段
+     */
+    String readModel(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode model = objectMapper.readTree(body).get("model");
+            return model != null && model.isTextual() ? model.asText() : null;
+        } catch (IOException e) {
+            // 请求体不是合法JSON时交给后续的参数解析报错
+            return null;
+        }
+    }
+
+    /**
+     * 拒绝响应的JSON内容
+     */
+    byte[] responseBody(Rejection rejection) throws IOException {
+        return objectMapper.writeValueAsBytes(Map.of(
+                "code", rejection.status().value(),
+                "error", rejection.error(),
+                "message", rejection.message()
+        ));
+    }
+
+    private RateLimitProperties.Limit endpointLimit(String path) {
+        return properties.getEndpoints().getOrDefault(path, properties.getDefaultLimit());
+    }
+
+    private static String endpointKey(String path, String clientIp) {
+        return "endpoint:" + path + '|' + clientIp;
+    }
+
+    private long acquire(String key, RateLimitProperties.Limit limit) {
+        return limiter.tryAcquire(key, limit.getCapacity(), limit.getPeriod().toNanos());
+    }
+
+    /**
+     * 拒绝请求的原因
+     * @param retryAfterSeconds 建议的重试等待秒数，为0时不返回Retry-After
+     */
+    record Rejection(HttpStatus status, String error, String message, long retryAfterSeconds) {
+
+        static Rejection tooManyRequests(long waitNanos, String message) {
+            long second = TimeUnit.SECONDS.toNanos(1);
+            return new Rejection(HttpStatus.TOO_MANY_REQUESTS, "请求过于频繁", message,
+                    Math.max(1, (waitNanos + second - 1) / second));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.aioverview.backend.aidemo.config;
+
+import com.aioverview.backend.aidemo.service.strategy.ProviderBusyException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.Map;
+
+/**
+ * 全局异常处理器（响应式模式）
+ * 返回格式与 {@link GlobalExceptionHandler} 相同
+ */
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveExceptionHandler {
+
+    /**
+     * 处理404等带状态码的异常
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<?> handleResponseStatus(ResponseStatusException ex, ServerHttpRequest request) {
+        if (ex.getStatusCode().value() == HttpStatus.NOT_FOUND.value()) {
+            log.warn("请求不存在的API: {} {}, IP: {}", request.getMethod(), request.getPath(), ClientIpResolver.resolve(request));
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of(
+                            "code", 404,
+                            "error", "API不存在",
+                            "message", "请求的资源不存在: " + request.getPath()
+                    ));
+        }
+        return ResponseEntity.status(ex.getStatusCode())
+                .body(Map.of(
+                        "code", ex.getStatusCode().value(),
+                        "error", ex.getStatusCode().toString(),
+                        "message", String.valueOf(ex.getReason())
+                ));
+    }
+
+    /**
+     * 处理400 - 请求体缺失、格式错误或未通过请求对象的校验
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<?> handleInput(ServerWebInputException ex, ServerHttpRequest request) {
+        Throwable cause = ex.getMostSpecificCause();
+        String message = cause instanceof IllegalArgumentException ? cause.getMessage() : "请求体格式错误";
+        log.warn("请求参数错误: {} {}, {}", request.getMethod(), request.getPath(), message);
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of(
+                        "code", 400,
+                        "error", "请求参数错误",
+                        "message", message
+                ));
+    }
+
+    /**
+     * 处理503 - 模型并发已满
+     */
+    @ExceptionHandler(ProviderBusyException.class)
+    public ResponseEntity<?> handleProviderBusy(ProviderBusyException ex, ServerHttpRequest request) {
+        log.warn("模型服务繁忙: {} {}", request.getMethod(), request.getPath());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of(
+                        "code", 503,
+                        "error", "服务繁忙",
+                        "message", ex.getMessage()
+                ));
+    }
+
+    /**
+     * 处理其他所有异常
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<?> handleException(Exception ex, ServerHttpRequest request) {
+        log.error("请求异常: {} {}, IP: {}, 异常类型: {}, 异常信息: {}", request.getMethod(), request.getPath(),
+                ClientIpResolver.resolve(request), ex.getClass().getName(), ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of(
+                        "code", 500,
+                        "error", "服务器内部错误",
+                        "message", String.valueOf(ex.getMessage())
+                ));
+    }
+}
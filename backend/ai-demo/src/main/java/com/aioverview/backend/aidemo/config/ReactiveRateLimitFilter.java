@@ -0,0 +1,118 @@
+package com.aioverview.backend.aidemo.config;
+
+import com.aioverview.backend.aidemo.service.strategy.ChatModelStrategyFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+
+/**
+ * 大模型接口限流过滤器（响应式模式）
+ * 规则与 {@link RateLimitFilter} 相同，见 {@link RateLimitRules}
+ */
+public class ReactiveRateLimitFilter implements WebFilter {
+
+    private final RateLimitRules rules;
+
+    public ReactiveRateLimitFilter(RateLimitProperties properties,
+                                   ChatModelStrategyFactory strategyFactory,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry) {
+        this.rules = new RateLimitRules(properties, strategyFactory, objectMapper, meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().pathWithinApplication().value();
+        // CORS预检请求不计入限额
+        if (HttpMethod.OPTIONS.equals(request.getMethod()) || !rules.properties().getUrlPatterns().contains(path)) {
+            return chain.filter(exchange);
+        }
+
+        String clientIp = ClientIpResolver.resolveTrusted(request, rules.properties().getTrustedProxies());
+        RateLimitRules.Rejection rejection = rules.acquireEndpoint(path, clientIp);
+        if (rejection != null) {
+            return reject(exchange.getResponse(), rejection);
+        }
+
+        if (!rules.limitsModels()) {
+            return chain.filter(exchange);
+        }
+        String requestedModel = request.getQueryParams().getFirst("model");
+        if (requestedModel != null || !MediaType.APPLICATION_JSON.isCompatibleWith(request.getHeaders().getContentType())) {
+            return limitModel(exchange, chain, path, clientIp, requestedModel);
+        }
+        int maxBodyBytes = rules.maxBodyBytes();
+        if (request.getHeaders().getContentLength() > maxBodyBytes) {
+            return reject(exchange.getResponse(), rules.bodyTooLarge());
+        }
+        // 读出请求体中的model字段后重新包装请求，控制器仍能正常读取请求体；分块传输时读到上限即停止
+        return DataBufferUtils.join(request.getBody(), maxBodyBytes)
+                .map(buffer -> {
+                    byte[] body = new byte[buffer.readableByteCount()];
+                    buffer.read(body);
+                    DataBufferUtils.release(buffer);
+                    return body;
+                })
+                .defaultIfEmpty(new byte[0])
+                .flatMap(body -> limitModel(exchange.mutate().request(new CachedBodyRequest(request, body)).build(),
+                        chain, path, clientIp, rules.readModel(body)))
+                .onErrorResume(DataBufferLimitException.class, e -> reject(exchange.getResponse(), rules.bodyTooLarge()));
+    }
+
+    private Mono<Void> limitModel(ServerWebExchange exchange, WebFilterChain chain,
+                                  String path, String clientIp, String requestedModel) {
+        RateLimitRules.Rejection rejection = rules.acquireModel(path, clientIp, requestedModel);
+        if (rejection != null) {
+            return reject(exchange.getResponse(), rejection);
+        }
+        return chain.filter(exchange);
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response, RateLimitRules.Rejection rejection) {
+        response.setStatusCode(rejection.status());
+        if (rejection.retryAfterSeconds() > 0) {
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(rejection.retryAfterSeconds()));
+        }
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        try {
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(rules.responseBody(rejection))));
+        } catch (IOException e) {
+            return Mono.error(e);
+        }
+    }
+
+    /**
+     * 缓存请求体，读取model字段后仍可被控制器再次读取
+     */
+    private static class CachedBodyRequest extends ServerHttpRequestDecorator {
+
+        private final byte[] body;
+
+        CachedBodyRequest(ServerHttpRequest delegate, byte[] body) {
+            super(delegate);
+            this.body = body;
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
+        }
+    }
+}
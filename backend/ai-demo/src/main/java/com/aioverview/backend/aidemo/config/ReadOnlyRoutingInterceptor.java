@@ -0,0 +1,51 @@
+package com.aioverview.backend.aidemo.config;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * MyBatis查询路由到只读连接池
+ * 事务内的查询仍使用事务绑定的写连接，保证能读到本事务的写入
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class})
+})
+public class ReadOnlyRoutingInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return invocation.proceed();
+        }
+        try {
+            return SqliteRoutingDataSource.readOnly(() -> {
+                try {
+                    return invocation.proceed();
+                } catch (Exception e) {
+                    throw new QueryFailure(e);
+                }
+            });
+        } catch (QueryFailure e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class QueryFailure extends RuntimeException {
+
+        QueryFailure(Exception cause) {
+            super(cause);
+        }
+    }
+}
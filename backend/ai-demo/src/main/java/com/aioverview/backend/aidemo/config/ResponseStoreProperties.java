@@ -0,0 +1,57 @@
+package com.aioverview.backend.aidemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 模型输出持久化缓存（二级缓存）配置
+ * 内存缓存未命中时先查本地SQLite文件，重启和发版后已生成的内容仍然可用
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai-demo.response-store")
+public class ResponseStoreProperties {
+
+    /**
+     * 是否启用，关闭后只使用内存缓存
+     */
+    private boolean enabled = true;
+
+    /**
+     * 缓存数据库地址，与访客统计分开，避免争用同一个写锁
+     */
+    private String url = "jdbc:sqlite:./ai-demo/db/llm_cache.db";
+
+    /**
+     * 条目有效期，过期条目读取时忽略并由定时任务删除
+     */
+    private Duration ttl = Duration.ofDays(30);
+
+    /**
+     * 写入队列容量，满时丢弃新条目（只影响持久化，不影响本次响应）
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * 每个事务最多写入的条目数
+     */
+    private int batchSize = 50;
+
+    /**
+     * 攒批等待时间
+     */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /**
+     * 连接池大小，写入只由一个后台线程进行，其余连接用于读取
+     */
+    private int poolSize = 3;
+
+    /**
+     * 停机时等待队列写完的最长时间
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(5);
+}
@@ -8,7 +8,10 @@ import org.springframework.web.client.RestTemplate;
 public class RestTemplateConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(UpstreamHttpClients upstreamHttpClients) {
+        // 使用共享的上游HTTP客户端（default配置），带连接上限和超时
+        RestTemplate restTemplate = new RestTemplate(upstreamHttpClients.requestFactory("default"));
+        restTemplate.getInterceptors().add(upstreamHttpClients.interceptor("default"));
+        return restTemplate;
     }
-}
\ No newline at end of file
+}
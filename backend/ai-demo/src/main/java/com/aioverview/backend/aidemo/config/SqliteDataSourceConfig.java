@@ -0,0 +1,79 @@
+package com.aioverview.backend.aidemo.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+/**
+ * SQLite数据源配置
+ * 一个写连接串行化所有写入，另开只读连接池承担查询。开启WAL后看板查询不再阻塞访问记录写入。
+ */
+@Configuration
+@Slf4j
+public class SqliteDataSourceConfig {
+
+    @Bean
+    @Primary
+    public SqliteRoutingDataSource dataSource(DataSourceProperties dataSourceProperties,
+                                              SqliteProperties properties,
+                                              MeterRegistry meterRegistry) {
+        String url = dataSourceProperties.getUrl();
+
+        // 先建写连接：数据库文件和WAL模式都由写连接创建，只读连接无法修改日志模式
+        SQLiteConfig writerConfig = baseConfig(properties);
+        if (properties.isWal()) {
+            writerConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        }
+        writerConfig.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+        HikariDataSource writer = pool("sqlite-writer", url, writerConfig, false, 1, properties, meterRegistry);
+
+        SQLiteConfig readerConfig = baseConfig(properties);
+        readerConfig.setReadOnly(true);
+        HikariDataSource reader = pool("sqlite-reader", url, readerConfig, true, properties.getReadPoolSize(),
+                properties, meterRegistry);
+
+        log.info("SQLite数据源已初始化: {}, WAL={}, 只读连接池大小={}", url, properties.isWal(), properties.getReadPoolSize());
+        return new SqliteRoutingDataSource(writer, reader);
+    }
+
+    @Bean
+    public ReadOnlyRoutingInterceptor readOnlyRoutingInterceptor() {
+        return new ReadOnlyRoutingInterceptor();
+    }
+
+    private SQLiteConfig baseConfig(SqliteProperties properties) {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setSynchronous(SQLiteConfig.SynchronousMode.valueOf(properties.getSynchronous().toUpperCase()));
+        config.setBusyTimeout((int) properties.getBusyTimeout().toMillis());
+        config.setCacheSize(properties.getCacheSize());
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(properties.getMmapSize()));
+        return config;
+    }
+
+    private HikariDataSource pool(String name, String url, SQLiteConfig sqliteConfig, boolean readOnly, int size,
+                                  SqliteProperties properties, MeterRegistry meterRegistry) {
+        SQLiteDataSource sqliteDataSource = new SQLiteDataSource(sqliteConfig);
+        sqliteDataSource.setUrl(url);
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setDataSource(sqliteDataSource);
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(size);
+        config.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+        // SQLite是本地文件，连接不会被服务端断开
+        config.setMaxLifetime(0);
+        config.setIdleTimeout(0);
+        // 与SQLite连接本身的只读标志保持一致，否则连接池会尝试修改它
+        config.setReadOnly(readOnly);
+        config.setMetricRegistry(meterRegistry);
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,52 @@
+package com.aioverview.backend.aidemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * SQLite连接配置
+ * 数据库地址沿用 spring.datasource.url，这里只配置连接参数和读写连接池
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai-demo.sqlite")
+public class SqliteProperties {
+
+    /**
+     * 是否开启WAL，开启后读连接和写连接互不阻塞
+     */
+    private boolean wal = true;
+
+    /**
+     * 同步级别，WAL模式下NORMAL只在检查点时fsync，断电最多丢失最后几个事务
+     */
+    private String synchronous = "NORMAL";
+
+    /**
+     * 等待数据库锁的最长时间
+     */
+    private Duration busyTimeout = Duration.ofSeconds(5);
+
+    /**
+     * 每个连接的页缓存，负数表示KiB
+     */
+    private int cacheSize = -16_000;
+
+    /**
+     * 内存映射读取的最大字节数，0表示关闭
+     */
+    private long mmapSize = 256L * 1024 * 1024;
+
+    /**
+     * 只读连接池大小
+     */
+    private int readPoolSize = 4;
+
+    /**
+     * 从连接池获取连接的最长等待时间（写连接只有一个，写操作在这里排队）
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(30);
+}
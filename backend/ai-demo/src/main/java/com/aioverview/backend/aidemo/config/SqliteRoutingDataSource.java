@@ -0,0 +1,58 @@
+package com.aioverview.backend.aidemo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * SQLite读写分离数据源
+ * 默认使用唯一的写连接，在 {@link #readOnly(Supplier)} 范围内获取的连接来自只读连接池
+ */
+public class SqliteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+
+    private final HikariDataSource writer;
+    private final HikariDataSource reader;
+
+    public SqliteRoutingDataSource(HikariDataSource writer, HikariDataSource reader) {
+        this.writer = writer;
+        this.reader = reader;
+        setTargetDataSources(Map.of(Boolean.FALSE, writer, Boolean.TRUE, reader));
+        setDefaultTargetDataSource(writer);
+        afterPropertiesSet();
+    }
+
+    /**
+     * 在只读连接上执行
+     * @param action 只包含查询的操作
+     * @return 操作结果
+     */
+    public static <T> T readOnly(Supplier<T> action) {
+        Boolean previous = READ_ONLY.get();
+        READ_ONLY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                READ_ONLY.remove();
+            } else {
+                READ_ONLY.set(previous);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return READ_ONLY.get() != null;
+    }
+
+    @Override
+    public void close() {
+        reader.close();
+        writer.close();
+    }
+}
@@ -0,0 +1,274 @@
+package com.aioverview.backend.aidemo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 上游HTTP客户端
+ * 每个服务商共用一个 JDK HttpClient（支持HTTP/2多路复用和连接保活），同步和流式调用都经过同一个连接配额。
+ * 超时分三层：connect-timeout 限制建连；同步调用的响应在生成完才返回，由 total-timeout 限制整个请求
+ * （等待响应头由请求超时限制，读取响应体时到期则关闭响应中止读取）；
+ * 流式调用由 read-timeout 限制数据块间隔，并在 total-timeout 到期时中止。
+ */
+@Component
+@Slf4j
+public class UpstreamHttpClients {
+
+    private final UpstreamHttpProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<RestClient.Builder> restClientBuilderProvider;
+    private final ObjectProvider<WebClient.Builder> webClientBuilderProvider;
+    private final Map<String, Upstream> upstreams = new ConcurrentHashMap<>();
+
+    public UpstreamHttpClients(UpstreamHttpProperties properties,
+                               MeterRegistry meterRegistry,
+                               ObjectProvider<RestClient.Builder> restClientBuilderProvider,
+                               ObjectProvider<WebClient.Builder> webClientBuilderProvider) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.restClientBuilderProvider = restClientBuilderProvider;
+        this.webClientBuilderProvider = webClientBuilderProvider;
+    }
+
+    /**
+     * 获取服务商的同步客户端构建器
+     * @param provider 服务商名称
+     * @return 已配置连接和超时的RestClient.Builder（每次调用返回新的构建器）
+     */
+    public RestClient.Builder restClientBuilder(String provider) {
+        return restClientBuilderProvider.getIfAvailable(RestClient::builder)
+                .requestFactory(requestFactory(provider))
+                .requestInterceptor(interceptor(provider));
+    }
+
+    /**
+     * 获取服务商的响应式客户端构建器
+     * @param provider 服务商名称
+     * @return 已配置连接和超时的WebClient.Builder（每次调用返回新的构建器）
+     */
+    public WebClient.Builder webClientBuilder(String provider) {
+        Upstream upstream = upstream(provider);
+        JdkClientHttpConnector connector = new JdkClientHttpConnector(upstream.client);
+        connector.setReadTimeout(upstream.settings.getReadTimeout());
+        return webClientBuilderProvider.getIfAvailable(WebClient::builder)
+                .clientConnector(connector)
+                .filter(limitAndTimeout(upstream));
+    }
+
+    /**
+     * 获取服务商的同步请求工厂
+     * @param provider 服务商名称
+     * @return 请求工厂
+     */
+    public ClientHttpRequestFactory requestFactory(String provider) {
+        Upstream upstream = upstream(provider);
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(upstream.client);
+        // JDK HttpClient 的请求超时只限制等待响应头，读取响应体的截止时间由 interceptor 控制
+        requestFactory.setReadTimeout(upstream.settings.getTotalTimeout());
+        return requestFactory;
+    }
+
+    /**
+     * 获取服务商的连接配额拦截器，响应关闭时归还配额；
+     * 响应体在 total-timeout 到期时仍未读完则关闭响应，正在阻塞读取的线程收到 HttpTimeoutException
+     * @param provider 服务商名称
+     * @return 请求拦截器
+     */
+    public ClientHttpRequestInterceptor interceptor(String provider) {
+        Upstream upstream = upstream(provider);
+        Duration totalTimeout = upstream.settings.getTotalTimeout();
+        return (request, body, execution) -> {
+            long deadline = System.nanoTime() + totalTimeout.toNanos();
+            Runnable release = upstream.limiter.acquire();
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                return new ReleasingResponse(response, release, totalTimeout, Math.max(0, deadline - System.nanoTime()));
+            } catch (IOException | RuntimeException e) {
+                release.run();
+                throw e;
+            }
+        };
+    }
+
+    private ExchangeFilterFunction limitAndTimeout(Upstream upstream) {
+        Duration readTimeout = upstream.settings.getReadTimeout();
+        Duration totalTimeout = upstream.settings.getTotalTimeout();
+        return (request, next) -> acquire(upstream.limiter).flatMap(permit -> {
+            long deadline = System.nanoTime() + totalTimeout.toNanos();
+            // 响应体没有被订阅（也没有调用releaseBody）时不会触发下面的回调，到总截止时间兜底归还配额
+            Disposable guard = Schedulers.parallel().schedule(permit, totalTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            Runnable release = () -> {
+                guard.dispose();
+                permit.run();
+            };
+            return next.exchange(request)
+                    .map(response -> response.mutate()
+                            .body(body -> body
+                                    .timeout(Mono.delay(nextTimeout(readTimeout, deadline)),
+                                            chunk -> Mono.delay(nextTimeout(readTimeout, deadline)))
+                                    .doFinally(signal -> release.run()))
+                            .build())
+                    .doOnError(error -> release.run())
+                    .doOnCancel(release);
+        });
+    }
+
+    /**
+     * 优先非阻塞获取配额，拿不到时在弹性线程池上等待，避免阻塞事件循环
+     */
+    private Mono<Runnable> acquire(ConnectionLimiter limiter) {
+        return Mono.defer(() -> {
+            Runnable release = limiter.tryAcquire();
+            return release != null
+                    ? Mono.just(release)
+                    : Mono.fromCallable(limiter::acquire).subscribeOn(Schedulers.boundedElastic());
+        });
+    }
+
+    /**
+     * 下一个数据块的等待时间：不超过 read-timeout，也不超过距总截止时间的剩余时间
+     */
+    private static Duration nextTimeout(Duration readTimeout, long deadline) {
+        long remaining = Math.max(0, deadline - System.nanoTime());
+        return Duration.ofNanos(Math.min(readTimeout.toNanos(), remaining));
+    }
+
+    private Upstream upstream(String provider) {
+        return upstreams.computeIfAbsent(provider, name -> {
+            UpstreamHttpProperties.Settings settings = properties.settings(name);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(settings.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(settings.getConnectTimeout())
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .build();
+            log.info("上游HTTP客户端已创建: {}, HTTP/2={}, 最大连接数={}, 总超时={}",
+                    name, settings.isHttp2(), settings.getMaxConnections(), settings.getTotalTimeout());
+            return new Upstream(settings, client,
+                    new ConnectionLimiter(name, settings.getMaxConnections(), settings.getAcquireTimeout(), meterRegistry));
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        upstreams.values().forEach(upstream -> upstream.client.close());
+    }
+
+    private record Upstream(UpstreamHttpProperties.Settings settings, HttpClient client, ConnectionLimiter limiter) {
+    }
+
+    /**
+     * 关闭时归还连接配额的响应，到总截止时间仍未关闭则主动关闭，中止阻塞中的读取
+     */
+    private static final class ReleasingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Runnable release;
+        private final Duration totalTimeout;
+        private final Disposable watchdog;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean expired;
+
+        ReleasingResponse(ClientHttpResponse delegate, Runnable release, Duration totalTimeout, long remainingNanos) {
+            this.delegate = delegate;
+            this.release = release;
+            this.totalTimeout = totalTimeout;
+            this.watchdog = Schedulers.parallel().schedule(this::expire, remainingNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private void expire() {
+            expired = true;
+            log.warn("上游响应超过总超时 {}，中止读取", totalTimeout);
+            close();
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return new FilterInputStream(delegate.getBody()) {
+                @Override
+                public int read() throws IOException {
+                    try {
+                        return super.read();
+                    } catch (IOException e) {
+                        throw timeoutOr(e);
+                    }
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    try {
+                        return super.read(b, off, len);
+                    } catch (IOException e) {
+                        throw timeoutOr(e);
+                    }
+                }
+            };
+        }
+
+        /**
+         * 到期关闭导致的读取失败改为超时异常，便于调用方区分
+         */
+        private IOException timeoutOr(IOException e) {
+            if (!expired) {
+                return e;
+            }
+            HttpTimeoutException timeout = new HttpTimeoutException("上游响应超过总超时 " + totalTimeout);
+            timeout.initCause(e);
+            return timeout;
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            watchdog.dispose();
+            try {
+                delegate.close();
+            } finally {
+                release.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.aioverview.backend.aidemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 上游HTTP客户端配置（大模型服务商等）
+ * 每个服务商一个客户端，未单独配置的服务商使用默认值
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai-demo.http")
+public class UpstreamHttpProperties {
+
+    /**
+     * 按服务商名称（deepseek、glm、default等）覆盖的配置
+     */
+    private Map<String, Settings> providers = new HashMap<>();
+
+    /**
+     * 获取服务商的配置
+     * @param provider 服务商名称
+     * @return 配置，未配置时返回默认值
+     */
+    public Settings settings(String provider) {
+        return providers.getOrDefault(provider, new Settings());
+    }
+
+    @Data
+    public static class Settings {
+
+        /**
+         * 是否优先使用HTTP/2（服务端不支持时自动降级为HTTP/1.1）
+         */
+        private boolean http2 = true;
+
+        /**
+         * 建立连接（含TLS握手）的超时时间
+         */
+        private Duration connectTimeout = Duration.ofSeconds(5);
+
+        /**
+         * 流式响应中两个数据块之间的最长间隔
+         */
+        private Duration readTimeout = Duration.ofSeconds(60);
+
+        /**
+         * 单次请求从发出到响应读完的最长时间
+         */
+        private Duration totalTimeout = Duration.ofSeconds(180);
+
+        /**
+         * 同时进行的最大请求数（HTTP/1.1下即最大连接数，HTTP/2下为最大并发流数）
+         */
+        private int maxConnections = 32;
+
+        /**
+         * 等待空闲连接的最长时间，超时后请求直接失败
+         */
+        private Duration acquireTimeout = Duration.ofSeconds(5);
+    }
+}
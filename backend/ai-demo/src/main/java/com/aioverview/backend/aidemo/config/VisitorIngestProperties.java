@@ -0,0 +1,76 @@
+package com.aioverview.backend.aidemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 访问记录异步写入配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai-demo.visitor-ingest")
+public class VisitorIngestProperties {
+
+    /**
+     * 内存队列容量
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * 单批最多写入的记录数，达到后立即刷盘
+     */
+    private int batchSize = 200;
+
+    /**
+     * 单条INSERT语句包含的最大行数（SQLite单条语句的参数个数有上限）
+     */
+    private int rowsPerStatement = 100;
+
+    /**
+     * 攒批的最长等待时间，到时间即使不满一批也刷盘
+     */
+    private Duration flushInterval = Duration.ofMillis(500);
+
+    /**
+     * 队列满时的处理策略
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.SAMPLE;
+
+    /**
+     * BLOCK策略下请求线程的最长等待时间，超时后丢弃
+     */
+    private Duration blockTimeout = Duration.ofMillis(50);
+
+    /**
+     * SAMPLE策略下，队列使用率超过该水位后开始采样
+     */
+    private double highWaterMark = 0.8;
+
+    /**
+     * SAMPLE策略下超过水位时的保留比例
+     */
+    private double sampleRate = 0.1;
+
+    /**
+     * 停机时等待队列写完的最长时间
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+    public enum OverflowPolicy {
+        /**
+         * 队列满时直接丢弃
+         */
+        DROP,
+        /**
+         * 超过水位后按比例采样，队列满时丢弃
+         */
+        SAMPLE,
+        /**
+         * 队列满时阻塞请求线程一小段时间，仍满则丢弃
+         */
+        BLOCK
+    }
+}
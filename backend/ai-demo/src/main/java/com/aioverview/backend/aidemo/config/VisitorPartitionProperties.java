@@ -0,0 +1,50 @@
+package com.aioverview.backend.aidemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 访客统计分区维护配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai-demo.visitor-partition")
+public class VisitorPartitionProperties {
+
+    /**
+     * 原始记录保留的月数（含当月），0表示永久保留；汇总表不受影响
+     */
+    private int retentionMonths = 12;
+
+    /**
+     * 超出保留期的分区的处理方式
+     */
+    private RetentionAction retentionAction = RetentionAction.ARCHIVE;
+
+    /**
+     * 归档目录，每个分区归档为一个独立的SQLite文件
+     */
+    private String archiveDir = "./ai-demo/db/archive";
+
+    /**
+     * 日常维护（创建下月分区、清理过期分区、ANALYZE）的cron表达式
+     */
+    private String maintenanceCron = "0 30 3 * * *";
+
+    /**
+     * VACUUM的cron表达式，VACUUM期间写入会排队，应放在低峰期
+     */
+    private String vacuumCron = "0 0 4 * * SUN";
+
+    public enum RetentionAction {
+        /**
+         * 直接删除分区表
+         */
+        DROP,
+        /**
+         * 先复制到归档文件再删除分区表
+         */
+        ARCHIVE
+    }
+}
@@ -1,15 +1,22 @@
 package com.aioverview.backend.aidemo.controller;
 
+import com.aioverview.backend.aidemo.model.dto.ConceptBatchRequest;
+import com.aioverview.backend.aidemo.model.dto.ConceptResult;
 import com.aioverview.backend.aidemo.service.Answer;
 import com.aioverview.backend.aidemo.service.ConceptExplainerService;
 import com.aioverview.backend.aidemo.service.Question;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.Map;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/concept-explainer")
 // TODO 按需修改
 @CrossOrigin(origins = "*")
@@ -43,4 +50,38 @@ public class ConceptExplainerController {
                 "与**API接口**类似，但更轻量、通用；常与**RAG技术**结合，增强AI的实时信息处理能力，是构建AI智能体的关键技术之一。";
         return ResponseEntity.ok(mockExplanation);*/
     }
+
+    /**
+     * 批量解释概念
+     * 每个概念完成后立即输出一条结果（缓存命中的最先输出），默认按 NDJSON 逐行返回，Accept 为 text/event-stream 时按 SSE 返回。
+     * Servlet模式下 Accept 为通配类型时不会自动按流式输出，需要显式指定响应类型
+     */
+    @PostMapping("/explain-batch")
+    public ResponseEntity<Flux<ConceptResult>> explainBatch(@RequestBody ConceptBatchRequest request,
+                                                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType contentType = accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE)
+                ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON;
+        try {
+            return ResponseEntity.ok()
+                    .contentType(contentType)
+                    .body(conceptExplainerService.explainBatch(request.conceptNames()));
+        } catch (IllegalArgumentException e) {
+            // 参数错误也按结果格式返回一行，客户端只需解析一种格式
+            return ResponseEntity.badRequest()
+                    .contentType(contentType)
+                    .body(Flux.just(ConceptResult.error("", e.getMessage())));
+        }
+    }
+
+    /**
+     * 比较多个概念，概念顺序不影响结果
+     */
+    @PostMapping("/compare")
+    public ResponseEntity<String> compareConcepts(@RequestBody ConceptBatchRequest request) {
+        try {
+            return ResponseEntity.ok(conceptExplainerService.compareConcepts(request.conceptNames()).answer());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.aioverview.backend.aidemo.controller;
 import com.aioverview.backend.aidemo.model.FilterIp;
 import com.aioverview.backend.aidemo.service.FilterIpService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +16,7 @@ import java.util.Map;
  * 提供IP过滤规则的增删改查接口
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/admin/filter-ips")
 @CrossOrigin(origins = "*")
 public class FilterIpController {
@@ -0,0 +1,32 @@
+package com.aioverview.backend.aidemo.controller;
+
+import com.aioverview.backend.aidemo.service.trace.GenerationTrace;
+import com.aioverview.backend.aidemo.service.trace.GenerationTraceBuffer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 提示词生成记录管理控制器
+ * 查询内存中最近的生成记录（任务、模型、长度、耗时、错误）
+ */
+@RestController
+@RequestMapping("/api/admin/generation-traces")
+@CrossOrigin(origins = "*")
+public class GenerationTraceController {
+
+    @Autowired
+    private GenerationTraceBuffer generationTraceBuffer;
+
+    /**
+     * 获取最近的生成记录
+     * @param limit 记录数量
+     * @return 生成记录，最新的在前
+     */
+    @GetMapping
+    public ResponseEntity<List<GenerationTrace>> getRecentTraces(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(generationTraceBuffer.recent(Math.max(0, limit)));
+    }
+}
@@ -6,8 +6,10 @@ import com.aioverview.backend.aidemo.model.dto.PromptResponse;
 import com.aioverview.backend.aidemo.service.PromptOptimizerService;
 import com.aioverview.backend.aidemo.service.strategy.ChatModelStrategyFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 
@@ -17,6 +19,7 @@ import java.util.Map;
  * 提示词优化器控制器
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/prompt-optimizer")
 @CrossOrigin(origins = "*")
 public class PromptOptimizerController {
@@ -58,22 +61,19 @@ public class PromptOptimizerController {
     }
 
     /**
-     * 流式生成提示词（MVP 暂用普通接口）
+     * 流式生成提示词
+     * 每个模型输出片段作为一个 SSE 事件推送，客户端断开时取消上游调用
      */
     @GetMapping(value = "/generate-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<String> generateStream(
-            @RequestParam String task,
+    public Flux<ServerSentEvent<String>> generateStream(
+            @RequestParam(required = false) String task,
             @RequestParam(defaultValue = "deepseek") String model) {
-        // MVP 版本：调用普通接口，然后一次性返回
-        GenerateRequest request = new GenerateRequest(task, model);
-        PromptResponse response = promptOptimizerService.generatePrompt(request);
-
-        if (response.error() != null) {
-            return Flux.just("data: " + response.error() + "\n\n");
-        }
-
-        // 简化实现：将完整内容作为一个 SSE 事件返回
-        return Flux.just("data: " + response.content() + "\n\n");
+        // 任务为空时请求对象的校验异常同样以 error 事件返回
+        return Flux.defer(() -> promptOptimizerService.generatePromptStream(new GenerateRequest(task, model)))
+                .map(chunk -> ServerSentEvent.builder(chunk).build())
+                .onErrorResume(e -> Flux.just(ServerSentEvent.<String>builder("生成失败: " + e.getMessage())
+                        .event("error")
+                        .build()));
     }
 
     /**
@@ -1,14 +1,17 @@
 package com.aioverview.backend.aidemo.controller;
 
+import com.aioverview.backend.aidemo.config.ClientIpResolver;
 import com.aioverview.backend.aidemo.model.VisitorStats;
 import com.aioverview.backend.aidemo.model.VisitorStatsSummary;
 import com.aioverview.backend.aidemo.service.VisitorStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.cache.annotation.Cacheable;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +20,7 @@ import java.util.Map;
  * 访客统计控制器
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/visitor-stats")
 public class VisitorStatsController {
 
@@ -50,17 +54,25 @@ public class VisitorStatsController {
             visitorStats.setUserAgent(request.getHeader("User-Agent"));
         }
         if (visitorStats.getIpAddress() == null) {
-            visitorStats.setIpAddress(getClientIp(request));
+            visitorStats.setIpAddress(ClientIpResolver.resolve(request));
         }
         if (visitorStats.getReferrer() == null) {
             visitorStats.setReferrer(request.getHeader("Referer"));
         }
         if (visitorStats.getSessionId() == null) {
-            visitorStats.setSessionId(request.getSession().getId());
+            // 只沿用已有会话，不为不带Cookie的请求创建会话；没有会话时由服务层生成匿名标识
+            HttpSession session = request.getSession(false);
+            if (session != null) {
+                visitorStats.setSessionId(session.getId());
+            }
         }
 
         // 记录访问
-        visitorStatsService.recordVisit(visitorStats);
+        try {
+            visitorStatsService.recordVisit(visitorStats);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
 
         // 返回响应
         return ResponseEntity.status(HttpStatus.CREATED).build();
@@ -110,27 +122,4 @@ public class VisitorStatsController {
         response.put("totalVisits", total);
         return ResponseEntity.ok(response);
     }
-
-    /**
-     * 获取客户端真实IP地址
-     * @param request HttpServletRequest
-     * @return IP地址
-     */
-    private String getClientIp(HttpServletRequest request) {
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("WL-Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getRemoteAddr();
-        }
-        // 多级代理的情况，取第一个IP
-        if (ip != null && ip.contains(",")) {
-            ip = ip.split(",")[0].trim();
-        }
-        return ip;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.aioverview.backend.aidemo.controller.reactive;
+
+import com.aioverview.backend.aidemo.model.dto.ConceptBatchRequest;
+import com.aioverview.backend.aidemo.model.dto.ConceptResult;
+import com.aioverview.backend.aidemo.service.Answer;
+import com.aioverview.backend.aidemo.service.ConceptExplainerService;
+import com.aioverview.backend.aidemo.service.Question;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * 概念解释控制器（响应式模式）
+ * 接口与Servlet模式相同，等待模型输出期间不占用线程
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/concept-explainer")
+@CrossOrigin(origins = "*")
+public class ReactiveConceptExplainerController {
+
+    @Autowired
+    private ConceptExplainerService conceptExplainerService;
+
+    @GetMapping("/test")
+    public ResponseEntity<String> test() {
+        return ResponseEntity.ok("Concept Explainer Service is running!");
+    }
+
+    @PostMapping("/explain")
+    public Mono<ResponseEntity<String>> explainConcept(@RequestBody Map<String, String> request) {
+        String conceptName = request.get("conceptName");
+        if (conceptName == null || conceptName.trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().body("概念名称不能为空"));
+        }
+        return conceptExplainerService.askQuestionReactive(new Question(conceptName))
+                .map(Answer::answer)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * 批量解释概念
+     * 每个概念完成后立即输出一条结果（缓存命中的最先输出），默认按 NDJSON 逐行返回，Accept 为 text/event-stream 时按 SSE 返回
+     */
+    @PostMapping(value = "/explain-batch", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public ResponseEntity<Flux<ConceptResult>> explainBatch(@RequestBody ConceptBatchRequest request) {
+        try {
+            return ResponseEntity.ok(conceptExplainerService.explainBatch(request.conceptNames()));
+        } catch (IllegalArgumentException e) {
+            // 参数错误也按结果格式返回一行，客户端只需解析一种格式
+            return ResponseEntity.badRequest().body(Flux.just(ConceptResult.error("", e.getMessage())));
+        }
+    }
+
+    /**
+     * 比较多个概念，概念顺序不影响结果
+     */
+    @PostMapping("/compare")
+    public Mono<ResponseEntity<String>> compareConcepts(@RequestBody ConceptBatchRequest request) {
+        try {
+            return conceptExplainerService.compareConceptsReactive(request.conceptNames())
+                    .map(Answer::answer)
+                    .map(ResponseEntity::ok);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().body(e.getMessage()));
+        }
+    }
+}
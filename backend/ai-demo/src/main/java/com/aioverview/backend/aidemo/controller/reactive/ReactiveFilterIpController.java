@@ -0,0 +1,133 @@
+package com.aioverview.backend.aidemo.controller.reactive;
+
+import com.aioverview.backend.aidemo.model.FilterIp;
+import com.aioverview.backend.aidemo.service.FilterIpService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * 过滤IP管理控制器（响应式模式）
+ * 接口与Servlet模式相同，数据库读写和规则重新加载放到弹性线程池执行，不阻塞事件循环
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/admin/filter-ips")
+@CrossOrigin(origins = "*")
+public class ReactiveFilterIpController {
+
+    @Autowired
+    private FilterIpService filterIpService;
+
+    /**
+     * 获取所有过滤IP
+     * @return 过滤IP列表
+     */
+    @GetMapping
+    public Mono<ResponseEntity<List<FilterIp>>> getAllFilterIps() {
+        return blocking(() -> ResponseEntity.ok(filterIpService.getAllFilterIps()));
+    }
+
+    /**
+     * 根据ID获取过滤IP
+     * @param id IP ID
+     * @return 过滤IP
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<FilterIp>> getFilterIpById(@PathVariable Long id) {
+        return blocking(() -> {
+            FilterIp ip = filterIpService.getFilterIpById(id);
+            return ip != null ? ResponseEntity.ok(ip) : ResponseEntity.notFound().<FilterIp>build();
+        });
+    }
+
+    /**
+     * 添加过滤IP
+     * @param request 请求体，包含ip和description
+     * @return 新增的过滤IP
+     */
+    @PostMapping
+    public Mono<ResponseEntity<?>> addFilterIp(@RequestBody Map<String, String> request) {
+        String ip = request.get("ip");
+        String description = request.get("description");
+
+        if (ip == null || ip.trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(Map.of("error", "IP地址不能为空")));
+        }
+
+        return writing(() -> ResponseEntity.status(HttpStatus.CREATED)
+                .body(filterIpService.addFilterIp(ip.trim(), description)));
+    }
+
+    /**
+     * 更新过滤IP
+     * @param id IP ID
+     * @param request 请求体，包含ip和description
+     * @return 更新后的过滤IP
+     */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<?>> updateFilterIp(
+            @PathVariable Long id,
+            @RequestBody Map<String, String> request) {
+        String ip = request.get("ip");
+        String description = request.get("description");
+
+        if (ip == null || ip.trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(Map.of("error", "IP地址不能为空")));
+        }
+
+        return writing(() -> ResponseEntity.ok(filterIpService.updateFilterIp(id, ip.trim(), description)));
+    }
+
+    /**
+     * 删除过滤IP
+     * @param id IP ID
+     * @return 删除结果
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteFilterIp(@PathVariable Long id) {
+        return blocking(() -> filterIpService.deleteFilterIp(id)
+                ? ResponseEntity.noContent().<Void>build()
+                : ResponseEntity.notFound().<Void>build());
+    }
+
+    /**
+     * 获取所有IP地址字符串列表（用于统计过滤）
+     * @return IP地址列表
+     */
+    @GetMapping("/addresses")
+    public Mono<ResponseEntity<List<String>>> getFilterIpAddresses() {
+        return blocking(() -> ResponseEntity.ok(filterIpService.getFilterIpAddresses()));
+    }
+
+    private static <T> Mono<ResponseEntity<T>> blocking(Callable<ResponseEntity<T>> call) {
+        return Mono.fromCallable(call)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * 写操作：校验失败（如IP格式错误、重复）时返回400
+     * 在任务内捕获校验异常：任务抛出异常时Reactor会取消并中断当前工作线程，
+     * Tomcat上响应在同一线程写出，中断后写入失败、连接被直接关闭
+     */
+    private static Mono<ResponseEntity<?>> writing(Callable<ResponseEntity<?>> call) {
+        return Mono.fromCallable(() -> {
+                    try {
+                        return call.call();
+                    } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,93 @@
+package com.aioverview.backend.aidemo.controller.reactive;
+
+import com.aioverview.backend.aidemo.model.dto.GenerateRequest;
+import com.aioverview.backend.aidemo.model.dto.OptimizeRequest;
+import com.aioverview.backend.aidemo.model.dto.PromptResponse;
+import com.aioverview.backend.aidemo.service.PromptOptimizerService;
+import com.aioverview.backend.aidemo.service.strategy.ChatModelStrategyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * 提示词优化器控制器（响应式模式）
+ * 接口与Servlet模式相同，等待模型输出期间不占用线程
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/prompt-optimizer")
+@CrossOrigin(origins = "*")
+public class ReactivePromptOptimizerController {
+
+    @Autowired
+    private PromptOptimizerService promptOptimizerService;
+
+    @Autowired
+    private ChatModelStrategyFactory strategyFactory;
+
+    /**
+     * 健康检查
+     */
+    @GetMapping("/test")
+    public ResponseEntity<String> test() {
+        return ResponseEntity.ok("Prompt Optimizer Service is running!");
+    }
+
+    /**
+     * 获取可用的模型列表
+     */
+    @GetMapping("/models")
+    public ResponseEntity<Map<String, Object>> getAvailableModels() {
+        return ResponseEntity.ok(Map.of(
+                "models", strategyFactory.getAvailableStrategies()
+        ));
+    }
+
+    /**
+     * 生成提示词
+     */
+    @PostMapping("/generate")
+    public Mono<ResponseEntity<PromptResponse>> generate(@RequestBody GenerateRequest request) {
+        return promptOptimizerService.generatePromptReactive(request)
+                .map(ReactivePromptOptimizerController::toEntity);
+    }
+
+    /**
+     * 流式生成提示词
+     * 每个模型输出片段作为一个 SSE 事件推送，客户端断开时取消上游调用
+     */
+    @GetMapping(value = "/generate-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> generateStream(
+            @RequestParam(required = false) String task,
+            @RequestParam(defaultValue = "deepseek") String model) {
+        // 任务为空时请求对象的校验异常同样以 error 事件返回
+        return Flux.defer(() -> promptOptimizerService.generatePromptStream(new GenerateRequest(task, model)))
+                .map(chunk -> ServerSentEvent.builder(chunk).build())
+                .onErrorResume(e -> Flux.just(ServerSentEvent.<String>builder("生成失败: " + e.getMessage())
+                        .event("error")
+                        .build()));
+    }
+
+    /**
+     * 优化提示词
+     */
+    @PostMapping("/optimize")
+    public Mono<ResponseEntity<PromptResponse>> optimize(@RequestBody OptimizeRequest request) {
+        return promptOptimizerService.optimizePromptReactive(request)
+                .map(ReactivePromptOptimizerController::toEntity);
+    }
+
+    private static ResponseEntity<PromptResponse> toEntity(PromptResponse response) {
+        if (response.error() != null) {
+            return ResponseEntity.status(500).body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,130 @@
+package com.aioverview.backend.aidemo.controller.reactive;
+
+import com.aioverview.backend.aidemo.config.ClientIpResolver;
+import com.aioverview.backend.aidemo.model.VisitorStats;
+import com.aioverview.backend.aidemo.model.VisitorStatsSummary;
+import com.aioverview.backend.aidemo.service.VisitorStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * 访客统计控制器（响应式模式）
+ * 接口与Servlet模式相同，数据库查询放到弹性线程池执行，不阻塞事件循环
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/visitor-stats")
+public class ReactiveVisitorStatsController {
+
+    @Autowired
+    private VisitorStatsService visitorStatsService;
+
+    /**
+     * 获取综合统计数据（一次返回所有统计数据）
+     * @param days 统计天数范围，默认7天
+     * @param recentLimit 最近记录数量，默认30条
+     * @return 综合统计数据
+     */
+    @GetMapping("/summary")
+    public Mono<ResponseEntity<VisitorStatsSummary>> getSummary(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "30") int recentLimit) {
+        return blocking(() -> visitorStatsService.getSummary(days, recentLimit));
+    }
+
+    /**
+     * 记录访问信息
+     * @param visitorStats 访客统计信息
+     * @param exchange 当前请求
+     * @return 响应结果
+     */
+    @PostMapping("/record")
+    public Mono<ResponseEntity<Void>> recordVisit(@RequestBody VisitorStats visitorStats, ServerWebExchange exchange) {
+        // 从请求中获取额外信息
+        ServerHttpRequest request = exchange.getRequest();
+        if (visitorStats.getUserAgent() == null) {
+            visitorStats.setUserAgent(request.getHeaders().getFirst(HttpHeaders.USER_AGENT));
+        }
+        if (visitorStats.getIpAddress() == null) {
+            visitorStats.setIpAddress(ClientIpResolver.resolve(request));
+        }
+        if (visitorStats.getReferrer() == null) {
+            visitorStats.setReferrer(request.getHeaders().getFirst(HttpHeaders.REFERER));
+        }
+        // 没有sessionId时不创建WebSession（不带Cookie的请求每次都会新建，很快占满会话存储），由服务层生成匿名标识
+
+        // 记录访问：写入队列已满且策略为BLOCK时可能短暂阻塞，放到弹性线程池执行
+        // 校验异常在任务内处理，抛出到Reactor会中断正在写响应的工作线程
+        return Mono.fromCallable(() -> {
+                    try {
+                        visitorStatsService.recordVisit(visitorStats);
+                        return ResponseEntity.status(HttpStatus.CREATED).<Void>build();
+                    } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest().<Void>build();
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * 获取页面访问统计
+     * @param days 天数范围
+     * @return 页面访问统计
+     */
+    @GetMapping("/pages")
+    public Mono<ResponseEntity<List<Map<String, Object>>>> getPageStats(@RequestParam(defaultValue = "7") int days) {
+        return blocking(() -> visitorStatsService.getPageStats(days));
+    }
+
+    /**
+     * 获取最近访问记录
+     * @param limit 记录数量
+     * @return 最近访问记录
+     */
+    @GetMapping("/recent")
+    public Mono<ResponseEntity<List<VisitorStats>>> getRecentVisits(@RequestParam(defaultValue = "50") int limit) {
+        return blocking(() -> visitorStatsService.getRecentVisits(limit));
+    }
+
+    /**
+     * 获取日期访问统计
+     * @param days 天数范围
+     * @return 日期访问统计
+     */
+    @GetMapping("/dates")
+    public Mono<ResponseEntity<List<Map<String, Object>>>> getDateStats(@RequestParam(defaultValue = "7") int days) {
+        return blocking(() -> visitorStatsService.getDateStats(days));
+    }
+
+    /**
+     * 获取总访问量
+     * @return 总访问量
+     */
+    @GetMapping("/total")
+    public Mono<ResponseEntity<Map<String, Object>>> getTotalVisits() {
+        return blocking(() -> {
+            Map<String, Object> response = new HashMap<>();
+            response.put("totalVisits", visitorStatsService.getTotalVisits());
+            return response;
+        });
+    }
+
+    private static <T> Mono<ResponseEntity<T>> blocking(Callable<T> query) {
+        return Mono.fromCallable(query)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(ResponseEntity::ok);
+    }
+}
@@ -3,7 +3,6 @@ package com.aioverview.backend.aidemo.dao;
 import com.aioverview.backend.aidemo.model.VisitorStats;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -14,42 +13,59 @@ import java.util.Map;
 public interface VisitorStatsMapper {
 
     /**
-     * 新增访问记录
-     * @param visitorStats 访客统计信息
+     * 批量新增访问记录（单条多行INSERT）
+     * @param table 分区表名
+     * @param visits 访问记录列表（已分配ID）
      * @return 影响行数
      */
-    int insertVisit(VisitorStats visitorStats);
+    int insertVisits(@Param("table") String table, @Param("visits") List<VisitorStats> visits);
 
     /**
-     * 根据页面路径统计访问次数
-     * @param startTime 开始时间
-     * @param endTime 结束时间
+     * 根据页面路径统计访问次数（按小时对齐）
+     * @param startHour 开始小时，格式 yyyy-MM-dd HH
+     * @param endHour 结束小时，格式 yyyy-MM-dd HH
+     * @param tables 时间范围覆盖到的分区表
      * @return 页面路径和访问次数的映射
      */
     List<Map<String, Object>> countByPagePath(
-            @Param("startTime") LocalDateTime startTime,
-            @Param("endTime") LocalDateTime endTime);
+            @Param("startHour") String startHour,
+            @Param("endHour") String endHour,
+            @Param("tables") List<String> tables);
 
     /**
-     * 获取最近的访问记录
+     * 获取分区内最近的访问记录
+     * @param table 分区表名
      * @param limit 记录数量
      * @return 访问记录列表
      */
-    List<VisitorStats> getRecentVisits(@Param("limit") int limit);
+    List<VisitorStats> getRecentVisits(@Param("table") String table, @Param("limit") int limit);
 
     /**
      * 根据日期统计访问量
-     * @param startDate 开始日期
-     * @param endDate 结束日期
+     * @param startDate 开始日期，格式 yyyy-MM-dd
+     * @param endDate 结束日期，格式 yyyy-MM-dd
+     * @param tables 时间范围覆盖到的分区表
      * @return 日期和访问量的映射
      */
     List<Map<String, Object>> countByDate(
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate);
+            @Param("startDate") String startDate,
+            @Param("endDate") String endDate,
+            @Param("tables") List<String> tables);
+
+    /**
+     * 按日期和页面统计访问量
+     * @param startDate 开始日期，格式 yyyy-MM-dd
+     * @param tables 时间范围覆盖到的分区表
+     * @return 日期、页面和访问量的映射
+     */
+    List<Map<String, Object>> countByDateAndPage(
+            @Param("startDate") String startDate,
+            @Param("tables") List<String> tables);
 
     /**
      * 获取总访问量
+     * @param tables 所有分区表
      * @return 总访问量
      */
-    Long getTotalVisits();
+    Long getTotalVisits(@Param("tables") List<String> tables);
 }
@@ -0,0 +1,86 @@
+package com.aioverview.backend.aidemo.dao;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 访客统计分区表Mapper接口
+ * 表名只来自 VisitorStatsPartitions 生成的分区名，不接受外部输入
+ */
+@Mapper
+public interface VisitorStatsPartitionMapper {
+
+    /**
+     * 列出已有的月分区表
+     * @return 分区表名列表
+     */
+    List<String> listPartitionTables();
+
+    /**
+     * 旧版本的单表是否存在
+     * @return 存在时返回1
+     */
+    int legacyTableExists();
+
+    /**
+     * 旧版本单表中有数据的月份
+     * @return 月份列表，格式 yyyyMM
+     */
+    List<String> listLegacyMonths();
+
+    /**
+     * 创建分区表
+     * @param table 分区表名
+     * @return 影响行数
+     */
+    int createPartition(@Param("table") String table);
+
+    /**
+     * 创建分区表的访问时间索引
+     * @param table 分区表名
+     * @return 影响行数
+     */
+    int createPartitionIndex(@Param("table") String table);
+
+    /**
+     * 把旧版本单表中某个月的数据复制到分区表（保留原ID）
+     * @param table 分区表名
+     * @param month 月份，格式 yyyyMM
+     * @return 影响行数
+     */
+    int copyLegacyMonth(@Param("table") String table, @Param("month") String month);
+
+    /**
+     * 删除旧版本单表
+     * @return 影响行数
+     */
+    int dropLegacyTable();
+
+    /**
+     * 删除分区表
+     * @param table 分区表名
+     * @return 影响行数
+     */
+    int dropPartition(@Param("table") String table);
+
+    /**
+     * 获取分区表中的最大ID
+     * @param tables 分区表名列表
+     * @return 最大ID，无记录时返回0
+     */
+    long selectMaxId(@Param("tables") List<String> tables);
+
+    /**
+     * 整理数据库文件，回收删除分区后的空闲页
+     * @return 影响行数
+     */
+    int vacuum();
+
+    /**
+     * 更新查询优化器的统计信息
+     * @return 影响行数
+     */
+    int analyze();
+}
@@ -0,0 +1,51 @@
+package com.aioverview.backend.aidemo.dao;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 访客统计汇总表Mapper接口
+ */
+@Mapper
+public interface VisitorStatsRollupMapper {
+
+    /**
+     * 获取已汇总到的访问记录ID
+     * @return 已汇总的最大ID，尚未汇总过时返回0
+     */
+    long selectWatermark();
+
+    /**
+     * 获取原始访问记录的最大ID
+     * @param tables 所有分区表
+     * @return 最大ID，无记录时返回0
+     */
+    long selectMaxVisitId(@Param("tables") List<String> tables);
+
+    /**
+     * 将ID区间内的原始记录累加到小时汇总表
+     * @param fromId 起始ID（不含）
+     * @param toId 结束ID（含）
+     * @param tables 所有分区表
+     * @return 影响行数
+     */
+    int rollUpHourly(@Param("fromId") long fromId, @Param("toId") long toId, @Param("tables") List<String> tables);
+
+    /**
+     * 将ID区间内的原始记录累加到天汇总表
+     * @param fromId 起始ID（不含）
+     * @param toId 结束ID（含）
+     * @param tables 所有分区表
+     * @return 影响行数
+     */
+    int rollUpDaily(@Param("fromId") long fromId, @Param("toId") long toId, @Param("tables") List<String> tables);
+
+    /**
+     * 更新汇总进度
+     * @param lastId 已汇总到的ID
+     * @return 影响行数
+     */
+    int updateWatermark(@Param("lastId") long lastId);
+}
@@ -0,0 +1,16 @@
+package com.aioverview.backend.aidemo.model.dto;
+
+import java.util.List;
+
+/**
+ * 多个概念的请求（批量解释、概念比较）
+ */
+public record ConceptBatchRequest(
+    List<String> conceptNames
+) {
+    public ConceptBatchRequest {
+        if (conceptNames == null) {
+            conceptNames = List.of();
+        }
+    }
+}
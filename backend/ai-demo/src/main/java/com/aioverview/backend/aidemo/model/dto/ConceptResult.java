@@ -0,0 +1,19 @@
+package com.aioverview.backend.aidemo.model.dto;
+
+/**
+ * 单个概念的解释结果，批量接口中每个概念对应一条
+ */
+public record ConceptResult(
+    String conceptName,
+    String answer,
+    boolean cached,
+    String error
+) {
+    public static ConceptResult success(String conceptName, String answer, boolean cached) {
+        return new ConceptResult(conceptName, answer, cached, null);
+    }
+
+    public static ConceptResult error(String conceptName, String error) {
+        return new ConceptResult(conceptName, "", false, error);
+    }
+}
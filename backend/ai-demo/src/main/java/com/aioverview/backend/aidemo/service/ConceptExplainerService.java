@@ -1,9 +1,52 @@
 package com.aioverview.backend.aidemo.service;
 
+import com.aioverview.backend.aidemo.model.dto.ConceptResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
 /**
  * @author
  * @date 2025/12/29
  */
 public interface ConceptExplainerService {
     Answer askQuestion(Question question);
+
+    /**
+     * 响应式解释概念，模型调用全程不阻塞线程
+     * @param question 概念名称
+     * @return 概念解释
+     */
+    Mono<Answer> askQuestionReactive(Question question);
+
+    /**
+     * 跳过缓存重新生成解释并写入缓存，供缓存预热使用
+     * @param question 概念名称
+     * @return 概念解释
+     */
+    Answer regenerate(Question question);
+
+    /**
+     * 批量解释概念，结果按完成顺序返回
+     * 重复的概念只解释一次，缓存命中的立即返回，未命中的并行生成；单个概念失败时返回该概念的错误信息，不影响其他概念
+     * @param conceptNames 概念名称
+     * @return 每个不同的概念一条结果
+     */
+    Flux<ConceptResult> explainBatch(List<String> conceptNames);
+
+    /**
+     * 比较多个概念
+     * 先并发获取各概念的解释（优先使用缓存），再调用一次模型归纳对比；结果与概念顺序无关地缓存
+     * @param conceptNames 概念名称，去重后至少两个
+     * @return 对比内容
+     */
+    Answer compareConcepts(List<String> conceptNames);
+
+    /**
+     * 比较多个概念（响应式），等待模型输出期间不占用线程
+     * @param conceptNames 概念名称，去重后至少两个
+     * @return 对比内容
+     */
+    Mono<Answer> compareConceptsReactive(List<String> conceptNames);
 }
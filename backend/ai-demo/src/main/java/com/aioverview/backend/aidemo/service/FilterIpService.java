@@ -2,6 +2,9 @@ package com.aioverview.backend.aidemo.service;
 
 import com.aioverview.backend.aidemo.dao.FilterIpMapper;
 import com.aioverview.backend.aidemo.model.FilterIp;
+import com.aioverview.backend.aidemo.service.ipfilter.IpRuleSet;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -10,14 +13,21 @@ import java.util.List;
 
 /**
  * 过滤IP服务类
- * 管理需要过滤的IP列表，支持增删改查，数据持久化到SQLite数据库
+ * 管理需要过滤的IP列表，支持增删改查，数据持久化到SQLite数据库；
+ * 规则在内存中编译为前缀树，访问记录时的过滤判断不访问数据库
  */
 @Service
+@Slf4j
 public class FilterIpService {
 
     @Autowired
     private FilterIpMapper filterIpMapper;
 
+    /**
+     * 当前生效的规则集，规则变更时整体替换
+     */
+    private volatile IpRuleSet ruleSet = IpRuleSet.EMPTY;
+
     /**
      * 获取所有过滤IP
      * @return 过滤IP列表
@@ -50,6 +60,7 @@ public class FilterIpService {
      * @return 新增的过滤IP
      */
     public FilterIp addFilterIp(String ip, String description) {
+        validateRule(ip);
         // 检查IP是否已存在
         FilterIp existingIp = filterIpMapper.selectByIp(ip);
         if (existingIp != null) {
@@ -62,6 +73,7 @@ public class FilterIpService {
         filterIp.setCreatedAt(LocalDateTime.now());
 
         filterIpMapper.insert(filterIp);
+        reloadRules();
         // 重新查询获取生成的ID
         return filterIpMapper.selectByIp(ip);
     }
@@ -74,6 +86,7 @@ public class FilterIpService {
      * @return 更新后的过滤IP
      */
     public FilterIp updateFilterIp(Long id, String ip, String description) {
+        validateRule(ip);
         FilterIp existingIp = filterIpMapper.selectById(id);
         if (existingIp == null) {
             throw new IllegalArgumentException("IP不存在: " + id);
@@ -90,6 +103,7 @@ public class FilterIpService {
         existingIp.setIp(ip);
         existingIp.setDescription(description);
         filterIpMapper.update(existingIp);
+        reloadRules();
         return existingIp;
     }
 
@@ -100,11 +114,15 @@ public class FilterIpService {
      */
     public boolean deleteFilterIp(Long id) {
         int affectedRows = filterIpMapper.deleteById(id);
+        if (affectedRows > 0) {
+            reloadRules();
+        }
         return affectedRows > 0;
     }
 
     /**
      * 检查IP是否需要过滤
+     * 使用内存中预编译的规则集，不访问数据库
      * @param ipAddress IP地址
      * @return true表示需要过滤
      */
@@ -112,72 +130,25 @@ public class FilterIpService {
         if (ipAddress == null || ipAddress.isEmpty()) {
             return false;
         }
-
-        List<String> filterIps = filterIpMapper.selectAllIps();
-        return filterIps.stream()
-                .anyMatch(filterIp -> isIpMatch(ipAddress, filterIp));
+        return ruleSet.matches(ipAddress.trim());
     }
 
     /**
-     * 检查IP是否匹配
-     * @param ipAddress 待检查的IP
-     * @param filterIp 过滤规则（可以是单个IP或CIDR）
-     * @return true表示匹配
+     * 校验规则格式：单个IPv4/IPv6地址、CIDR或"起始-结束"区间
      */
-    private boolean isIpMatch(String ipAddress, String filterIp) {
-        // 直接匹配
-        if (ipAddress.equals(filterIp)) {
-            return true;
+    private void validateRule(String ip) {
+        if (!IpRuleSet.isValidRule(ip)) {
+            throw new IllegalArgumentException("无效的IP规则: " + ip + "（支持单个IP、CIDR或起止区间，如 10.0.0.1-10.0.0.20）");
         }
-
-        // CIDR格式匹配
-        if (filterIp.contains("/")) {
-            return isIpInCidrRange(ipAddress, filterIp);
-        }
-
-        return false;
     }
 
     /**
-     * 检查IP是否在CIDR范围内
-     * @param ipAddress IP地址
-     * @param cidr CIDR表示法
-     * @return true表示在范围内
+     * 从数据库重新加载规则并编译，编译完成后整体替换，查询线程不会看到中间状态
      */
-    private boolean isIpInCidrRange(String ipAddress, String cidr) {
-        try {
-            String[] parts = cidr.split("/");
-            String network = parts[0];
-            int prefixLength = Integer.parseInt(parts[1]);
-
-            byte[] ipBytes = ipToBytes(ipAddress);
-            byte[] networkBytes = ipToBytes(network);
-
-            int mask = 0xFFFFFFFF << (32 - prefixLength);
-
-            int ipInt = bytesToInt(ipBytes);
-            int networkInt = bytesToInt(networkBytes);
-
-            return (ipInt & mask) == (networkInt & mask);
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-    private byte[] ipToBytes(String ip) {
-        String[] parts = ip.split("\\.");
-        byte[] bytes = new byte[4];
-        for (int i = 0; i < 4; i++) {
-            bytes[i] = (byte) Integer.parseInt(parts[i]);
-        }
-        return bytes;
-    }
-
-    private int bytesToInt(byte[] bytes) {
-        int result = 0;
-        for (int i = 0; i < 4; i++) {
-            result |= (bytes[i] & 0xFF) << (24 - (i * 8));
-        }
-        return result;
+    @PostConstruct
+    public synchronized void reloadRules() {
+        List<String> rules = filterIpMapper.selectAllIps();
+        this.ruleSet = IpRuleSet.compile(rules);
+        log.info("IP过滤规则已加载: {} 条", rules.size());
     }
 }
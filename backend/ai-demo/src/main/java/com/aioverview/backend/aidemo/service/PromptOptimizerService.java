@@ -3,6 +3,8 @@ package com.aioverview.backend.aidemo.service;
 import com.aioverview.backend.aidemo.model.dto.GenerateRequest;
 import com.aioverview.backend.aidemo.model.dto.OptimizeRequest;
 import com.aioverview.backend.aidemo.model.dto.PromptResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * 提示词优化器服务接口
@@ -16,10 +18,32 @@ public interface PromptOptimizerService {
      */
     PromptResponse generatePrompt(GenerateRequest request);
 
+    /**
+     * 响应式生成提示词，模型调用全程不阻塞线程
+     * @param request 生成请求
+     * @return 生成的提示词
+     */
+    Mono<PromptResponse> generatePromptReactive(GenerateRequest request);
+
+    /**
+     * 流式生成提示词
+     * 模型每返回一个片段就向下游推送一次，取消订阅时同时中断上游调用
+     * @param request 生成请求
+     * @return 提示词片段流
+     */
+    Flux<String> generatePromptStream(GenerateRequest request);
+
     /**
      * 优化提示词
      * @param request 优化请求
      * @return 优化后的提示词
      */
     PromptResponse optimizePrompt(OptimizeRequest request);
+
+    /**
+     * 响应式优化提示词，模型调用全程不阻塞线程
+     * @param request 优化请求
+     * @return 优化后的提示词
+     */
+    Mono<PromptResponse> optimizePromptReactive(OptimizeRequest request);
 }
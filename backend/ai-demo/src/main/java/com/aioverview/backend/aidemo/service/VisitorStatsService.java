@@ -3,11 +3,18 @@ package com.aioverview.backend.aidemo.service;
 import com.aioverview.backend.aidemo.dao.VisitorStatsMapper;
 import com.aioverview.backend.aidemo.model.VisitorStats;
 import com.aioverview.backend.aidemo.model.VisitorStatsSummary;
+import com.aioverview.backend.aidemo.service.ingest.VisitIngestionPipeline;
+import com.aioverview.backend.aidemo.service.partition.VisitorStatsPartitions;
+import com.aioverview.backend.aidemo.service.stats.LiveVisitorStats;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * 访客统计服务类
@@ -15,60 +22,94 @@ import java.util.Map;
 @Service
 public class VisitorStatsService {
 
+    private static final DateTimeFormatter HOUR_BUCKET = DateTimeFormatter.ofPattern("yyyy-MM-dd HH");
+    private static final DateTimeFormatter DATE_BUCKET = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
     @Autowired
     private VisitorStatsMapper visitorStatsMapper;
 
     @Autowired
     private FilterIpService filterIpService;
 
+    @Autowired
+    private VisitIngestionPipeline visitIngestionPipeline;
+
+    @Autowired
+    private LiveVisitorStats liveVisitorStats;
+
+    @Autowired
+    private VisitorStatsPartitions partitions;
+
     /**
      * 记录访问信息
-     * 在记录时进行IP过滤，被过滤的IP不会写入数据库
+     * 在记录时进行IP过滤，被过滤的IP不会写入数据库；
+     * 记录进入异步写入队列后立即返回，由写线程批量落库
      * @param visitorStats 访客统计信息
+     * @throws IllegalArgumentException 缺少页面路径或页面名称
      */
     public void recordVisit(VisitorStats visitorStats) {
+        // 入队前校验非空字段：写入是异步的，客户端已收到成功响应，写库时再失败只能丢弃，且内存实时计数已计入
+        if (!StringUtils.hasText(visitorStats.getPagePath()) || !StringUtils.hasText(visitorStats.getPageName())) {
+            throw new IllegalArgumentException("页面路径和页面名称不能为空");
+        }
         // 检查IP是否需要被过滤
         if (filterIpService.shouldFilterIp(visitorStats.getIpAddress())) {
             return; // 过滤掉该IP的访问记录，不写入数据库
         }
 
-        // 设置访问时间
-        if (visitorStats.getVisitTime() == null) {
-            visitorStats.setVisitTime(LocalDateTime.now());
+        // 访问时间一律取服务器时间：它决定写入哪张按月分表，不能由客户端指定
+        visitorStats.setVisitTime(LocalDateTime.now());
+        if (visitorStats.getSessionId() == null) {
+            visitorStats.setSessionId(anonymousSessionId(visitorStats));
+        }
+        // 放入写入队列，由写线程批量保存到数据库；进入队列的记录同时计入内存实时计数
+        if (visitIngestionPipeline.submit(visitorStats)) {
+            liveVisitorStats.record(visitorStats);
         }
-        // 保存到数据库
-        visitorStatsMapper.insertVisit(visitorStats);
+    }
+
+    /**
+     * 客户端没有提供sessionId时的匿名标识：由IP和User-Agent确定，同一客户端的多次访问得到相同的标识，服务端不保存任何状态
+     */
+    private static String anonymousSessionId(VisitorStats visitorStats) {
+        String client = visitorStats.getIpAddress() + "|" + visitorStats.getUserAgent();
+        return "anon-" + UUID.nameUUIDFromBytes(client.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
      * 获取指定时间范围内的页面访问统计
+     * 读取小时汇总表，起止时间按整点对齐
      * @param days 天数范围
      * @return 页面访问统计列表
      */
     public List<Map<String, Object>> getPageStats(int days) {
         LocalDateTime endTime = LocalDateTime.now();
         LocalDateTime startTime = endTime.minusDays(days);
-        return visitorStatsMapper.countByPagePath(startTime, endTime);
+        return visitorStatsMapper.countByPagePath(HOUR_BUCKET.format(startTime), HOUR_BUCKET.format(endTime),
+                partitions.between(startTime.toLocalDate(), endTime.toLocalDate()));
     }
 
     /**
      * 获取最近的访问记录
+     * 从最新的月分区开始读取，取满即停
      * @param limit 记录数量
      * @return 访问记录列表
      */
     public List<VisitorStats> getRecentVisits(int limit) {
-        return visitorStatsMapper.getRecentVisits(limit);
+        return partitions.recentVisits(limit);
     }
 
     /**
      * 获取指定时间范围内的日期访问统计
+     * 读取天汇总表，起始日期按整天计算
      * @param days 天数范围
      * @return 日期访问统计列表
      */
     public List<Map<String, Object>> getDateStats(int days) {
         LocalDateTime endTime = LocalDateTime.now();
         LocalDateTime startTime = endTime.minusDays(days);
-        return visitorStatsMapper.countByDate(startTime, endTime);
+        return visitorStatsMapper.countByDate(DATE_BUCKET.format(startTime), DATE_BUCKET.format(endTime),
+                partitions.between(startTime.toLocalDate(), endTime.toLocalDate()));
     }
 
     /**
@@ -76,16 +117,21 @@ public class VisitorStatsService {
      * @return 总访问量
      */
     public Long getTotalVisits() {
-        return visitorStatsMapper.getTotalVisits();
+        return visitorStatsMapper.getTotalVisits(partitions.all());
     }
 
     /**
      * 获取综合统计数据（一次返回所有统计数据）
+     * 优先使用内存实时计数的快照（按整天统计），超出内存保留范围时查询数据库
      * @param days 统计天数范围
      * @param recentLimit 最近记录数量
      * @return 综合统计数据
      */
     public VisitorStatsSummary getSummary(int days, int recentLimit) {
+        if (liveVisitorStats.supports(days, recentLimit)) {
+            return liveVisitorStats.getSummary(days, recentLimit);
+        }
+
         Long totalVisits = getTotalVisits();
         List<Map<String, Object>> pageStats = getPageStats(days);
         List<Map<String, Object>> dateStats = getDateStats(days);
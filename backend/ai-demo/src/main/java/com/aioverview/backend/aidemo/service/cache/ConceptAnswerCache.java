@@ -0,0 +1,214 @@
+package com.aioverview.backend.aidemo.service.cache;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 概念解释缓存
+ * 先按规范化后的概念名精确匹配（内存缓存，再查持久化缓存），未命中时再用向量相似度匹配近似问法（需开启语义缓存）
+ */
+@Component
+@Slf4j
+public class ConceptAnswerCache {
+
+    public static final String CACHE_NAME = "concepts";
+
+    /**
+     * 概念解释提示词的版本，修改提示词后递增，持久化缓存中的旧解释随之失效
+     */
+    private static final String PROMPT_VERSION = "2";
+
+    private final Cache cache;
+    private final EmbeddingModel embeddingModel;
+    private final SemanticIndex semanticIndex;
+    private final ResponseStore store;
+
+    private final Counter exactHits;
+    private final Counter persistentHits;
+    private final Counter semanticHits;
+    private final Counter misses;
+
+    public ConceptAnswerCache(CacheManager cacheManager,
+                              ObjectProvider<EmbeddingModel> embeddingModelProvider,
+                              ResponseStore store,
+                              MeterRegistry meterRegistry,
+                              @Value("${ai-demo.concept-cache.semantic.enabled:false}") boolean semanticEnabled,
+                              @Value("${ai-demo.concept-cache.semantic.threshold:0.92}") double threshold,
+                              @Value("${ai-demo.concept-cache.semantic.max-entries:5000}") int maxEntries) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+        this.store = store;
+        EmbeddingModel model = semanticEnabled ? embeddingModelProvider.getIfAvailable() : null;
+        if (semanticEnabled && model == null) {
+            log.warn("已开启语义缓存，但没有可用的EmbeddingModel，仅使用精确匹配");
+        }
+        this.embeddingModel = model;
+        this.semanticIndex = model != null ? new SemanticIndex(threshold, maxEntries) : null;
+
+        this.exactHits = Counter.builder("concept.cache.lookups")
+                .tag("result", "exact_hit")
+                .register(meterRegistry);
+        this.persistentHits = Counter.builder("concept.cache.lookups")
+                .tag("result", "persistent_hit")
+                .register(meterRegistry);
+        this.semanticHits = Counter.builder("concept.cache.lookups")
+                .tag("result", "semantic_hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("concept.cache.lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        if (semanticIndex != null) {
+            Gauge.builder("concept.cache.semantic.entries", semanticIndex, SemanticIndex::size)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 查询缓存
+     * @param concept 概念名称（原始输入）
+     * @return 查询结果，未命中时携带已计算的向量供写回复用
+     */
+    public Lookup lookup(String concept) {
+        String key = ConceptKeys.normalize(concept);
+        String answer = cache != null ? cache.get(key, String.class) : null;
+        if (answer != null) {
+            exactHits.increment();
+            return new Lookup(key, null, answer);
+        }
+
+        // 重启后内存缓存为空，先查持久化缓存再考虑调用模型
+        answer = store.get(storeKey(key));
+        if (answer != null) {
+            persistentHits.increment();
+            if (cache != null) {
+                cache.put(key, answer);
+            }
+            return new Lookup(key, null, answer);
+        }
+
+        float[] embedding = embed(key);
+        if (embedding != null) {
+            String similarKey = semanticIndex.nearest(embedding);
+            if (similarKey != null) {
+                answer = cache.get(similarKey, String.class);
+                if (answer != null) {
+                    semanticHits.increment();
+                    // 以当前问法再存一份，下次直接精确命中
+                    cache.put(key, answer);
+                    return new Lookup(key, embedding, answer);
+                }
+                // 向量还在但缓存条目已过期，顺手清理
+                semanticIndex.remove(similarKey);
+            }
+        }
+
+        misses.increment();
+        return new Lookup(key, embedding, null);
+    }
+
+    /**
+     * 写入缓存
+     * @param lookup 之前的查询结果
+     * @param answer 模型生成的解释
+     */
+    public void put(Lookup lookup, String answer) {
+        if (answer == null || answer.isBlank()) {
+            return;
+        }
+        store.put(storeKey(lookup.key()), CACHE_NAME, answer);
+        if (cache == null) {
+            return;
+        }
+        cache.put(lookup.key(), answer);
+        if (semanticIndex != null && lookup.embedding() != null) {
+            semanticIndex.add(lookup.key(), lookup.embedding());
+        }
+    }
+
+    /**
+     * 预热检查：内存缓存缺失或即将过期时，先尝试用持久化缓存中仍然新鲜的解释续期
+     * @param concept 概念名称
+     * @param margin 剩余有效期少于该值即视为即将过期
+     * @return 是否需要重新生成
+     */
+    public boolean needsRefresh(String concept, Duration margin) {
+        String key = ConceptKeys.normalize(concept);
+        if (cache != null && cache.get(key) != null && remaining(key) > margin.toNanos()) {
+            return false;
+        }
+        String answer = store.get(storeKey(key), margin);
+        if (answer != null) {
+            if (cache != null) {
+                cache.put(key, answer);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 直接写入一条解释（预热生成、别名），不计算向量
+     */
+    public void store(String concept, String answer) {
+        put(new Lookup(ConceptKeys.normalize(concept), null, answer), answer);
+    }
+
+    /**
+     * 内存缓存条目的剩余有效期（纳秒），无法获取时视为不会过期
+     */
+    @SuppressWarnings("unchecked")
+    private long remaining(String key) {
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            Optional<? extends Policy.FixedExpiration<?, ?>> expiration = nativeCache.policy().expireAfterWrite();
+            if (expiration.isPresent()) {
+                OptionalLong age = ((Policy.FixedExpiration<Object, ?>) expiration.get()).ageOf(key, TimeUnit.NANOSECONDS);
+                return age.isPresent() ? expiration.get().getExpiresAfter(TimeUnit.NANOSECONDS) - age.getAsLong() : 0L;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static String storeKey(String key) {
+        // 概念解释由路由选择模型，不区分模型
+        return ResponseStore.key(CACHE_NAME, "auto", PROMPT_VERSION, key);
+    }
+
+    private float[] embed(String key) {
+        if (semanticIndex == null || cache == null) {
+            return null;
+        }
+        try {
+            return embeddingModel.embed(key);
+        } catch (Exception e) {
+            // 向量服务不可用时退化为精确匹配，不影响主流程
+            log.warn("概念向量化失败，跳过语义匹配: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 缓存查询结果
+     * @param key 规范化后的缓存键
+     * @param embedding 查询向量（未开启语义缓存时为null）
+     * @param answer 缓存的解释，未命中时为null
+     */
+    public record Lookup(String key, float[] embedding, String answer) {
+
+        public boolean hit() {
+            return answer != null;
+        }
+    }
+}
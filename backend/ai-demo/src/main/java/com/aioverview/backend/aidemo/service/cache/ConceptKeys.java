@@ -0,0 +1,31 @@
+package com.aioverview.backend.aidemo.service.cache;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 概念缓存键规范化工具
+ * 让"MCP"、" mcp "、"ＭＣＰ"等写法落到同一个缓存键上
+ */
+public final class ConceptKeys {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private ConceptKeys() {
+    }
+
+    /**
+     * 规范化概念名称
+     * NFKC 会把全角字母、数字、空格折叠为半角，之后再去除首尾空白、合并连续空白并统一小写
+     * @param concept 原始概念名称
+     * @return 规范化后的缓存键
+     */
+    public static String normalize(String concept) {
+        if (concept == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(concept, Normalizer.Form.NFKC).trim();
+        return WHITESPACE.matcher(folded).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,390 @@
+package com.aioverview.backend.aidemo.service.cache;
+
+import com.aioverview.backend.aidemo.config.ResponseStoreProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 模型输出的持久化缓存（二级缓存）
+ * 条目按内容寻址：键是 命名空间 + 模型 + 模板版本 + 规范化请求 的SHA-256，值用Deflate压缩后存为BLOB。
+ * 读取在调用线程同步进行（本地文件，通常在毫秒以内）；写入只放入有界队列，由单个后台线程攒批写入，
+ * 不拖慢请求，也不与读取争抢写锁。
+ */
+@Component
+@Slf4j
+public class ResponseStore implements SmartLifecycle {
+
+    private static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS llm_response (
+                cache_key  TEXT PRIMARY KEY,
+                namespace  TEXT NOT NULL,
+                content    BLOB NOT NULL,
+                created_at INTEGER NOT NULL
+            ) WITHOUT ROWID""";
+    private static final String CREATE_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_llm_response_created_at ON llm_response (created_at)";
+
+    private final ResponseStoreProperties properties;
+    private final HikariDataSource dataSource;
+    private final ArrayBlockingQueue<Entry> queue;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter readErrors;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter writeErrors;
+    private final Timer readTimer;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public ResponseStore(ResponseStoreProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.dataSource = properties.isEnabled() ? open(properties, meterRegistry) : null;
+
+        Gauge.builder("llm.store.queue.depth", queue, ArrayBlockingQueue::size)
+                .description("等待写入持久化缓存的条目数")
+                .register(meterRegistry);
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.readErrors = lookups(meterRegistry, "error");
+        this.written = writes(meterRegistry, "written");
+        this.dropped = writes(meterRegistry, "dropped");
+        this.writeErrors = writes(meterRegistry, "failed");
+        this.readTimer = Timer.builder("llm.store.read")
+                .description("持久化缓存读取耗时（含解压）")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 计算缓存键
+     * @param namespace 用途，如 concepts、prompts
+     * @param model 模型名，不限定模型时传 auto
+     * @param version 提示词模板版本，模板修改后递增，旧条目自然失效
+     * @param request 规范化后的请求内容
+     */
+    public static String key(String namespace, String model, String version, String request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{namespace, model, version, request}) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 读取缓存
+     * @return 缓存内容，未命中、已过期或读取失败时返回null
+     */
+    public String get(String key) {
+        return get(key, Duration.ZERO);
+    }
+
+    /**
+     * 读取剩余有效期不少于 minRemaining 的缓存，供预热判断条目是否即将过期
+     * @return 缓存内容，未命中、剩余有效期不足或读取失败时返回null
+     */
+    public String get(String key, Duration minRemaining) {
+        if (dataSource == null || dataSource.isClosed()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT content FROM llm_response WHERE cache_key = ? AND created_at >= ?")) {
+            statement.setString(1, key);
+            statement.setLong(2, System.currentTimeMillis() - properties.getTtl().toMillis() + minRemaining.toMillis());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    misses.increment();
+                    return null;
+                }
+                String content = inflate(resultSet.getBytes(1));
+                hits.increment();
+                return content;
+            }
+        } catch (SQLException | DataFormatException e) {
+            // 持久化缓存不可用时当作未命中，由调用方继续请求模型
+            readErrors.increment();
+            log.warn("读取持久化缓存失败: {}", e.getMessage());
+            return null;
+        } finally {
+            readTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 异步写入缓存，队列满或写线程已停止时丢弃
+     */
+    public void put(String key, String namespace, String content) {
+        if (dataSource == null || content == null || content.isBlank()) {
+            return;
+        }
+        if (!running || !queue.offer(new Entry(key, namespace, content, System.currentTimeMillis()))) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * 删除过期条目
+     */
+    @Scheduled(cron = "${ai-demo.response-store.cleanup-cron:0 45 3 * * *}")
+    public void purgeExpired() {
+        if (dataSource == null) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM llm_response WHERE created_at < ?")) {
+            statement.setLong(1, System.currentTimeMillis() - properties.getTtl().toMillis());
+            int deleted = statement.executeUpdate();
+            if (deleted > 0) {
+                log.info("已删除 {} 条过期的持久化缓存", deleted);
+            }
+        } catch (SQLException e) {
+            log.warn("清理持久化缓存失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 写线程主循环：取到第一条后在flushInterval内继续攒批，满一批或到时间即写入
+     */
+    private void drainLoop() {
+        List<Entry> batch = new ArrayList<>(properties.getBatchSize());
+        long lingerNanos = properties.getFlushInterval().toNanos();
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(lingerNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < properties.getBatchSize()) {
+                    queue.drainTo(batch, properties.getBatchSize() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= properties.getBatchSize() || remaining <= 0 || !running) {
+                        break;
+                    }
+                    Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Entry> batch) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT OR REPLACE INTO llm_response (cache_key, namespace, content, created_at) VALUES (?, ?, ?, ?)")) {
+                for (Entry entry : batch) {
+                    statement.setString(1, entry.key());
+                    statement.setString(2, entry.namespace());
+                    statement.setBytes(3, deflate(entry.content()));
+                    statement.setLong(4, entry.createdAt());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+                written.increment(batch.size());
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            writeErrors.increment(batch.size());
+            log.warn("持久化缓存写入失败，丢弃 {} 条: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private static byte[] deflate(String content) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            byte[] input = content.getBytes(StandardCharsets.UTF_8);
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(input.length / 2 + 16);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String inflate(byte[] compressed) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(compressed.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("压缩数据不完整");
+                }
+                output.write(buffer, 0, length);
+            }
+            return output.toString(StandardCharsets.UTF_8);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static HikariDataSource open(ResponseStoreProperties properties, MeterRegistry meterRegistry) {
+        String url = properties.getUrl();
+        createParentDirectory(url);
+        SQLiteConfig sqliteConfig = new SQLiteConfig();
+        sqliteConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        sqliteConfig.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        sqliteConfig.setBusyTimeout(5000);
+        SQLiteDataSource sqliteDataSource = new SQLiteDataSource(sqliteConfig);
+        sqliteDataSource.setUrl(url);
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("llm-response-store");
+        config.setDataSource(sqliteDataSource);
+        config.setMaximumPoolSize(properties.getPoolSize());
+        config.setMinimumIdle(1);
+        config.setMaxLifetime(0);
+        config.setIdleTimeout(0);
+        config.setMetricRegistry(meterRegistry);
+        HikariDataSource dataSource = new HikariDataSource(config);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_TABLE);
+            statement.execute(CREATE_INDEX);
+        } catch (SQLException e) {
+            dataSource.close();
+            throw new IllegalStateException("初始化持久化缓存失败: " + url, e);
+        }
+        log.info("持久化缓存已初始化: {}, 有效期={}", url, properties.getTtl());
+        return dataSource;
+    }
+
+    /**
+     * SQLite不会自动创建数据库文件所在的目录
+     */
+    private static void createParentDirectory(String url) {
+        String file = url.substring(url.indexOf(':', "jdbc:".length()) + 1);
+        Path parent = Path.of(file).toAbsolutePath().getParent();
+        try {
+            Files.createDirectories(parent);
+        } catch (Exception e) {
+            log.warn("创建持久化缓存目录失败: {}: {}", parent, e.getMessage());
+        }
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("llm.store.lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter writes(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("llm.store.writes")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        if (dataSource == null) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drainLoop, "llm-response-store-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 停机：写完队列中已有的条目后关闭连接池
+     */
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = writer;
+        if (thread != null) {
+            try {
+                thread.join(properties.getShutdownTimeout().toMillis());
+                if (thread.isAlive()) {
+                    log.warn("持久化缓存写线程未能在 {} 内退出，剩余 {} 条未写入",
+                            properties.getShutdownTimeout(), queue.size());
+                    thread.interrupt();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 在Web服务器之后停止：优雅停机期间仍在处理的模型请求还能读写持久化缓存，之后再关闭连接池
+     */
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    }
+
+    private record Entry(String key, String namespace, String content, long createdAt) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.aioverview.backend.aidemo.service.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 语义相似度索引
+ * 保存已缓存问题的单位化向量，按余弦相似度查找最接近的缓存键；超出容量时淘汰最早加入的条目
+ * 每个缓存键只保留一个向量，条目数以键的数量为准，淘汰顺序由单独的队列记录
+ */
+class SemanticIndex {
+
+    private final double threshold;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    SemanticIndex(double threshold, int maxEntries) {
+        this.threshold = threshold;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * 查找相似度不低于阈值的最近缓存键
+     * @param vector 查询向量
+     * @return 缓存键，没有足够相似的条目时返回null
+     */
+    String nearest(float[] vector) {
+        float[] query = unit(vector);
+        String bestKey = null;
+        double bestScore = threshold;
+        for (Entry entry : entries.values()) {
+            if (entry.vector.length != query.length) {
+                continue;
+            }
+            double score = dot(query, entry.vector);
+            if (score >= bestScore) {
+                bestScore = score;
+                bestKey = entry.key;
+            }
+        }
+        return bestKey;
+    }
+
+    /**
+     * 加入一个缓存键的向量，键已存在时替换原向量
+     */
+    void add(String key, float[] vector) {
+        Entry entry = new Entry(key, unit(vector));
+        // 先放入map再入队：入队前不会被其他线程的淘汰取走，否则会留下不在队列中、永远不被淘汰的条目
+        Entry previous = entries.put(key, entry);
+        insertionOrder.add(entry);
+        if (previous != null) {
+            insertionOrder.remove(previous);
+        }
+        while (entries.size() > maxEntries) {
+            Entry eldest = insertionOrder.poll();
+            if (eldest == null) {
+                break;
+            }
+            // 只移除仍是当前值的条目，已被替换或移除的键不影响计数
+            entries.remove(eldest.key, eldest);
+        }
+    }
+
+    /**
+     * 移除某个缓存键的向量（缓存条目已失效时调用）
+     */
+    void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            insertionOrder.remove(removed);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static float[] unit(float[] vector) {
+        double norm = Math.sqrt(dot(vector, vector));
+        float[] result = new float[vector.length];
+        if (norm == 0) {
+            return result;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            result[i] = (float) (vector[i] / norm);
+        }
+        return result;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * 按实例比较，队列中的条目只对应map中同一次加入的值
+     */
+    private static final class Entry {
+
+        private final String key;
+        private final float[] vector;
+
+        private Entry(String key, float[] vector) {
+            this.key = key;
+            this.vector = vector;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.aioverview.backend.aidemo.service.cache;
+
+import org.springframework.cache.Cache;
+
+/**
+ * 两级模型输出缓存
+ * 一级为内存缓存，二级为 {@link ResponseStore}；一级未命中时读二级，命中后回填一级。
+ * 两级使用同一个内容寻址的键。
+ */
+public class TieredResponseCache {
+
+    private final Cache cache;
+    private final ResponseStore store;
+    private final String namespace;
+    private final String version;
+
+    /**
+     * @param cache 一级缓存，为null时只使用二级缓存
+     * @param store 二级缓存
+     * @param namespace 用途，同时作为二级缓存的命名空间
+     * @param version 提示词模板版本
+     */
+    public TieredResponseCache(Cache cache, ResponseStore store, String namespace, String version) {
+        this.cache = cache;
+        this.store = store;
+        this.namespace = namespace;
+        this.version = version;
+    }
+
+    /**
+     * 计算缓存键
+     * @param model 模型名
+     * @param request 规范化后的请求内容
+     */
+    public String key(String model, String request) {
+        return ResponseStore.key(namespace, model, version, request);
+    }
+
+    /**
+     * 读取缓存，二级缓存会访问本地数据库，响应式调用方需放到弹性线程池
+     * @return 缓存内容，未命中时返回null
+     */
+    public String get(String key) {
+        String content = cache != null ? cache.get(key, String.class) : null;
+        if (content != null) {
+            return content;
+        }
+        content = store.get(key);
+        if (content != null && cache != null) {
+            cache.put(key, content);
+        }
+        return content;
+    }
+
+    /**
+     * 写入一级缓存，并异步写入二级缓存
+     */
+    public void put(String key, String content) {
+        if (content == null || content.isBlank()) {
+            return;
+        }
+        if (cache != null) {
+            cache.put(key, content);
+        }
+        store.put(key, namespace, content);
+    }
+}
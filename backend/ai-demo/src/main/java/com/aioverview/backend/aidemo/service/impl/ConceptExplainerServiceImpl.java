@@ -1,10 +1,35 @@
 package com.aioverview.backend.aidemo.service.impl;
 
+import com.aioverview.backend.aidemo.model.dto.ConceptResult;
 import com.aioverview.backend.aidemo.service.Answer;
 import com.aioverview.backend.aidemo.service.ConceptExplainerService;
 import com.aioverview.backend.aidemo.service.Question;
+import com.aioverview.backend.aidemo.config.RagProperties;
+import com.aioverview.backend.aidemo.service.cache.ConceptAnswerCache;
+import com.aioverview.backend.aidemo.service.cache.ConceptKeys;
+import com.aioverview.backend.aidemo.service.cache.ResponseStore;
+import com.aioverview.backend.aidemo.service.cache.TieredResponseCache;
+import com.aioverview.backend.aidemo.service.prompt.SystemPrompt;
+import com.aioverview.backend.aidemo.service.rag.KnowledgeBase;
+import com.aioverview.backend.aidemo.service.strategy.ChatModelRouter;
+import com.aioverview.backend.aidemo.service.support.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.advisor.api.Advisor;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * @author
@@ -12,29 +37,234 @@ import org.springframework.stereotype.Service;
  */
 @Service
 public class ConceptExplainerServiceImpl implements ConceptExplainerService {
-    private final ChatClient chatClient;
 
-    public ConceptExplainerServiceImpl(ChatClient.Builder chatClientBuilder) {
-        this.chatClient = chatClientBuilder.build();
+    public static final String COMPARISON_CACHE_NAME = "conceptComparisons";
+
+    /**
+     * 概念比较提示词的版本，修改比较的系统指令后递增，持久化缓存中的旧结果随之失效
+     */
+    private static final String COMPARISON_PROMPT_VERSION = "1";
+
+    private final ChatModelRouter chatModelRouter;
+    private final ConceptAnswerCache answerCache;
+    private final SingleFlight<String, String> singleFlight;
+    private final ObjectProvider<KnowledgeBase> knowledgeBase;
+    private final RagProperties ragProperties;
+    private final int batchMaxConcepts;
+    private final int batchMaxConcurrent;
+    private final SingleFlight<String, String> comparisonFlight;
+    private final TieredResponseCache comparisonCache;
+    private final int compareMaxConcepts;
+    private final int compareMaxTokens;
+
+    public ConceptExplainerServiceImpl(ChatModelRouter chatModelRouter,
+                                       ConceptAnswerCache answerCache,
+                                       CacheManager cacheManager,
+                                       ResponseStore responseStore,
+                                       ObjectProvider<KnowledgeBase> knowledgeBase,
+                                       RagProperties ragProperties,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${ai-demo.single-flight.timeout:300s}") Duration waitTimeout,
+                                       @Value("${ai-demo.concept-batch.max-concepts:20}") int batchMaxConcepts,
+                                       @Value("${ai-demo.concept-batch.max-concurrent:4}") int batchMaxConcurrent,
+                                       @Value("${ai-demo.concept-compare.max-concepts:4}") int compareMaxConcepts,
+                                       @Value("${ai-demo.concept-compare.max-tokens:800}") int compareMaxTokens) {
+        this.chatModelRouter = chatModelRouter;
+        this.answerCache = answerCache;
+        this.knowledgeBase = knowledgeBase;
+        this.ragProperties = ragProperties;
+        this.singleFlight = new SingleFlight<>("concept-explain", waitTimeout, meterRegistry);
+        this.batchMaxConcepts = batchMaxConcepts;
+        this.batchMaxConcurrent = batchMaxConcurrent;
+        this.comparisonFlight = new SingleFlight<>("concept-compare", waitTimeout, meterRegistry);
+        this.comparisonCache = new TieredResponseCache(cacheManager.getCache(COMPARISON_CACHE_NAME), responseStore,
+                "concept-compare", COMPARISON_PROMPT_VERSION);
+        this.compareMaxConcepts = compareMaxConcepts;
+        this.compareMaxTokens = compareMaxTokens;
     }
 
-    private static final String questionPromptTemplate = """
-            请用通俗易懂的方式解释'{concept}'这个概念：
+    /**
+     * 概念解释的系统指令，用户消息只放概念名；检索增强时检索以概念名为查询，参考内容附加在用户消息之后，
+     * 两种情况下请求开头相同
+     */
+    private static final SystemPrompt EXPLAIN_PROMPT = SystemPrompt.of("concept-explain", """
+            你是AI领域的讲解助手。请用通俗易懂的方式解释用户给出的概念：
             1. 简明定义
             2. 核心原理
             3. 实际应用场景
             4. 相关技术关联
             请用中文回答，控制在300字以内，使用Markdown格式回复，不需要在最外层加上```markdown标识。
-            """;
+            """);
+
+    /**
+     * 概念比较的系统指令，各概念的解释作为用户消息发送，只做归纳对比，不从头讲解
+     */
+    private static final SystemPrompt COMPARE_PROMPT = SystemPrompt.of("concept-compare", """
+            你是AI领域的讲解助手。用户消息中按"## 概念：名称"分段给出了几个概念各自的解释，请据此对比这些概念：
+            1. 用一个Markdown表格从定义、核心原理、典型应用三个维度对比
+            2. 说明它们之间的联系（如包含、依赖、演进关系）
+            3. 给出各自适用的场景或选择建议
+            请用中文回答，控制在400字以内，不要重复完整的单个概念解释，不需要在最外层加上```markdown标识。
+            """);
+
+    /**
+     * 构造概念解释的请求，知识库索引就绪时附带检索到的站内资料
+     */
+    private ChatClient.ChatClientRequestSpec explainPrompt(ChatClient client, String concept) {
+        KnowledgeBase kb = knowledgeBase.getIfAvailable();
+        Advisor ragAdvisor = kb != null ? kb.advisor() : null;
+        ChatClient.ChatClientRequestSpec spec = EXPLAIN_PROMPT.prompt(client, concept);
+        if (ragAdvisor == null) {
+            return spec;
+        }
+        return spec
+                .advisors(ragAdvisor)
+                .options(ChatOptions.builder().maxTokens(ragProperties.getMaxTokens()).build());
+    }
+
     @Override
     public Answer askQuestion(Question question) {
-        var answerText = chatClient.prompt()
-                .user(userSpec -> userSpec
-                        .text(questionPromptTemplate)
-                        .param("concept", question.question()))
-                .call()
-                .content();
+        ConceptAnswerCache.Lookup lookup = answerCache.lookup(question.question());
+        if (lookup.hit()) {
+            return new Answer(lookup.answer());
+        }
 
+        // 同一概念的并发请求只调用一次模型
+        String answerText = singleFlight.execute(lookup.key(), () -> {
+            // 概念解释不限定模型，由路由选择当前最快的健康模型
+            String content = chatModelRouter.call(null, client -> explainPrompt(client, question.question())
+                    .call()
+                    .content());
+            answerCache.put(lookup, content);
+            return content;
+        });
         return new Answer(answerText);
     }
+
+    @Override
+    public Answer regenerate(Question question) {
+        // 与用户请求共用请求合并，预热期间恰好有人点击同一概念时只调用一次模型
+        String answerText = singleFlight.execute(ConceptKeys.normalize(question.question()), () -> {
+            String content = chatModelRouter.call(null, client -> explainPrompt(client, question.question())
+                    .call()
+                    .content());
+            answerCache.store(question.question(), content);
+            return content;
+        });
+        return new Answer(answerText);
+    }
+
+    @Override
+    public Mono<Answer> askQuestionReactive(Question question) {
+        // 语义缓存查询可能调用向量模型，放到弹性线程池避免阻塞事件循环
+        return Mono.fromCallable(() -> answerCache.lookup(question.question()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(lookup -> {
+                    if (lookup.hit()) {
+                        return Mono.just(new Answer(lookup.answer()));
+                    }
+                    return generateReactive(lookup, question.question()).map(Answer::new);
+                });
+    }
+
+    @Override
+    public Flux<ConceptResult> explainBatch(List<String> conceptNames) {
+        Map<String, String> concepts = distinct(conceptNames);
+        if (concepts.isEmpty()) {
+            throw new IllegalArgumentException("概念名称不能为空");
+        }
+        if (concepts.size() > batchMaxConcepts) {
+            throw new IllegalArgumentException("一次最多解释" + batchMaxConcepts + "个概念");
+        }
+        Flux<Pending> lookups = Flux.fromIterable(concepts.values())
+                .flatMap(concept -> Mono.fromCallable(() -> new Pending(concept, answerCache.lookup(concept)))
+                        .subscribeOn(Schedulers.boundedElastic()));
+        // 命中的直接输出，未命中的限制并发后调用模型（各服务商的并发上限由路由控制），结果谁先完成先输出
+        return lookups.publish(shared -> Flux.merge(
+                shared.filter(pending -> pending.lookup().hit())
+                        .map(pending -> ConceptResult.success(pending.concept(), pending.lookup().answer(), true)),
+                shared.filter(pending -> !pending.lookup().hit())
+                        .flatMap(pending -> generateReactive(pending.lookup(), pending.concept())
+                                .filter(answer -> !answer.isBlank())
+                                .map(answer -> ConceptResult.success(pending.concept(), answer, false))
+                                .defaultIfEmpty(ConceptResult.error(pending.concept(), "模型未返回内容"))
+                                .onErrorResume(e -> Mono.just(ConceptResult.error(pending.concept(), e.getMessage()))),
+                                batchMaxConcurrent)));
+    }
+
+    @Override
+    public Answer compareConcepts(List<String> conceptNames) {
+        // Servlet模式下在请求线程中等待，各概念的解释仍然并发获取
+        return compareConceptsReactive(conceptNames).block();
+    }
+
+    @Override
+    public Mono<Answer> compareConceptsReactive(List<String> conceptNames) {
+        Map<String, String> concepts = distinct(conceptNames);
+        if (concepts.size() < 2) {
+            throw new IllegalArgumentException("至少需要两个不同的概念");
+        }
+        if (concepts.size() > compareMaxConcepts) {
+            throw new IllegalArgumentException("一次最多比较" + compareMaxConcepts + "个概念");
+        }
+        // 按缓存键排序，概念顺序不同的请求共用同一条缓存和同一次调用
+        List<String> keys = concepts.keySet().stream().sorted().toList();
+        String key = comparisonCache.key("auto", String.join("\u0000", keys));
+        return Mono.fromCallable(() -> comparisonCache.get(key))
+                .subscribeOn(Schedulers.boundedElastic())
+                .switchIfEmpty(Mono.defer(() -> comparisonFlight.executeReactive(key, () -> Flux.fromIterable(keys)
+                        .flatMapSequential(k -> askQuestionReactive(new Question(concepts.get(k)))
+                                .map(answer -> List.of("概念：" + concepts.get(k), answer.answer())))
+                        .collectList()
+                        .flatMap(sections -> synthesize(sections.stream().flatMap(List::stream).toArray(String[]::new)))
+                        .doOnNext(content -> comparisonCache.put(key, content)))))
+                .map(Answer::new);
+    }
+
+    /**
+     * 基于各概念的解释做一次简短的对比
+     * @param sections 标题、解释交替排列
+     */
+    private Mono<String> synthesize(String[] sections) {
+        String userContent = SystemPrompt.sections(sections);
+        return chatModelRouter.stream(null, client -> COMPARE_PROMPT.prompt(client, userContent)
+                        .options(ChatOptions.builder().maxTokens(compareMaxTokens).build())
+                        .stream()
+                        .content())
+                .collect(Collectors.joining())
+                .filter(content -> !content.isBlank())
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("模型未返回对比内容")));
+    }
+
+    /**
+     * 按缓存键去重，保留第一次出现的写法，忽略空白的名称
+     * @return 缓存键 -> 概念名称
+     */
+    private static Map<String, String> distinct(List<String> conceptNames) {
+        Map<String, String> concepts = new LinkedHashMap<>();
+        for (String conceptName : conceptNames) {
+            if (conceptName != null && !conceptName.isBlank()) {
+                concepts.putIfAbsent(ConceptKeys.normalize(conceptName), conceptName.trim());
+            }
+        }
+        return concepts;
+    }
+
+    /**
+     * 以流式接口调用模型，拼接完整内容后再写入缓存；同一概念的并发请求只调用一次模型
+     */
+    private Mono<String> generateReactive(ConceptAnswerCache.Lookup lookup, String concept) {
+        return singleFlight.executeReactive(lookup.key(), () -> chatModelRouter
+                .stream(null, client -> explainPrompt(client, concept)
+                        .stream()
+                        .content())
+                .collect(Collectors.joining())
+                .doOnNext(content -> answerCache.put(lookup, content)));
+    }
+
+    /**
+     * 批量请求中已查询过缓存的概念
+     */
+    private record Pending(String concept, ConceptAnswerCache.Lookup lookup) {
+    }
 }
@@ -4,10 +4,23 @@ import com.aioverview.backend.aidemo.model.dto.GenerateRequest;
 import com.aioverview.backend.aidemo.model.dto.OptimizeRequest;
 import com.aioverview.backend.aidemo.model.dto.PromptResponse;
 import com.aioverview.backend.aidemo.service.PromptOptimizerService;
-import com.aioverview.backend.aidemo.service.strategy.ChatModelStrategyFactory;
-import org.springframework.ai.chat.client.ChatClient;
+import com.aioverview.backend.aidemo.service.cache.ResponseStore;
+import com.aioverview.backend.aidemo.service.prompt.SystemPrompt;
+import com.aioverview.backend.aidemo.service.cache.TieredResponseCache;
+import com.aioverview.backend.aidemo.service.strategy.ChatModelRouter;
+import com.aioverview.backend.aidemo.service.support.SingleFlight;
+import com.aioverview.backend.aidemo.service.trace.GenerationTraceBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
 
 /**
  * 提示词优化器服务实现
@@ -15,28 +28,40 @@ import org.springframework.stereotype.Service;
 @Service
 public class PromptOptimizerServiceImpl implements PromptOptimizerService {
 
-    private final ChatModelStrategyFactory strategyFactory;
-
-    @Autowired
-    public PromptOptimizerServiceImpl(ChatModelStrategyFactory strategyFactory) {
-        this.strategyFactory = strategyFactory;
-    }
+    public static final String CACHE_NAME = "prompts";
 
     /**
-     * 根据模型名称获取对应的ChatClient
+     * 提示词模板的版本，修改下面的系统指令后递增，持久化缓存中的旧结果随之失效
      */
-    private ChatClient getChatClient(String model) {
-        return strategyFactory.getStrategy(model).getChatClient();
+    private static final String PROMPT_VERSION = "2";
+
+    private final ChatModelRouter chatModelRouter;
+    private final SingleFlight<GenerateRequest, String> generateFlight;
+    private final GenerationTraceBuffer generationTraces;
+    private final TieredResponseCache generateCache;
+    private final TieredResponseCache optimizeCache;
+
+    @Autowired
+    public PromptOptimizerServiceImpl(ChatModelRouter chatModelRouter,
+                                      GenerationTraceBuffer generationTraces,
+                                      CacheManager cacheManager,
+                                      ResponseStore responseStore,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${ai-demo.single-flight.timeout:300s}") Duration waitTimeout) {
+        this.chatModelRouter = chatModelRouter;
+        this.generationTraces = generationTraces;
+        this.generateFlight = new SingleFlight<>("prompt-generate", waitTimeout, meterRegistry);
+        this.generateCache = new TieredResponseCache(cacheManager.getCache(CACHE_NAME), responseStore,
+                "prompt-generate", PROMPT_VERSION);
+        this.optimizeCache = new TieredResponseCache(cacheManager.getCache(CACHE_NAME), responseStore,
+                "prompt-optimize", PROMPT_VERSION);
     }
 
     /**
-     * 生成提示词的模板
+     * 生成提示词的系统指令，用户任务作为用户消息发送
      */
-    private static final String GENERATE_PROMPT_TEMPLATE = """
-            你是一个专业的提示词工程师。请根据用户描述的任务，直接生成一个高质量的、可直接使用的提示词。
-
-            ## 用户任务
-            %s
+    private static final SystemPrompt GENERATE_PROMPT = SystemPrompt.of("prompt-generate", """
+            你是一个专业的提示词工程师。请根据用户消息中描述的任务，直接生成一个高质量的、可直接使用的提示词。
 
             ## 生成要求
             请生成一个结构化的提示词，包含以下部分（用##标题分隔）：
@@ -60,19 +85,13 @@ public class PromptOptimizerServiceImpl implements PromptOptimizerService {
             - **绝对禁止**在生成的提示词中使用任何Markdown强调修饰符，包括但不限于**、*、__、_等
             - **严格要求**保持内容简洁明了，只使用基本的Markdown标题格式（##），不使用任何其他格式修饰
             - **必须确保**生成的内容中完全没有任何强调修饰符，所有内容都使用普通文本格式
-            """;
+            """);
 
     /**
-     * 优化提示词的模板
+     * 优化提示词的系统指令，当前提示词和用户反馈作为用户消息发送
      */
-    private static final String OPTIMIZE_PROMPT_TEMPLATE = """
-            你是一个专业的提示词优化专家。请根据用户的反馈意见，优化改进以下提示词。
-
-            ## 当前提示词
-            %s
-
-            ## 用户反馈
-            %s
+    private static final SystemPrompt OPTIMIZE_PROMPT = SystemPrompt.of("prompt-optimize", """
+            你是一个专业的提示词优化专家。用户消息中包含"当前提示词"和"用户反馈"两部分，请根据用户反馈优化改进当前提示词。
 
             ## 优化要求
             1. 保持原有结构（使用##分隔各部分）
@@ -84,52 +103,158 @@ public class PromptOptimizerServiceImpl implements PromptOptimizerService {
             7. **必须确保**优化后的内容中完全没有任何强调修饰符，所有内容都使用普通文本格式
 
             请直接输出优化后的提示词，不要有额外解释。
-            """;
+            """);
 
     @Override
-  public PromptResponse generatePrompt(GenerateRequest request) {
-    try {
-      // 默认使用glm模型
-      String model = request.model() != null ? request.model() : "glm";
-      ChatClient client = getChatClient(model);
-      String prompt = String.format(GENERATE_PROMPT_TEMPLATE, request.task());
-      String content = client.prompt()
-              .user(prompt)
-              .call()
-              .content();
-
-      // 添加日志
-      System.out.println("=== 提示词生成结果 ===");
-      System.out.println("任务: " + request.task());
-      System.out.println("使用模型: " + model);
-      System.out.println("生成内容长度: " + content.length());
-      System.out.println("生成内容前500字符: " + content.substring(0, Math.min(500, content.length())));
-      System.out.println("====================");
-
-      return PromptResponse.success(content);
-    } catch (Exception e) {
-      e.printStackTrace();
-      return PromptResponse.error("生成失败: " + e.getMessage());
+    public PromptResponse generatePrompt(GenerateRequest request) {
+        long start = System.nanoTime();
+        // 默认使用glm模型
+        String model = request.model() != null ? request.model() : "glm";
+        try {
+            String key = generateCache.key(model, request.task().trim());
+            String cached = generateCache.get(key);
+            if (cached != null) {
+                generationTraces.record("generate-cached", model, request.task(), cached.length(), start, null);
+                return PromptResponse.success(cached);
+            }
+            String prompt = request.task();
+            // 相同模型、相同任务的并发请求共享一次模型调用
+            String content = generateFlight.execute(new GenerateRequest(request.task().trim(), model), () -> {
+                String generated = chatModelRouter.call(model, client -> GENERATE_PROMPT.prompt(client, prompt)
+                        .call()
+                        .content());
+                generateCache.put(key, generated);
+                return generated;
+            });
+            generationTraces.record("generate", model, request.task(), content.length(), start, null);
+            return PromptResponse.success(content);
+        } catch (Exception e) {
+            generationTraces.record("generate", model, request.task(), 0, start, e);
+            return PromptResponse.error("生成失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Flux<String> generatePromptStream(GenerateRequest request) {
+        // 默认使用glm模型
+        String model = request.model() != null ? request.model() : "glm";
+        String prompt = request.task();
+        // 延迟到订阅时才发起调用，背压和取消由 WebClient 透传到上游连接
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            String key = generateCache.key(model, prompt.trim());
+            // 命中缓存时整段内容作为一个片段返回
+            Flux<String> cached = Mono.fromCallable(() -> generateCache.get(key))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .doOnNext(content -> generationTraces.record("generate-cached", model, request.task(),
+                            content.length(), start, null))
+                    .flux();
+            return cached.switchIfEmpty(Flux.defer(() -> {
+                StringBuilder content = new StringBuilder();
+                return chatModelRouter.stream(model, client -> GENERATE_PROMPT.prompt(client, prompt)
+                                .stream()
+                                .content())
+                        .doOnNext(content::append)
+                        .doOnComplete(() -> {
+                            generateCache.put(key, content.toString());
+                            generationTraces.record("generate-stream", model, request.task(), content.length(), start, null);
+                        })
+                        .doOnError(e -> generationTraces.record("generate-stream", model, request.task(), content.length(), start, e));
+            }));
+        });
+    }
+
+    @Override
+    public Mono<PromptResponse> generatePromptReactive(GenerateRequest request) {
+        // 默认使用glm模型
+        String model = request.model() != null ? request.model() : "glm";
+        String prompt = request.task();
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            String key = generateCache.key(model, prompt.trim());
+            Mono<String> cached = Mono.fromCallable(() -> generateCache.get(key))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .doOnNext(content -> generationTraces.record("generate-cached", model, request.task(),
+                            content.length(), start, null));
+            return cached.map(PromptResponse::success).switchIfEmpty(Mono.defer(() -> generateFlight
+                    .executeReactive(new GenerateRequest(request.task().trim(), model),
+                            () -> collect(model, GENERATE_PROMPT, prompt).doOnNext(content -> generateCache.put(key, content)))
+                    .doOnSuccess(content -> generationTraces.record("generate", model, request.task(),
+                            content != null ? content.length() : 0, start, null))
+                    .doOnError(e -> generationTraces.record("generate", model, request.task(), 0, start, e))
+                    .map(PromptResponse::success)))
+                    .onErrorResume(e -> Mono.just(PromptResponse.error("生成失败: " + e.getMessage())));
+        });
     }
-  }
 
     @Override
     public PromptResponse optimizePrompt(OptimizeRequest request) {
+        long start = System.nanoTime();
+        // 默认使用glm模型
+        String model = request.model() != null ? request.model() : "glm";
         try {
-            // 默认使用glm模型
-            String model = request.model() != null ? request.model() : "glm";
-            ChatClient client = getChatClient(model);
-            String prompt = String.format(OPTIMIZE_PROMPT_TEMPLATE,
-                    request.currentPrompt(),
-                    request.feedback());
-            String content = client.prompt()
-                    .user(prompt)
+            String key = optimizeCache.key(model, optimizeRequestKey(request));
+            String cached = optimizeCache.get(key);
+            if (cached != null) {
+                generationTraces.record("optimize-cached", model, request.feedback(), cached.length(), start, null);
+                return PromptResponse.success(cached);
+            }
+            String prompt = optimizeUserContent(request);
+            String content = chatModelRouter.call(model, client -> OPTIMIZE_PROMPT.prompt(client, prompt)
                     .call()
-                    .content();
+                    .content());
+            optimizeCache.put(key, content);
+            generationTraces.record("optimize", model, request.feedback(), content.length(), start, null);
             return PromptResponse.success(content);
         } catch (Exception e) {
-            e.printStackTrace();
+            generationTraces.record("optimize", model, request.feedback(), 0, start, e);
             return PromptResponse.error("优化失败: " + e.getMessage());
         }
     }
+
+    @Override
+    public Mono<PromptResponse> optimizePromptReactive(OptimizeRequest request) {
+        // 默认使用glm模型
+        String model = request.model() != null ? request.model() : "glm";
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            String prompt = optimizeUserContent(request);
+            String key = optimizeCache.key(model, optimizeRequestKey(request));
+            Mono<String> cached = Mono.fromCallable(() -> optimizeCache.get(key))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .doOnNext(content -> generationTraces.record("optimize-cached", model, request.feedback(),
+                            content.length(), start, null));
+            return cached.map(PromptResponse::success).switchIfEmpty(Mono.defer(() -> collect(model, OPTIMIZE_PROMPT, prompt)
+                    .doOnNext(content -> optimizeCache.put(key, content))
+                    .doOnSuccess(content -> generationTraces.record("optimize", model, request.feedback(),
+                            content != null ? content.length() : 0, start, null))
+                    .doOnError(e -> generationTraces.record("optimize", model, request.feedback(), 0, start, e))
+                    .map(PromptResponse::success)))
+                    .onErrorResume(e -> Mono.just(PromptResponse.error("优化失败: " + e.getMessage())));
+        });
+    }
+
+    /**
+     * 优化请求的用户消息
+     */
+    private static String optimizeUserContent(OptimizeRequest request) {
+        return SystemPrompt.sections("当前提示词", request.currentPrompt(), "用户反馈", request.feedback());
+    }
+
+    /**
+     * 优化请求的缓存内容：当前提示词和反馈之间用不会出现在文本中的字符分隔
+     */
+    private static String optimizeRequestKey(OptimizeRequest request) {
+        return request.currentPrompt().trim() + '\u0000' + request.feedback().trim();
+    }
+
+    /**
+     * 以流式接口调用模型并拼接完整内容，等待期间不占用线程
+     */
+    private Mono<String> collect(String model, SystemPrompt systemPrompt, String prompt) {
+        return chatModelRouter.stream(model, client -> systemPrompt.prompt(client, prompt)
+                        .stream()
+                        .content())
+                .collect(Collectors.joining());
+    }
 }
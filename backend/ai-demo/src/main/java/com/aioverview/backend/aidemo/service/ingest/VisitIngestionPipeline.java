@@ -0,0 +1,276 @@
+package com.aioverview.backend.aidemo.service.ingest;
+
+import com.aioverview.backend.aidemo.config.VisitorIngestProperties;
+import com.aioverview.backend.aidemo.dao.VisitorStatsMapper;
+import com.aioverview.backend.aidemo.model.VisitorStats;
+import com.aioverview.backend.aidemo.service.partition.VisitorStatsPartitions;
+import com.aioverview.backend.aidemo.service.rollup.VisitorStatsRollupService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 访问记录异步写入管道
+ * 请求线程只把记录放入有界队列；单个写线程按数量或时间攒批，
+ * 在一个事务内用多行INSERT写入SQLite，避免请求线程争抢SQLite唯一的写锁。
+ */
+@Component
+@Slf4j
+public class VisitIngestionPipeline implements SmartLifecycle {
+
+    private final VisitorStatsMapper visitorStatsMapper;
+    private final VisitorStatsRollupService rollupService;
+    private final VisitorStatsPartitions partitions;
+    private final TransactionTemplate transactionTemplate;
+    private final VisitorIngestProperties properties;
+    private final ArrayBlockingQueue<VisitorStats> queue;
+
+    private final Counter accepted;
+    private final Counter droppedFull;
+    private final Counter droppedSampled;
+    private final Counter droppedStopped;
+    private final Counter failed;
+    private final DistributionSummary batchSize;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public VisitIngestionPipeline(VisitorStatsMapper visitorStatsMapper,
+                                  VisitorStatsRollupService rollupService,
+                                  VisitorStatsPartitions partitions,
+                                  TransactionTemplate transactionTemplate,
+                                  VisitorIngestProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.visitorStatsMapper = visitorStatsMapper;
+        this.rollupService = rollupService;
+        this.partitions = partitions;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+
+        Gauge.builder("visitor.ingest.queue.depth", queue, ArrayBlockingQueue::size)
+                .description("等待写入的访问记录数")
+                .register(meterRegistry);
+        Gauge.builder("visitor.ingest.queue.capacity", queue, q -> q.size() + q.remainingCapacity())
+                .register(meterRegistry);
+        this.accepted = Counter.builder("visitor.ingest.records")
+                .tag("result", "accepted")
+                .register(meterRegistry);
+        this.droppedFull = Counter.builder("visitor.ingest.records")
+                .tag("result", "dropped_full")
+                .register(meterRegistry);
+        this.droppedSampled = Counter.builder("visitor.ingest.records")
+                .tag("result", "dropped_sampled")
+                .register(meterRegistry);
+        this.droppedStopped = Counter.builder("visitor.ingest.records")
+                .tag("result", "dropped_stopped")
+                .register(meterRegistry);
+        this.failed = Counter.builder("visitor.ingest.records")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("visitor.ingest.batch.size")
+                .description("单次刷盘写入的记录数")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("visitor.ingest.flush")
+                .description("单次刷盘事务耗时")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * 提交一条访问记录
+     * @param visit 访问记录
+     * @return 是否进入队列（被丢弃、采样掉或写线程已停止时返回false）
+     */
+    public boolean submit(VisitorStats visit) {
+        if (!running) {
+            droppedStopped.increment();
+            return false;
+        }
+        VisitorIngestProperties.OverflowPolicy policy = properties.getOverflowPolicy();
+        if (policy == VisitorIngestProperties.OverflowPolicy.SAMPLE && aboveHighWaterMark()
+                && ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate()) {
+            droppedSampled.increment();
+            return false;
+        }
+        boolean offered = policy == VisitorIngestProperties.OverflowPolicy.BLOCK
+                ? offerBlocking(visit)
+                : queue.offer(visit);
+        if (!offered) {
+            droppedFull.increment();
+            return false;
+        }
+        accepted.increment();
+        return true;
+    }
+
+    private boolean aboveHighWaterMark() {
+        int capacity = queue.size() + queue.remainingCapacity();
+        return queue.size() >= capacity * properties.getHighWaterMark();
+    }
+
+    private boolean offerBlocking(VisitorStats visit) {
+        try {
+            return queue.offer(visit, properties.getBlockTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 写线程主循环：取到第一条后在flushInterval内继续攒批，满一批或到时间即刷盘
+     */
+    private void drainLoop() {
+        List<VisitorStats> batch = new ArrayList<>(properties.getBatchSize());
+        long lingerNanos = properties.getFlushInterval().toNanos();
+        while (running || !queue.isEmpty()) {
+            try {
+                VisitorStats first = queue.poll(lingerNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < properties.getBatchSize()) {
+                    queue.drainTo(batch, properties.getBatchSize() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= properties.getBatchSize() || remaining <= 0 || !running) {
+                        break;
+                    }
+                    VisitorStats next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                // 停机超时被强制中断，放弃剩余数据
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 在一个事务内写入一批记录，提交后把新记录累加到汇总表
+     * 记录按访问时间分到各自的月分区，分区表在事务开始前创建；整批写入失败时退化为逐条写入
+     */
+    private void flush(List<VisitorStats> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            Map<String, List<VisitorStats>> byPartition = new LinkedHashMap<>();
+            for (VisitorStats visit : batch) {
+                visit.setId(partitions.nextId());
+                byPartition.computeIfAbsent(partitions.ensure(visit.getVisitTime()), table -> new ArrayList<>())
+                        .add(visit);
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                int step = properties.getRowsPerStatement();
+                byPartition.forEach((table, visits) -> {
+                    for (int from = 0; from < visits.size(); from += step) {
+                        visitorStatsMapper.insertVisits(table, visits.subList(from, Math.min(visits.size(), from + step)));
+                    }
+                });
+            });
+            batchSize.record(batch.size());
+        } catch (Exception e) {
+            // 整批回滚后逐条重写，个别异常记录不连累同批的其他记录
+            log.warn("访问记录批量写入失败，改为逐条写入 {} 条: {}", batch.size(), e.getMessage());
+            insertOneByOne(batch);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        try {
+            rollupService.rollUpPending();
+        } catch (Exception e) {
+            // 汇总失败不影响原始数据，未汇总的记录会在下次刷盘时补上，查询时也会被计入
+            log.warn("访问记录汇总失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 逐条写入，每条记录单独提交，只丢弃写入失败的记录
+     */
+    private void insertOneByOne(List<VisitorStats> batch) {
+        int dropped = 0;
+        for (VisitorStats visit : batch) {
+            try {
+                // 批量写入已回滚，重新分配ID，避免与分组中途失败时残留的ID冲突
+                visit.setId(partitions.nextId());
+                visitorStatsMapper.insertVisits(partitions.ensure(visit.getVisitTime()), List.of(visit));
+            } catch (Exception e) {
+                dropped++;
+                log.error("访问记录写入失败，丢弃: page={}, {}", visit.getPagePath(), e.getMessage());
+            }
+        }
+        if (dropped > 0) {
+            failed.increment(dropped);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drainLoop, "visit-ingest-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 停机：不再等待新数据，写完队列中已有的记录后退出
+     */
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = writer;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(properties.getShutdownTimeout().toMillis());
+            if (thread.isAlive()) {
+                log.warn("访问记录写线程未能在 {} 内退出，剩余 {} 条未写入",
+                        properties.getShutdownTimeout(), queue.size());
+                thread.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 在Web服务器之后停止：优雅停机期间仍在处理的请求提交的记录也能写入
+     */
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    }
+}
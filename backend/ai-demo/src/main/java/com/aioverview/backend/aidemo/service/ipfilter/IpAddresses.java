@@ -0,0 +1,211 @@
+package com.aioverview.backend.aidemo.service.ipfilter;
+
+/**
+ * IP地址解析工具
+ * 直接逐字符解析为long，不使用String.split，也不依赖异常做流程控制
+ */
+final class IpAddresses {
+
+    private IpAddresses() {
+    }
+
+    /**
+     * 解析点分十进制IPv4地址
+     * @param text 地址文本
+     * @param from 起始下标（含）
+     * @param to 结束下标（不含）
+     * @return 32位无符号地址值，非法时返回-1
+     */
+    static long parseIpv4(CharSequence text, int from, int to) {
+        long value = 0;
+        int octets = 0;
+        int octet = -1;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = octet < 0 ? c - '0' : octet * 10 + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0 && octets < 3) {
+                value = (value << 8) | octet;
+                octets++;
+                octet = -1;
+            } else {
+                return -1;
+            }
+        }
+        if (octet < 0 || octets != 3) {
+            return -1;
+        }
+        return (value << 8) | octet;
+    }
+
+    /**
+     * 解析IPv6地址，支持"::"缩写、结尾内嵌IPv4（如 ::ffff:1.2.3.4）以及"%zone"后缀
+     * @param text 地址文本
+     * @param from 起始下标（含）
+     * @param to 结束下标（不含）
+     * @param out 输出：out[0]为高64位，out[1]为低64位
+     * @return 是否解析成功
+     */
+    static boolean parseIpv6(CharSequence text, int from, int to, long[] out) {
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == '%') {
+                to = i;
+                break;
+            }
+        }
+        if (to - from < 2) {
+            return false;
+        }
+
+        // "::"之前的分组记入head，之后的分组记入tail，各自按16位左移累加
+        long headHi = 0;
+        long headLo = 0;
+        long tailHi = 0;
+        long tailLo = 0;
+        int headCount = 0;
+        int tailCount = 0;
+        boolean gap = false;
+
+        int i = from;
+        if (text.charAt(i) == ':') {
+            if (text.charAt(i + 1) != ':') {
+                return false;
+            }
+            gap = true;
+            i += 2;
+        }
+
+        while (i < to) {
+            int segmentEnd = i;
+            boolean dotted = false;
+            while (segmentEnd < to && text.charAt(segmentEnd) != ':') {
+                if (text.charAt(segmentEnd) == '.') {
+                    dotted = true;
+                }
+                segmentEnd++;
+            }
+            if (segmentEnd == i) {
+                return false;
+            }
+
+            int groups;
+            long groupBits;
+            if (dotted) {
+                // 内嵌IPv4只能出现在最后，占两个分组
+                if (segmentEnd != to) {
+                    return false;
+                }
+                groupBits = parseIpv4(text, i, segmentEnd);
+                if (groupBits < 0) {
+                    return false;
+                }
+                groups = 2;
+            } else {
+                if (segmentEnd - i > 4) {
+                    return false;
+                }
+                groupBits = 0;
+                for (int j = i; j < segmentEnd; j++) {
+                    int digit = hexDigit(text.charAt(j));
+                    if (digit < 0) {
+                        return false;
+                    }
+                    groupBits = (groupBits << 4) | digit;
+                }
+                groups = 1;
+            }
+
+            int shift = groups * 16;
+            if (gap) {
+                tailHi = (tailHi << shift) | (tailLo >>> (64 - shift));
+                tailLo = (tailLo << shift) | groupBits;
+                tailCount += groups;
+            } else {
+                headHi = (headHi << shift) | (headLo >>> (64 - shift));
+                headLo = (headLo << shift) | groupBits;
+                headCount += groups;
+            }
+            if (headCount + tailCount > 8) {
+                return false;
+            }
+
+            if (segmentEnd == to) {
+                break;
+            }
+            i = segmentEnd + 1;
+            if (i < to && text.charAt(i) == ':') {
+                if (gap) {
+                    return false;
+                }
+                gap = true;
+                i++;
+            } else if (i == to) {
+                // 以单个冒号结尾
+                return false;
+            }
+        }
+
+        int total = headCount + tailCount;
+        if (gap ? total > 7 : total != 8) {
+            return false;
+        }
+
+        // head左移到高位，与tail拼接
+        int headShift = 16 * (8 - headCount);
+        if (headShift >= 128) {
+            headHi = 0;
+            headLo = 0;
+        } else if (headShift >= 64) {
+            headHi = headLo << (headShift - 64);
+            headLo = 0;
+        } else if (headShift > 0) {
+            headHi = (headHi << headShift) | (headLo >>> (64 - headShift));
+            headLo = headLo << headShift;
+        }
+        out[0] = headHi | tailHi;
+        out[1] = headLo | tailLo;
+        return true;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * 判断是否为IPv4映射的IPv6地址（::ffff:a.b.c.d）
+     */
+    static boolean isIpv4Mapped(long hi, long lo) {
+        return hi == 0 && (lo >>> 32) == 0xFFFFL;
+    }
+
+    /**
+     * 解析前缀长度
+     * @return 前缀长度，非法时返回-1
+     */
+    static int parsePrefixLength(CharSequence text, int from, int to, int maxBits) {
+        if (from >= to || to - from > 3) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value <= maxBits ? value : -1;
+    }
+}
@@ -0,0 +1,235 @@
+package com.aioverview.backend.aidemo.service.ipfilter;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 编译后的IP过滤规则集
+ * 规则在变更时一次性编译为IPv4/IPv6两棵前缀树，此后只读，可被多线程无锁共享。
+ * 支持的规则格式：
+ * <ul>
+ *     <li>单个地址：192.168.1.5、2001:db8::1</li>
+ *     <li>CIDR：10.0.0.0/8、2001:db8::/32、::ffff:10.0.0.0/104（IPv4映射地址按IPv4处理）</li>
+ *     <li>起止区间：10.0.0.5-10.0.0.20、2001:db8::1-2001:db8::ff（拆分为最少的CIDR前缀）</li>
+ * </ul>
+ * IPv4地址与对应的IPv4映射地址（::ffff:a.b.c.d）等价：两种写法的客户端地址都先查IPv4树，
+ * 再以映射地址查IPv6树，覆盖 ::/0、短于/96的映射前缀和映射地址区间这类只能放在IPv6树中的规则。
+ */
+@Slf4j
+public final class IpRuleSet {
+
+    public static final IpRuleSet EMPTY = new IpRuleSet(PrefixTrie.EMPTY, PrefixTrie.EMPTY, Set.of(), 0);
+
+    /**
+     * IPv4映射地址低64位中的固定部分（::ffff:0:0）
+     */
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFFL << 32;
+
+    /**
+     * 查询时的IPv6解析缓冲区，平台线程（容器工作线程、事件循环）各复用一个
+     */
+    private static final ThreadLocal<long[]> IPV6_BUFFER = ThreadLocal.withInitial(() -> new long[2]);
+
+    private final PrefixTrie ipv4;
+    private final PrefixTrie ipv6;
+    /**
+     * 无法解析为IP的规则，保持原有的按字符串完全相等匹配
+     */
+    private final Set<String> literals;
+    private final int ruleCount;
+
+    private IpRuleSet(PrefixTrie ipv4, PrefixTrie ipv6, Set<String> literals, int ruleCount) {
+        this.ipv4 = ipv4;
+        this.ipv6 = ipv6;
+        this.literals = literals;
+        this.ruleCount = ruleCount;
+    }
+
+    /**
+     * 编译规则
+     * @param rules 规则文本列表
+     * @return 规则集
+     */
+    public static IpRuleSet compile(Collection<String> rules) {
+        PrefixTrie.Builder ipv4 = new PrefixTrie.Builder();
+        PrefixTrie.Builder ipv6 = new PrefixTrie.Builder();
+        Set<String> literals = new HashSet<>();
+        for (String raw : rules) {
+            if (raw == null || raw.isBlank()) {
+                continue;
+            }
+            String rule = raw.trim();
+            if (!addRule(rule, ipv4, ipv6)) {
+                log.warn("无法解析的IP过滤规则，按字符串精确匹配: {}", rule);
+                literals.add(rule);
+            }
+        }
+        return new IpRuleSet(ipv4.build(), ipv6.build(), Set.copyOf(literals), rules.size());
+    }
+
+    /**
+     * 校验规则格式
+     * @param rule 规则文本
+     * @return 是否为合法的地址、CIDR或区间
+     */
+    public static boolean isValidRule(String rule) {
+        return rule != null && addRule(rule.trim(), new PrefixTrie.Builder(), new PrefixTrie.Builder());
+    }
+
+    /**
+     * 判断IP是否命中任一规则
+     * @param ip 客户端IP
+     * @return true表示命中
+     */
+    public boolean matches(String ip) {
+        if (ip == null || ip.isEmpty() || ruleCount == 0) {
+            return false;
+        }
+        int length = ip.length();
+        long v4 = IpAddresses.parseIpv4(ip, 0, length);
+        if (v4 >= 0) {
+            return matchesIpv4(v4);
+        }
+        // 虚拟线程用完即弃，线程局部变量反而多一次分配，直接用局部数组
+        long[] address = Thread.currentThread().isVirtual() ? new long[2] : IPV6_BUFFER.get();
+        if (IpAddresses.parseIpv6(ip, 0, length, address)) {
+            if (IpAddresses.isIpv4Mapped(address[0], address[1])) {
+                return matchesIpv4(address[1] & 0xFFFFFFFFL);
+            }
+            return ipv6.contains(address[0], address[1], 128);
+        }
+        return !literals.isEmpty() && literals.contains(ip);
+    }
+
+    private boolean matchesIpv4(long v4) {
+        return ipv4.contains(v4 << 32, 0, 32) || ipv6.contains(0, IPV4_MAPPED_PREFIX | v4, 128);
+    }
+
+    /**
+     * 规则数量
+     */
+    public int size() {
+        return ruleCount;
+    }
+
+    private static boolean addRule(String rule, PrefixTrie.Builder ipv4, PrefixTrie.Builder ipv6) {
+        int dash = rule.indexOf('-');
+        if (dash > 0) {
+            return addRange(rule, dash, ipv4, ipv6);
+        }
+        int slash = rule.indexOf('/');
+        int end = slash < 0 ? rule.length() : slash;
+
+        long v4 = IpAddresses.parseIpv4(rule, 0, end);
+        if (v4 >= 0) {
+            int prefix = slash < 0 ? 32 : IpAddresses.parsePrefixLength(rule, slash + 1, rule.length(), 32);
+            if (prefix < 0) {
+                return false;
+            }
+            ipv4.add(v4 << 32, 0, prefix);
+            return true;
+        }
+
+        long[] address = new long[2];
+        if (!IpAddresses.parseIpv6(rule, 0, end, address)) {
+            return false;
+        }
+        int prefix = slash < 0 ? 128 : IpAddresses.parsePrefixLength(rule, slash + 1, rule.length(), 128);
+        if (prefix < 0) {
+            return false;
+        }
+        if (IpAddresses.isIpv4Mapped(address[0], address[1]) && prefix >= 96) {
+            // IPv4映射地址与对应的IPv4地址等价
+            ipv4.add(address[1] << 32, 0, prefix - 96);
+        } else {
+            ipv6.add(address[0], address[1], prefix);
+        }
+        return true;
+    }
+
+    /**
+     * 起止区间拆分为最少数量的CIDR前缀
+     */
+    private static boolean addRange(String rule, int dash, PrefixTrie.Builder ipv4, PrefixTrie.Builder ipv6) {
+        int startFrom = 0;
+        int startTo = dash;
+        int endFrom = dash + 1;
+        int endTo = rule.length();
+        while (startTo > startFrom && rule.charAt(startTo - 1) == ' ') {
+            startTo--;
+        }
+        while (endFrom < endTo && rule.charAt(endFrom) == ' ') {
+            endFrom++;
+        }
+
+        long startV4 = IpAddresses.parseIpv4(rule, startFrom, startTo);
+        long endV4 = IpAddresses.parseIpv4(rule, endFrom, endTo);
+        if (startV4 >= 0 && endV4 >= 0) {
+            if (startV4 > endV4) {
+                return false;
+            }
+            addIpv4Range(startV4, endV4, ipv4);
+            return true;
+        }
+
+        long[] start = new long[2];
+        long[] end = new long[2];
+        if (!IpAddresses.parseIpv6(rule, startFrom, startTo, start)
+                || !IpAddresses.parseIpv6(rule, endFrom, endTo, end)
+                || compareUnsigned(start[0], start[1], end[0], end[1]) > 0) {
+            return false;
+        }
+        addIpv6Range(start[0], start[1], end[0], end[1], ipv6);
+        return true;
+    }
+
+    private static void addIpv4Range(long start, long end, PrefixTrie.Builder ipv4) {
+        while (start <= end) {
+            // 从start的对齐位数出发，找不超过end的最大块
+            int blockBits = start == 0 ? 32 : Math.min(32, Long.numberOfTrailingZeros(start));
+            while (blockBits > 0 && start + (1L << blockBits) - 1 > end) {
+                blockBits--;
+            }
+            ipv4.add(start << 32, 0, 32 - blockBits);
+            start += 1L << blockBits;
+        }
+    }
+
+    private static void addIpv6Range(long startHi, long startLo, long endHi, long endLo, PrefixTrie.Builder ipv6) {
+        while (true) {
+            int blockBits = startLo != 0
+                    ? Long.numberOfTrailingZeros(startLo)
+                    : (startHi != 0 ? 64 + Long.numberOfTrailingZeros(startHi) : 128);
+            long lastHi;
+            long lastLo;
+            while (true) {
+                if (blockBits >= 64) {
+                    lastHi = blockBits == 128 ? -1L : startHi | ((1L << (blockBits - 64)) - 1);
+                    lastLo = -1L;
+                } else {
+                    lastHi = startHi;
+                    lastLo = startLo | ((1L << blockBits) - 1);
+                }
+                if (compareUnsigned(lastHi, lastLo, endHi, endLo) <= 0) {
+                    break;
+                }
+                blockBits--;
+            }
+            ipv6.add(startHi, startLo, 128 - blockBits);
+            if (lastHi == endHi && lastLo == endLo) {
+                return;
+            }
+            // start = last + 1
+            startLo = lastLo + 1;
+            startHi = startLo == 0 ? lastHi + 1 : lastHi;
+        }
+    }
+
+    private static int compareUnsigned(long aHi, long aLo, long bHi, long bLo) {
+        int high = Long.compareUnsigned(aHi, bHi);
+        return high != 0 ? high : Long.compareUnsigned(aLo, bLo);
+    }
+}
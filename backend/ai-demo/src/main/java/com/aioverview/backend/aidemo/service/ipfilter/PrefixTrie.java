@@ -0,0 +1,114 @@
+package com.aioverview.backend.aidemo.service.ipfilter;
+
+import java.util.Arrays;
+
+/**
+ * 不可变的二进制前缀树（radix-2 trie）
+ * 地址统一按128位 (hi, lo) 表示，IPv4地址放在hi的高32位。
+ * 节点以并行int数组存储，0号节点为根，子节点下标为0表示不存在；查找过程不分配任何对象。
+ */
+final class PrefixTrie {
+
+    static final PrefixTrie EMPTY = new Builder().build();
+
+    private final int[] zero;
+    private final int[] one;
+    private final boolean[] terminal;
+
+    private PrefixTrie(int[] zero, int[] one, boolean[] terminal) {
+        this.zero = zero;
+        this.one = one;
+        this.terminal = terminal;
+    }
+
+    /**
+     * 判断地址是否落在任意一个前缀内
+     * @param hi 地址高64位
+     * @param lo 地址低64位
+     * @param bits 地址位数（IPv4为32，IPv6为128）
+     * @return true表示匹配
+     */
+    boolean contains(long hi, long lo, int bits) {
+        int node = 0;
+        if (terminal[node]) {
+            return true;
+        }
+        for (int i = 0; i < bits; i++) {
+            node = bit(hi, lo, i) == 0 ? zero[node] : one[node];
+            if (node == 0) {
+                return false;
+            }
+            if (terminal[node]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 节点数量
+     */
+    int nodeCount() {
+        return terminal.length;
+    }
+
+    private static int bit(long hi, long lo, int index) {
+        return index < 64
+                ? (int) (hi >>> (63 - index)) & 1
+                : (int) (lo >>> (127 - index)) & 1;
+    }
+
+    /**
+     * 构建器，仅在规则变更时使用
+     */
+    static final class Builder {
+
+        private int[] zero = new int[64];
+        private int[] one = new int[64];
+        private boolean[] terminal = new boolean[64];
+        private int size = 1;
+
+        /**
+         * 加入一个前缀
+         * @param hi 网络地址高64位
+         * @param lo 网络地址低64位
+         * @param prefixLength 前缀长度
+         */
+        Builder add(long hi, long lo, int prefixLength) {
+            int node = 0;
+            for (int i = 0; i < prefixLength; i++) {
+                if (terminal[node]) {
+                    // 已被更短的前缀覆盖
+                    return this;
+                }
+                boolean isOne = bit(hi, lo, i) == 1;
+                int next = isOne ? one[node] : zero[node];
+                if (next == 0) {
+                    next = newNode();
+                    if (isOne) {
+                        one[node] = next;
+                    } else {
+                        zero[node] = next;
+                    }
+                }
+                node = next;
+            }
+            terminal[node] = true;
+            return this;
+        }
+
+        PrefixTrie build() {
+            return new PrefixTrie(Arrays.copyOf(zero, size), Arrays.copyOf(one, size), Arrays.copyOf(terminal, size));
+        }
+
+        private int newNode() {
+            if (size == terminal.length) {
+                int capacity = size * 2;
+                zero = Arrays.copyOf(zero, capacity);
+                one = Arrays.copyOf(one, capacity);
+                terminal = Arrays.copyOf(terminal, capacity);
+            }
+            return size++;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.aioverview.backend.aidemo.service.partition;
+
+import com.aioverview.backend.aidemo.config.VisitorPartitionProperties;
+import com.aioverview.backend.aidemo.dao.VisitorStatsPartitionMapper;
+import com.aioverview.backend.aidemo.service.rollup.VisitorStatsRollupService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * 访客统计分区维护
+ * 按月分区后，过期数据整表删除或归档，不再逐行DELETE；并定期执行ANALYZE和VACUUM。
+ * 只处理已经全部计入汇总表的分区，统计结果不受清理影响。
+ */
+@Service
+@Slf4j
+public class VisitorStatsMaintenanceService {
+
+    private final VisitorStatsPartitions partitions;
+    private final VisitorStatsPartitionMapper partitionMapper;
+    private final VisitorStatsRollupService rollupService;
+    private final JdbcTemplate jdbcTemplate;
+    private final VisitorPartitionProperties properties;
+
+    private final Counter droppedPartitions;
+    private final Timer vacuumTimer;
+
+    public VisitorStatsMaintenanceService(VisitorStatsPartitions partitions,
+                                          VisitorStatsPartitionMapper partitionMapper,
+                                          VisitorStatsRollupService rollupService,
+                                          JdbcTemplate jdbcTemplate,
+                                          VisitorPartitionProperties properties,
+                                          MeterRegistry meterRegistry) {
+        this.partitions = partitions;
+        this.partitionMapper = partitionMapper;
+        this.rollupService = rollupService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.droppedPartitions = Counter.builder("visitor.partition.retired")
+                .description("因超出保留期被删除或归档的分区数")
+                .tag("action", properties.getRetentionAction().name().toLowerCase())
+                .register(meterRegistry);
+        this.vacuumTimer = Timer.builder("visitor.partition.vacuum")
+                .description("VACUUM耗时")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 日常维护：提前创建下月分区，清理过期分区，更新统计信息
+     */
+    @Scheduled(cron = "${ai-demo.visitor-partition.maintenance-cron:0 30 3 * * *}")
+    public void maintain() {
+        try {
+            partitions.ensure(YearMonth.now().plusMonths(1));
+            applyRetention();
+            partitionMapper.analyze();
+        } catch (Exception e) {
+            log.error("访客统计分区维护失败", e);
+        }
+    }
+
+    /**
+     * 整理数据库文件
+     */
+    @Scheduled(cron = "${ai-demo.visitor-partition.vacuum-cron:0 0 4 * * SUN}")
+    public void vacuum() {
+        try {
+            vacuumTimer.record(() -> partitionMapper.vacuum());
+            log.info("数据库VACUUM完成");
+        } catch (Exception e) {
+            log.error("数据库VACUUM失败", e);
+        }
+    }
+
+    /**
+     * 删除或归档超出保留期的分区
+     * @return 处理的分区数
+     */
+    public int applyRetention() {
+        int retentionMonths = properties.getRetentionMonths();
+        if (retentionMonths <= 0) {
+            return 0;
+        }
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths - 1L);
+        long watermark = rollupService.watermark();
+        int retired = 0;
+        for (YearMonth month : partitions.months()) {
+            if (!month.isBefore(oldestKept)) {
+                break;
+            }
+            String table = VisitorStatsPartitions.tableName(month);
+            if (partitionMapper.selectMaxId(List.of(table)) > watermark) {
+                log.warn("分区 {} 仍有未汇总的记录，暂不清理", table);
+                continue;
+            }
+            if (properties.getRetentionAction() == VisitorPartitionProperties.RetentionAction.ARCHIVE) {
+                archive(table);
+            }
+            partitions.drop(month);
+            droppedPartitions.increment();
+            retired++;
+            log.info("已{}过期分区: {}", properties.getRetentionAction() == VisitorPartitionProperties.RetentionAction.ARCHIVE
+                    ? "归档" : "删除", table);
+        }
+        return retired;
+    }
+
+    /**
+     * 把分区复制到独立的归档文件（archiveDir/visitor_stats_YYYYMM.db，表名visitor_stats）
+     * ATTACH只对当前连接有效且不能在事务中执行，因此直接在同一个连接上完成
+     */
+    private void archive(String table) {
+        Path dir = Path.of(properties.getArchiveDir());
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new IllegalStateException("无法创建归档目录: " + dir, e);
+        }
+        String file = dir.resolve(table + ".db").toAbsolutePath().toString().replace("'", "''");
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ATTACH DATABASE '" + file + "' AS archive");
+                try {
+                    statement.execute("CREATE TABLE IF NOT EXISTS archive.visitor_stats AS SELECT * FROM main." + table + " WHERE 0");
+                    // 上次归档后删除失败时会重复归档，先清掉同ID的记录
+                    statement.execute("DELETE FROM archive.visitor_stats WHERE id IN (SELECT id FROM main." + table + ")");
+                    statement.execute("INSERT INTO archive.visitor_stats SELECT * FROM main." + table);
+                } finally {
+                    statement.execute("DETACH DATABASE archive");
+                }
+            }
+            return null;
+        });
+    }
+}
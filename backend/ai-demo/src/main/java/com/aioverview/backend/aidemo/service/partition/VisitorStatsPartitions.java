@@ -0,0 +1,192 @@
+package com.aioverview.backend.aidemo.service.partition;
+
+import com.aioverview.backend.aidemo.dao.VisitorStatsMapper;
+import com.aioverview.backend.aidemo.dao.VisitorStatsPartitionMapper;
+import com.aioverview.backend.aidemo.model.VisitorStats;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 访客统计月分区
+ * 原始访问记录按访问时间写入 visitor_stats_YYYYMM 表，查询只访问时间范围覆盖到的分区。
+ * 记录ID由写入管道从这里统一分配，跨分区单调递增，汇总表的ID水位因此对所有分区有效。
+ */
+@Component
+@Slf4j
+public class VisitorStatsPartitions {
+
+    private static final String TABLE_PREFIX = "visitor_stats_";
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final VisitorStatsPartitionMapper partitionMapper;
+    private final VisitorStatsMapper visitorStatsMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong lastId = new AtomicLong();
+
+    /**
+     * 已存在的分区月份，升序，写时复制
+     */
+    private volatile List<YearMonth> months = List.of();
+
+    public VisitorStatsPartitions(VisitorStatsPartitionMapper partitionMapper,
+                                  VisitorStatsMapper visitorStatsMapper,
+                                  TransactionTemplate transactionTemplate) {
+        this.partitionMapper = partitionMapper;
+        this.visitorStatsMapper = visitorStatsMapper;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * 加载已有分区，迁移旧版本单表，并确保当月分区存在
+     */
+    @PostConstruct
+    public synchronized void init() {
+        if (partitionMapper.legacyTableExists() > 0) {
+            migrateLegacyTable();
+        }
+        List<YearMonth> loaded = new ArrayList<>();
+        for (String table : partitionMapper.listPartitionTables()) {
+            loaded.add(YearMonth.parse(table.substring(TABLE_PREFIX.length()), MONTH_SUFFIX));
+        }
+        months = List.copyOf(loaded);
+        ensure(YearMonth.now());
+        lastId.set(partitionMapper.selectMaxId(all()));
+        log.info("访客统计分区已加载: {} 个分区, 当前最大ID {}", months.size(), lastId.get());
+    }
+
+    /**
+     * 旧版本把所有访问记录存在 visitor_stats 单表中，按月拆分到分区表后删除，保留原ID
+     */
+    private void migrateLegacyTable() {
+        transactionTemplate.executeWithoutResult(status -> {
+            int copied = 0;
+            for (String month : partitionMapper.listLegacyMonths()) {
+                String table = TABLE_PREFIX + month;
+                partitionMapper.createPartition(table);
+                partitionMapper.createPartitionIndex(table);
+                copied += partitionMapper.copyLegacyMonth(table, month);
+            }
+            partitionMapper.dropLegacyTable();
+            log.info("已将旧版访客统计表迁移到月分区: {} 条记录", copied);
+        });
+    }
+
+    /**
+     * 获取访问时间所在的分区表，不存在时创建
+     * 必须在写入事务之外调用，避免建表随事务回滚而分区列表已更新
+     * @param visitTime 访问时间
+     * @return 分区表名
+     */
+    public String ensure(LocalDateTime visitTime) {
+        return ensure(YearMonth.from(visitTime));
+    }
+
+    /**
+     * 获取指定月份的分区表，不存在时创建
+     * @param month 月份
+     * @return 分区表名
+     */
+    public String ensure(YearMonth month) {
+        String table = tableName(month);
+        if (months.contains(month)) {
+            return table;
+        }
+        synchronized (this) {
+            if (!months.contains(month)) {
+                partitionMapper.createPartition(table);
+                partitionMapper.createPartitionIndex(table);
+                List<YearMonth> updated = new ArrayList<>(months);
+                updated.add(month);
+                updated.sort(null);
+                months = List.copyOf(updated);
+                log.info("已创建访客统计分区: {}", table);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * 从分区列表中移除并删除分区表
+     * @param month 月份
+     */
+    public synchronized void drop(YearMonth month) {
+        List<YearMonth> updated = new ArrayList<>(months);
+        if (!updated.remove(month)) {
+            return;
+        }
+        // 先从列表移除，新的查询不会再访问这张表
+        months = List.copyOf(updated);
+        partitionMapper.dropPartition(tableName(month));
+    }
+
+    /**
+     * 分配下一个记录ID，只由写入管道的写线程调用
+     */
+    public long nextId() {
+        return lastId.incrementAndGet();
+    }
+
+    /**
+     * 获取所有分区月份
+     * @return 升序的月份列表
+     */
+    public List<YearMonth> months() {
+        return months;
+    }
+
+    /**
+     * 获取所有分区表
+     * @return 按时间升序的分区表名
+     */
+    public List<String> all() {
+        return months.stream().map(VisitorStatsPartitions::tableName).toList();
+    }
+
+    /**
+     * 获取与日期范围有交集的分区表
+     * @param startDate 开始日期（含）
+     * @param endDate 结束日期（含）
+     * @return 按时间升序的分区表名，可能为空
+     */
+    public List<String> between(LocalDate startDate, LocalDate endDate) {
+        YearMonth from = YearMonth.from(startDate);
+        YearMonth to = YearMonth.from(endDate);
+        return months.stream()
+                .filter(month -> !month.isBefore(from) && !month.isAfter(to))
+                .map(VisitorStatsPartitions::tableName)
+                .toList();
+    }
+
+    /**
+     * 获取最近的访问记录，从最新的分区开始逐个读取，取满即停
+     * @param limit 记录数量
+     * @return 按访问时间倒序的访问记录
+     */
+    public List<VisitorStats> recentVisits(int limit) {
+        List<VisitorStats> result = new ArrayList<>(Math.max(0, limit));
+        List<YearMonth> snapshot = months;
+        for (int i = snapshot.size() - 1; i >= 0 && result.size() < limit; i--) {
+            result.addAll(visitorStatsMapper.getRecentVisits(tableName(snapshot.get(i)), limit - result.size()));
+        }
+        return result;
+    }
+
+    /**
+     * 分区表名
+     * @param month 月份
+     * @return visitor_stats_YYYYMM
+     */
+    public static String tableName(YearMonth month) {
+        return TABLE_PREFIX + MONTH_SUFFIX.format(month);
+    }
+}
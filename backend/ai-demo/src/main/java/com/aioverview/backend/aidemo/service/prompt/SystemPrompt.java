@@ -0,0 +1,73 @@
+package com.aioverview.backend.aidemo.service.prompt;
+
+import org.springframework.ai.chat.client.ChatClient;
+
+/**
+ * 固定的系统指令
+ * 服务商的上下文缓存（前缀缓存）按请求开头的token匹配，只有各次请求的开头逐字一致才能复用。
+ * 因此静态指令总是作为第一条系统消息原样发送，用户输入放在其后的用户消息中，不再拼进模板中间；
+ * 指令文本不做任何替换，需要随请求变化的内容一律放到用户消息里。
+ */
+public final class SystemPrompt {
+
+    /**
+     * advisor上下文中的提示词名称，指标按它区分各类请求的缓存命中情况
+     */
+    public static final String CONTEXT_KEY = "ai-demo.prompt";
+
+    private final String name;
+    private final String instructions;
+
+    private SystemPrompt(String name, String instructions) {
+        this.name = name;
+        this.instructions = instructions;
+    }
+
+    /**
+     * @param name 提示词名称，用作指标标签
+     * @param instructions 静态指令
+     */
+    public static SystemPrompt of(String name, String instructions) {
+        if (instructions == null || instructions.isBlank()) {
+            throw new IllegalArgumentException("系统指令不能为空: " + name);
+        }
+        return new SystemPrompt(name, instructions);
+    }
+
+    /**
+     * 构造请求：系统指令在前，用户内容在后
+     * 用户内容按原文发送，其中的花括号不会被当作模板变量
+     */
+    public ChatClient.ChatClientRequestSpec prompt(ChatClient client, String userContent) {
+        return client.prompt()
+                .system(instructions)
+                .user(userContent)
+                .advisors(advisor -> advisor.param(CONTEXT_KEY, name));
+    }
+
+    /**
+     * 把多段用户输入拼成带二级标题的用户消息
+     * @param titlesAndContents 标题、内容交替排列
+     */
+    public static String sections(String... titlesAndContents) {
+        if (titlesAndContents.length % 2 != 0) {
+            throw new IllegalArgumentException("标题和内容必须成对出现");
+        }
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < titlesAndContents.length; i += 2) {
+            if (!content.isEmpty()) {
+                content.append("\n\n");
+            }
+            content.append("## ").append(titlesAndContents[i]).append('\n').append(titlesAndContents[i + 1]);
+        }
+        return content.toString();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String instructions() {
+        return instructions;
+    }
+}
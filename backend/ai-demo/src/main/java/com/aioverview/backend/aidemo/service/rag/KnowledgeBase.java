@@ -0,0 +1,251 @@
+package com.aioverview.backend.aidemo.service.rag;
+
+import com.aioverview.backend.aidemo.config.RagProperties;
+import com.aioverview.backend.aidemo.service.vector.HnswVectorStore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.advisor.api.Advisor;
+import org.springframework.ai.chat.client.advisor.vectorstore.QuestionAnswerAdvisor;
+import org.springframework.ai.chat.prompt.PromptTemplate;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.reader.markdown.MarkdownDocumentReader;
+import org.springframework.ai.reader.markdown.config.MarkdownDocumentReaderConfig;
+import org.springframework.ai.transformer.splitter.TokenTextSplitter;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 站内知识库
+ * 把笔记和工具介绍的Markdown切片、向量化后存入进程内的HNSW向量索引，并提供检索增强的advisor。
+ * 索引按文件内容哈希增量更新：未变化的文件不会重新向量化，删除的文件同步移出索引；
+ * 向量索引和文件清单保存在 index-dir 中，启动时直接映射已有文件。
+ */
+@Component
+@ConditionalOnProperty(prefix = "ai-demo.rag", name = "enabled", havingValue = "true")
+@Slf4j
+public class KnowledgeBase {
+
+    private static final String MANIFEST_FILE = "manifest.json";
+
+    private static final PromptTemplate PROMPT_TEMPLATE = new PromptTemplate("""
+            {query}
+
+            以下是本站笔记和工具介绍中的相关内容，可作为参考：
+            ---------------------
+            {question_answer_context}
+            ---------------------
+            请优先依据参考内容回答；参考内容与问题无关时按你自己的知识回答，回答中不要提及"参考内容"。
+            """);
+
+    private final RagProperties properties;
+    private final ObjectMapper objectMapper;
+    private final HnswVectorStore vectorStore;
+    private final Advisor advisor;
+    private final TokenTextSplitter splitter;
+
+    /**
+     * 已索引的文件：相对路径 -> 内容哈希和片段ID
+     */
+    private Map<String, IndexedFile> manifest = new HashMap<>();
+    private volatile boolean ready;
+
+    public KnowledgeBase(RagProperties properties, EmbeddingModel embeddingModel, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.vectorStore = HnswVectorStore.builder(embeddingModel)
+                .directory(Path.of(properties.getIndexDir()))
+                .build();
+        this.advisor = QuestionAnswerAdvisor.builder(vectorStore)
+                .searchRequest(SearchRequest.builder()
+                        .topK(properties.getTopK())
+                        .similarityThreshold(properties.getSimilarityThreshold())
+                        .build())
+                .promptTemplate(PROMPT_TEMPLATE)
+                .build();
+        this.splitter = TokenTextSplitter.builder()
+                .withChunkSize(properties.getChunkSize())
+                .build();
+        loadManifest();
+    }
+
+    /**
+     * 检索增强advisor，索引尚未就绪时为null
+     */
+    public Advisor advisor() {
+        return ready ? advisor : null;
+    }
+
+    /**
+     * 启动后在后台增量更新索引，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofVirtual().name("knowledge-index").start(this::reindex);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        vectorStore.close();
+    }
+
+    /**
+     * 定期重新扫描，只处理新增、修改和删除的文件
+     */
+    @Scheduled(fixedDelayString = "${ai-demo.rag.reindex-interval:10m}", initialDelayString = "${ai-demo.rag.reindex-interval:10m}")
+    public synchronized void reindex() {
+        Map<String, Resource> files = scan();
+        boolean changed = false;
+
+        for (Map.Entry<String, IndexedFile> entry : new ArrayList<>(manifest.entrySet())) {
+            if (!files.containsKey(entry.getKey())) {
+                vectorStore.delete(entry.getValue().ids());
+                manifest.remove(entry.getKey());
+                changed = true;
+                log.info("知识库移除文件: {}", entry.getKey());
+            }
+        }
+
+        for (Map.Entry<String, Resource> entry : files.entrySet()) {
+            String path = entry.getKey();
+            try {
+                byte[] content = entry.getValue().getContentAsByteArray();
+                String hash = sha256(content);
+                IndexedFile indexed = manifest.get(path);
+                if (indexed != null && indexed.hash().equals(hash)) {
+                    continue;
+                }
+                List<Document> chunks = split(path, hash, entry.getValue());
+                // 先写入新片段再删除旧片段，向量化失败时旧内容仍可检索
+                vectorStore.add(chunks);
+                if (indexed != null) {
+                    vectorStore.delete(indexed.ids());
+                }
+                manifest.put(path, new IndexedFile(hash, chunks.stream().map(Document::getId).toList()));
+                changed = true;
+                log.info("知识库{}文件: {}，{}个片段", indexed == null ? "新增" : "更新", path, chunks.size());
+            } catch (Exception e) {
+                // 单个文件失败不影响其他文件，下次扫描时重试
+                log.warn("知识库索引文件失败: {}: {}", path, e.getMessage());
+            }
+        }
+
+        if (changed) {
+            save();
+        }
+        ready = !manifest.isEmpty();
+    }
+
+    private Map<String, Resource> scan() {
+        Map<String, Resource> files = new HashMap<>();
+        Path baseDir = Path.of(properties.getBaseDir()).toAbsolutePath().normalize();
+        if (!Files.isDirectory(baseDir)) {
+            log.warn("知识库目录不存在: {}", baseDir);
+            return files;
+        }
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        for (String include : properties.getIncludes()) {
+            try {
+                for (Resource resource : resolver.getResources("file:" + baseDir + "/" + include)) {
+                    Path file = resource.getFile().toPath().toAbsolutePath().normalize();
+                    files.put(baseDir.relativize(file).toString().replace(File.separatorChar, '/'), resource);
+                }
+            } catch (IOException e) {
+                log.warn("扫描知识库文件失败: {}: {}", include, e.getMessage());
+            }
+        }
+        return files;
+    }
+
+    /**
+     * 按Markdown标题切分后再按token数切片，片段开头带上来源和标题，检索时有更多上下文
+     */
+    private List<Document> split(String path, String hash, Resource resource) {
+        MarkdownDocumentReader reader = new MarkdownDocumentReader(resource, MarkdownDocumentReaderConfig.builder()
+                .withHorizontalRuleCreateDocument(true)
+                .withIncludeCodeBlock(true)
+                .withIncludeBlockquote(true)
+                .withAdditionalMetadata("source", path)
+                .build());
+        List<Document> sections = splitter.apply(reader.get());
+        List<Document> chunks = new ArrayList<>(sections.size());
+        for (int i = 0; i < sections.size(); i++) {
+            Document section = sections.get(i);
+            Object title = section.getMetadata().get("title");
+            String header = title != null ? "【" + path + " · " + title + "】\n" : "【" + path + "】\n";
+            // 片段ID由路径、内容哈希和序号决定，同一内容重复索引时ID不变
+            String id = UUID.nameUUIDFromBytes((path + '#' + hash + '#' + i).getBytes()).toString();
+            chunks.add(new Document(id, header + section.getText(), section.getMetadata()));
+        }
+        return chunks;
+    }
+
+    /**
+     * 文件清单只在向量索引有效时使用，索引被清空时全部重新建立
+     */
+    private void loadManifest() {
+        File manifestFile = Path.of(properties.getIndexDir()).resolve(MANIFEST_FILE).toFile();
+        if (vectorStore.size() == 0 || !manifestFile.isFile()) {
+            return;
+        }
+        try {
+            manifest = new HashMap<>(objectMapper.readValue(manifestFile, new TypeReference<Map<String, IndexedFile>>() {}));
+            ready = !manifest.isEmpty();
+            log.info("已加载知识库索引: {}个文件，{}个片段", manifest.size(), vectorStore.size());
+        } catch (IOException e) {
+            log.warn("加载知识库文件清单失败，将重新建立: {}", e.getMessage());
+        }
+    }
+
+    private void save() {
+        Path dir = Path.of(properties.getIndexDir());
+        try {
+            Files.createDirectories(dir);
+            vectorStore.save();
+            // 先写临时文件再替换，避免中途退出留下不完整的清单
+            Path manifestTmp = dir.resolve(MANIFEST_FILE + ".tmp");
+            objectMapper.writeValue(manifestTmp.toFile(), manifest);
+            Files.move(manifestTmp, dir.resolve(MANIFEST_FILE), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("保存知识库索引失败: {}", e.getMessage());
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 已索引的文件
+     * @param hash 内容哈希
+     * @param ids 片段ID
+     */
+    record IndexedFile(String hash, List<String> ids) {
+    }
+}
@@ -0,0 +1,144 @@
+package com.aioverview.backend.aidemo.service.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶限流器
+ * 采用GCRA（通用信元速率算法）表示令牌桶：每个key只保存一个long，即"理论到达时间"(TAT)，
+ * 通过CAS更新，不需要加锁，也不经过Spring Cache。
+ * 桶容量为capacity，每隔 period/capacity 补充一个令牌。
+ * 跟踪的key数量有上限：达到上限后新key共用一个溢出桶，避免不断更换来源地址的客户端撑大内存。
+ */
+public class TokenBucketRateLimiter {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * key数量达到上限时的清理间隔；清理需要遍历整个map，无论请求多频繁都不超过这个频率
+     */
+    private static final long FULL_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * 已被清理的桶的标记值，并发获取读到它时重新建桶
+     */
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final int maxKeys;
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    /**
+     * key数量达到上限后，新key共用的桶；不在map中，不会被清理
+     */
+    private final AtomicLong overflow = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param maxKeys 保留的最大key数量，达到后每秒最多清理一次已回满的桶，仍然满时新key共用溢出桶
+     */
+    public TokenBucketRateLimiter(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * 尝试获取一个令牌
+     * @param key 限流维度，如"客户端IP+接口"
+     * @param capacity 桶容量（允许的突发请求数）
+     * @param periodNanos 补满整桶所需时间（纳秒）
+     * @return 0表示放行；大于0表示被限流，值为需要等待的纳秒数
+     */
+    public long tryAcquire(String key, int capacity, long periodNanos) {
+        long now = System.nanoTime();
+        long interval = Math.max(1, periodNanos / capacity);
+        long burstWindow = interval * capacity;
+
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                maybeSweep(now);
+            }
+            // 并发新建可能略微超过上限，超出量不超过并发请求数
+            bucket = buckets.size() < maxKeys ? buckets.computeIfAbsent(key, k -> new AtomicLong(now)) : overflow;
+        }
+
+        long waitNanos;
+        while (true) {
+            long tat = bucket.get();
+            if (tat == RETIRED) {
+                // 桶刚被清理，换成新桶（回满的桶与新桶等价）
+                bucket = buckets.compute(key, (k, current) ->
+                        current == null || current.get() == RETIRED ? new AtomicLong(now) : current);
+                continue;
+            }
+            // 桶已回满时，理论到达时间从当前时刻算起
+            long base = tat - now < 0 ? now : tat;
+            long next = base + interval;
+            waitNanos = next - now - burstWindow;
+            if (waitNanos > 0) {
+                break;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                waitNanos = 0;
+                break;
+            }
+        }
+
+        maybeSweep(now);
+        return waitNanos;
+    }
+
+    /**
+     * 退还一个令牌，用于后面的限流维度拒绝了请求时撤销已扣的令牌
+     * 参数与获取时相同；桶已回满或已被清理时不做处理
+     */
+    public void release(String key, int capacity, long periodNanos) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        long interval = Math.max(1, periodNanos / capacity);
+        long now = System.nanoTime();
+        while (true) {
+            long tat = bucket.get();
+            if (tat == RETIRED || tat - now <= 0) {
+                return;
+            }
+            long previous = tat - interval;
+            if (bucket.compareAndSet(tat, previous - now < 0 ? now : previous)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 当前跟踪的key数量
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * 定期清理已回满的桶：回满的桶与新建的桶等价，删除不会改变限流结果
+     * 先用CAS把未被修改过的回满桶标记为已清理再移除，正在对同一个桶做CAS的请求会失败并换用新桶，
+     * 不会把令牌扣在已移除的桶上
+     */
+    private void maybeSweep(long now) {
+        long last = lastSweep.get();
+        long interval = buckets.size() >= maxKeys ? FULL_SWEEP_INTERVAL_NANOS : SWEEP_INTERVAL_NANOS;
+        if (now - last < interval) {
+            return;
+        }
+        if (!lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+            AtomicLong bucket = entry.getValue();
+            long tat = bucket.get();
+            if (tat != RETIRED && now - tat >= 0 && bucket.compareAndSet(tat, RETIRED)) {
+                buckets.remove(entry.getKey(), bucket);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.aioverview.backend.aidemo.service.rollup;
+
+import com.aioverview.backend.aidemo.dao.VisitorStatsRollupMapper;
+import com.aioverview.backend.aidemo.service.partition.VisitorStatsPartitions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 访客统计汇总服务
+ * 按访问记录ID增量地把原始记录累加到小时/天汇总表，并记录已汇总到的ID（水位）。
+ * 写入管道每次刷盘后调用一次；启动时在后台线程中按同样的方式回填历史数据。
+ * 查询时汇总表加上水位之后的原始记录即为完整结果，因此回填过程中查询结果也是准确的。
+ */
+@Service
+@Slf4j
+public class VisitorStatsRollupService {
+
+    private final VisitorStatsRollupMapper rollupMapper;
+    private final VisitorStatsPartitions partitions;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Counter rolledRows;
+
+    public VisitorStatsRollupService(VisitorStatsRollupMapper rollupMapper,
+                                     VisitorStatsPartitions partitions,
+                                     TransactionTemplate transactionTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${ai-demo.visitor-rollup.chunk-size:50000}") int chunkSize) {
+        this.rollupMapper = rollupMapper;
+        this.partitions = partitions;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.rolledRows = Counter.builder("visitor.rollup.rows")
+                .description("已累加到汇总表的原始访问记录数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 把水位之后的所有原始记录累加到汇总表，每个分块一个事务
+     * @return 本次汇总的记录数
+     */
+    public long rollUpPending() {
+        lock.lock();
+        try {
+            long total = 0;
+            long rolled;
+            while ((rolled = rollUpChunk()) > 0) {
+                total += rolled;
+            }
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 汇总一个分块：读取水位、累加、推进水位在同一事务中完成
+     */
+    private long rollUpChunk() {
+        List<String> tables = partitions.all();
+        Long rolled = transactionTemplate.execute(status -> {
+            long watermark = rollupMapper.selectWatermark();
+            long maxId = rollupMapper.selectMaxVisitId(tables);
+            if (maxId <= watermark) {
+                return 0L;
+            }
+            long toId = Math.min(maxId, watermark + chunkSize);
+            rollupMapper.rollUpHourly(watermark, toId, tables);
+            rollupMapper.rollUpDaily(watermark, toId, tables);
+            rollupMapper.updateWatermark(toId);
+            return toId - watermark;
+        });
+        long count = rolled != null ? rolled : 0;
+        rolledRows.increment(count);
+        return count;
+    }
+
+    /**
+     * 获取已汇总到的记录ID
+     * @return 水位，不大于该ID的记录都已计入汇总表
+     */
+    public long watermark() {
+        return rollupMapper.selectWatermark();
+    }
+
+    /**
+     * 启动后在后台回填尚未汇总的历史数据
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Thread thread = new Thread(() -> {
+            try {
+                long start = System.currentTimeMillis();
+                long rolled = rollUpPending();
+                if (rolled > 0) {
+                    log.info("访客统计汇总回填完成: {} 条记录, 耗时 {} ms", rolled, System.currentTimeMillis() - start);
+                }
+            } catch (Exception e) {
+                log.error("访客统计汇总回填失败", e);
+            }
+        }, "visitor-rollup-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,204 @@
+package com.aioverview.backend.aidemo.service.stats;
+
+import com.aioverview.backend.aidemo.dao.VisitorStatsMapper;
+import com.aioverview.backend.aidemo.model.VisitorStats;
+import com.aioverview.backend.aidemo.model.VisitorStatsSummary;
+import com.aioverview.backend.aidemo.service.partition.VisitorStatsPartitions;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 内存实时访问计数
+ * 启动时从SQLite汇总表初始化，之后随访问记录累加（LongAdder分段计数，写入无竞争）。
+ * 看板汇总数据从不可变快照读取，快照最多每 refresh-interval 重建一次，重建只读内存，不访问数据库。
+ */
+@Component
+@Slf4j
+public class LiveVisitorStats {
+
+    private static final int MAX_SNAPSHOTS = 32;
+
+    private final VisitorStatsMapper visitorStatsMapper;
+    private final VisitorStatsPartitions partitions;
+    private final long refreshIntervalNanos;
+    private final int retentionDays;
+    private final int recentCapacity;
+
+    private final LongAdder total = new LongAdder();
+    private final ConcurrentHashMap<DayPage, LongAdder> dayPageCounts = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<VisitorStats> recentVisits = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger recentSize = new AtomicInteger();
+    private final ConcurrentHashMap<SnapshotKey, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    public LiveVisitorStats(VisitorStatsMapper visitorStatsMapper,
+                            VisitorStatsPartitions partitions,
+                            @Value("${ai-demo.live-stats.refresh-interval:5s}") Duration refreshInterval,
+                            @Value("${ai-demo.live-stats.retention-days:90}") int retentionDays,
+                            @Value("${ai-demo.live-stats.recent-capacity:200}") int recentCapacity) {
+        this.visitorStatsMapper = visitorStatsMapper;
+        this.partitions = partitions;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.retentionDays = retentionDays;
+        this.recentCapacity = recentCapacity;
+    }
+
+    /**
+     * 从数据库初始化计数器
+     */
+    @PostConstruct
+    public void seed() {
+        Long totalVisits = visitorStatsMapper.getTotalVisits(partitions.all());
+        total.add(totalVisits != null ? totalVisits : 0);
+
+        LocalDate today = LocalDate.now();
+        LocalDate startDate = today.minusDays(retentionDays);
+        List<Map<String, Object>> rows = visitorStatsMapper.countByDateAndPage(startDate.toString(),
+                partitions.between(startDate, today));
+        for (Map<String, Object> row : rows) {
+            DayPage key = new DayPage(LocalDate.parse((String) row.get("date")),
+                    (String) row.get("pagePath"), (String) row.get("pageName"));
+            dayPageCounts.computeIfAbsent(key, k -> new LongAdder())
+                    .add(((Number) row.get("visitCount")).longValue());
+        }
+
+        // 数据库按时间倒序返回，这里保持队头为最新
+        for (VisitorStats visit : partitions.recentVisits(recentCapacity)) {
+            recentVisits.addLast(visit);
+            recentSize.incrementAndGet();
+        }
+        log.info("实时访问计数已初始化: 总访问量 {}, 页面-日期计数 {} 个", total.sum(), dayPageCounts.size());
+    }
+
+    /**
+     * 记录一次已接受的访问
+     * @param visit 访问记录（visitTime已设置）
+     */
+    public void record(VisitorStats visit) {
+        total.increment();
+        DayPage key = new DayPage(visit.getVisitTime().toLocalDate(), visit.getPagePath(), visit.getPageName());
+        LongAdder counter = dayPageCounts.get(key);
+        if (counter == null) {
+            counter = dayPageCounts.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+
+        recentVisits.addFirst(visit);
+        if (recentSize.incrementAndGet() > recentCapacity && recentVisits.pollLast() != null) {
+            recentSize.decrementAndGet();
+        }
+    }
+
+    /**
+     * 是否可以由内存数据回答该查询
+     */
+    public boolean supports(int days, int recentLimit) {
+        return days >= 0 && days <= retentionDays && recentLimit >= 0 && recentLimit <= recentCapacity;
+    }
+
+    /**
+     * 获取汇总数据快照
+     * @param days 统计天数范围
+     * @param recentLimit 最近记录数量
+     * @return 不可变的汇总数据，最多落后 refresh-interval
+     */
+    public VisitorStatsSummary getSummary(int days, int recentLimit) {
+        SnapshotKey key = new SnapshotKey(days, recentLimit);
+        long now = System.nanoTime();
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot != null && now - snapshot.builtAt < refreshIntervalNanos) {
+            return snapshot.summary;
+        }
+        if (snapshots.size() >= MAX_SNAPSHOTS) {
+            snapshots.clear();
+        }
+        // 同一参数的并发请求只有一个线程重建
+        return snapshots.compute(key, (k, current) ->
+                current != null && now - current.builtAt < refreshIntervalNanos
+                        ? current
+                        : new Snapshot(System.nanoTime(), build(days, recentLimit))).summary;
+    }
+
+    private VisitorStatsSummary build(int days, int recentLimit) {
+        LocalDate today = LocalDate.now();
+        LocalDate startDate = today.minusDays(days);
+        LocalDate retainFrom = today.minusDays(retentionDays);
+
+        Map<PagePath, Long> byPage = new HashMap<>();
+        Map<LocalDate, Long> byDate = new TreeMap<>();
+        Iterator<Map.Entry<DayPage, LongAdder>> iterator = dayPageCounts.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<DayPage, LongAdder> entry = iterator.next();
+            DayPage dayPage = entry.getKey();
+            if (dayPage.date.isBefore(retainFrom)) {
+                // 超出保留期的计数不再需要
+                iterator.remove();
+                continue;
+            }
+            if (dayPage.date.isBefore(startDate) || dayPage.date.isAfter(today)) {
+                continue;
+            }
+            long count = entry.getValue().sum();
+            byPage.merge(new PagePath(dayPage.pagePath, dayPage.pageName), count, Long::sum);
+            byDate.merge(dayPage.date, count, Long::sum);
+        }
+
+        List<Map<String, Object>> pageStats = new ArrayList<>(byPage.size());
+        byPage.entrySet().stream()
+                .sorted(Map.Entry.<PagePath, Long>comparingByValue(Comparator.reverseOrder()))
+                .forEach(entry -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("pagePath", entry.getKey().pagePath);
+                    row.put("pageName", entry.getKey().pageName);
+                    row.put("visitCount", entry.getValue());
+                    pageStats.add(Collections.unmodifiableMap(row));
+                });
+
+        List<Map<String, Object>> dateStats = new ArrayList<>(byDate.size());
+        byDate.forEach((date, count) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("date", date.toString());
+            row.put("visitCount", count);
+            dateStats.add(Collections.unmodifiableMap(row));
+        });
+
+        List<VisitorStats> recent = new ArrayList<>(recentLimit);
+        for (VisitorStats visit : recentVisits) {
+            if (recent.size() >= recentLimit) {
+                break;
+            }
+            recent.add(visit);
+        }
+
+        return new VisitorStatsSummary(total.sum(), List.copyOf(pageStats), List.copyOf(dateStats), List.copyOf(recent));
+    }
+
+    private record DayPage(LocalDate date, String pagePath, String pageName) {
+    }
+
+    private record PagePath(String pagePath, String pageName) {
+    }
+
+    private record SnapshotKey(int days, int recentLimit) {
+    }
+
+    private record Snapshot(long builtAt, VisitorStatsSummary summary) {
+    }
+}
@@ -0,0 +1,415 @@
+package com.aioverview.backend.aidemo.service.strategy;
+
+import com.aioverview.backend.aidemo.config.ChatRoutingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 多模型路由
+ * 按服务商记录平滑延迟和错误率，优先使用用户指定的模型，否则选择延迟最低的健康模型；
+ * 连续失败或错误率过高时熔断，调用失败自动切换到下一个模型；
+ * 首选模型迟迟不返回时向下一个模型发出对冲请求，先返回者胜出，另一个被取消。
+ * 每个服务商有并发上限，满载的服务商被跳过；所有候选都满载时同步调用短暂排队，仍无余量则快速失败。
+ */
+@Component
+@Slf4j
+public class ChatModelRouter {
+
+    private static final String NO_PROVIDER = "没有可用的模型";
+
+    private final ChatModelStrategyFactory strategyFactory;
+    private final ChatRoutingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ProviderHealth> health = new HashMap<>();
+    private final Map<String, Semaphore> bulkheads = new HashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ChatModelRouter(ChatModelStrategyFactory strategyFactory,
+                           ChatRoutingProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.strategyFactory = strategyFactory;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        for (ChatModelStrategy strategy : strategyFactory.getStrategies()) {
+            ProviderHealth providerHealth = new ProviderHealth(properties);
+            health.put(strategy.getModelName(), providerHealth);
+            Gauge.builder("llm.router.latency.ewma", providerHealth, ProviderHealth::latencyMillis)
+                    .description("平滑后的调用延迟（毫秒），-1表示还没有样本")
+                    .tag("provider", strategy.getModelName())
+                    .register(meterRegistry);
+            Gauge.builder("llm.router.error.rate", providerHealth, ProviderHealth::errorRate)
+                    .description("平滑后的错误率")
+                    .tag("provider", strategy.getModelName())
+                    .register(meterRegistry);
+            Gauge.builder("llm.router.circuit.state", providerHealth, h -> h.state().ordinal())
+                    .description("熔断状态：0关闭，1半开，2打开")
+                    .tag("provider", strategy.getModelName())
+                    .register(meterRegistry);
+
+            int limit = properties.getMaxConcurrent()
+                    .getOrDefault(strategy.getModelName(), properties.getDefaultMaxConcurrent());
+            Semaphore bulkhead = new Semaphore(limit, true);
+            bulkheads.put(strategy.getModelName(), bulkhead);
+            Gauge.builder("llm.router.inflight", bulkhead, b -> limit - b.availablePermits())
+                    .description("正在进行的调用数")
+                    .tag("provider", strategy.getModelName())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 同步调用模型
+     * @param requestedModel 用户指定的模型，可为null
+     * @param request 使用给定ChatClient发起的调用
+     * @return 最先成功返回的结果
+     */
+    public String call(String requestedModel, Function<ChatClient, String> request) {
+        Deque<ChatModelStrategy> remaining = new ArrayDeque<>(rank(requestedModel));
+        ExecutorCompletionService<String> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<String>, Attempt> running = new HashMap<>();
+        RuntimeException lastError = null;
+        boolean hedged = false;
+        try {
+            List<ChatModelStrategy> saturated = new ArrayList<>();
+            Lease lease = tryLease(remaining, saturated);
+            if (lease == null && !saturated.isEmpty()) {
+                lease = awaitLease(saturated.get(0), remaining);
+            }
+            if (lease == null) {
+                throw saturated.isEmpty() ? new IllegalStateException(NO_PROVIDER) : busy();
+            }
+            start(lease, initialReason(lease.strategy, requestedModel), request, completion, running);
+            while (!running.isEmpty()) {
+                Future<String> done;
+                if (properties.getHedge().isEnabled() && !hedged && running.size() == 1 && !remaining.isEmpty()) {
+                    done = completion.poll(hedgeDelayNanos(running.values().iterator().next()), TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        hedged = launch(remaining, "hedge", request, completion, running);
+                        continue;
+                    }
+                } else {
+                    done = completion.take();
+                }
+                Attempt attempt = running.remove(done);
+                try {
+                    String result = done.get();
+                    if (hedged) {
+                        meterRegistry.counter("llm.router.hedges",
+                                "outcome", "hedge".equals(attempt.reason) ? "hedge_won" : "primary_won").increment();
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    lastError = e.getCause() instanceof RuntimeException runtime
+                            ? runtime : new IllegalStateException(e.getCause());
+                    log.warn("模型 {} 调用失败: {}", attempt.strategy.getModelName(), lastError.getMessage());
+                    if (running.isEmpty() && !launch(remaining, "failover", request, completion, running)) {
+                        break;
+                    }
+                }
+            }
+            throw lastError != null ? lastError : new IllegalStateException(NO_PROVIDER);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("模型调用被中断", e);
+        } finally {
+            running.forEach((future, attempt) -> attempt.abandon(future));
+        }
+    }
+
+    /**
+     * 流式调用模型
+     * 只有在收到第一个片段之前失败才会切换模型，已输出部分内容后的错误直接返回给调用方
+     * @param requestedModel 用户指定的模型，可为null
+     * @param request 使用给定ChatClient发起的流式调用
+     * @return 内容片段流
+     */
+    public Flux<String> stream(String requestedModel, Function<ChatClient, Flux<String>> request) {
+        return Flux.defer(() -> streamFrom(new ArrayDeque<>(rank(requestedModel)), requestedModel, null, request, null));
+    }
+
+    private Flux<String> streamFrom(Deque<ChatModelStrategy> remaining, String requestedModel, String reason,
+                                    Function<ChatClient, Flux<String>> request, Throwable lastError) {
+        List<ChatModelStrategy> saturated = new ArrayList<>();
+        Lease lease = tryLease(remaining, saturated);
+        if (lease == null) {
+            if (lastError != null) {
+                return Flux.error(lastError);
+            }
+            return Flux.error(saturated.isEmpty() ? new IllegalStateException(NO_PROVIDER) : busy());
+        }
+        ChatModelStrategy strategy = lease.strategy;
+        ProviderHealth providerHealth = health.get(strategy.getModelName());
+        recordDecision(strategy, reason != null ? reason : initialReason(strategy, requestedModel));
+        AtomicBoolean emitted = new AtomicBoolean();
+        AtomicLong startedAt = new AtomicLong();
+        return Flux.defer(() -> {
+                    startedAt.set(System.nanoTime());
+                    return request.apply(strategy.getChatClient());
+                })
+                .doOnNext(chunk -> {
+                    // 收到第一个片段即可判定服务商可用；延迟等流结束后按完整耗时记录，与同步调用口径一致
+                    if (emitted.compareAndSet(false, true)) {
+                        providerHealth.onSuccess(-1);
+                    }
+                })
+                .doOnComplete(() -> {
+                    long latency = System.nanoTime() - startedAt.get();
+                    if (emitted.compareAndSet(false, true)) {
+                        providerHealth.onSuccess(latency);
+                    } else {
+                        providerHealth.recordLatency(latency);
+                    }
+                })
+                .doOnCancel(() -> {
+                    if (!emitted.get()) {
+                        providerHealth.release();
+                    }
+                })
+                .doFinally(signal -> lease.release.run())
+                .onErrorResume(error -> {
+                    onFailure(strategy, providerHealth);
+                    if (emitted.get()) {
+                        return Flux.error(error);
+                    }
+                    log.warn("模型 {} 流式调用失败: {}", strategy.getModelName(), error.getMessage());
+                    return streamFrom(remaining, requestedModel, "failover", request, error);
+                });
+    }
+
+    /**
+     * 候选模型排序：可用且未熔断的模型按平滑延迟升序，用户指定的模型排在最前
+     */
+    List<ChatModelStrategy> rank(String requestedModel) {
+        long now = System.nanoTime();
+        List<ChatModelStrategy> ranked = new ArrayList<>();
+        for (ChatModelStrategy strategy : strategyFactory.getStrategies()) {
+            if (strategy.isAvailable() && health.get(strategy.getModelName()).isRoutable(now)) {
+                ranked.add(strategy);
+            }
+        }
+        ranked.sort(Comparator.comparingDouble(strategy -> health.get(strategy.getModelName()).score()));
+        if (properties.isHonorRequestedModel() && requestedModel != null) {
+            for (int i = 0; i < ranked.size(); i++) {
+                if (ranked.get(i).getModelName().equalsIgnoreCase(requestedModel)) {
+                    ranked.add(0, ranked.remove(i));
+                    break;
+                }
+            }
+        }
+        return ranked;
+    }
+
+    private boolean launch(Deque<ChatModelStrategy> remaining, String reason,
+                           Function<ChatClient, String> request,
+                           ExecutorCompletionService<String> completion,
+                           Map<Future<String>, Attempt> running) {
+        Lease lease = tryLease(remaining, new ArrayList<>());
+        if (lease == null) {
+            return false;
+        }
+        start(lease, reason, request, completion, running);
+        return true;
+    }
+
+    private void start(Lease lease, String reason, Function<ChatClient, String> request,
+                       ExecutorCompletionService<String> completion,
+                       Map<Future<String>, Attempt> running) {
+        recordDecision(lease.strategy, reason);
+        Attempt attempt = new Attempt(lease, reason, request);
+        try {
+            running.put(completion.submit(attempt), attempt);
+        } catch (RuntimeException e) {
+            health.get(lease.strategy.getModelName()).release();
+            lease.release.run();
+            throw e;
+        }
+    }
+
+    /**
+     * 非阻塞地取出第一个有并发余量且未熔断的候选模型，满载的模型留在候选列表中并记入 saturated
+     */
+    private Lease tryLease(Deque<ChatModelStrategy> remaining, List<ChatModelStrategy> saturated) {
+        long now = System.nanoTime();
+        Iterator<ChatModelStrategy> iterator = remaining.iterator();
+        while (iterator.hasNext()) {
+            ChatModelStrategy strategy = iterator.next();
+            Semaphore bulkhead = bulkheads.get(strategy.getModelName());
+            if (!bulkhead.tryAcquire()) {
+                saturated.add(strategy);
+                meterRegistry.counter("llm.router.saturated", "provider", strategy.getModelName()).increment();
+                continue;
+            }
+            iterator.remove();
+            if (health.get(strategy.getModelName()).tryAcquire(now)) {
+                return new Lease(strategy, releaseOnce(bulkhead));
+            }
+            bulkhead.release();
+        }
+        return null;
+    }
+
+    /**
+     * 所有候选都满载时，在首选模型上排队等待 queueTimeout
+     */
+    private Lease awaitLease(ChatModelStrategy strategy, Deque<ChatModelStrategy> remaining) throws InterruptedException {
+        remaining.remove(strategy);
+        Semaphore bulkhead = bulkheads.get(strategy.getModelName());
+        if (!bulkhead.tryAcquire(properties.getQueueTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+            return null;
+        }
+        if (health.get(strategy.getModelName()).tryAcquire(System.nanoTime())) {
+            return new Lease(strategy, releaseOnce(bulkhead));
+        }
+        bulkhead.release();
+        return null;
+    }
+
+    private static Runnable releaseOnce(Semaphore bulkhead) {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        };
+    }
+
+    private ProviderBusyException busy() {
+        return new ProviderBusyException("模型服务繁忙，请稍后重试");
+    }
+
+    private String initialReason(ChatModelStrategy strategy, String requestedModel) {
+        return properties.isHonorRequestedModel() && strategy.getModelName().equalsIgnoreCase(requestedModel)
+                ? "requested" : "fastest";
+    }
+
+    private void recordDecision(ChatModelStrategy strategy, String reason) {
+        meterRegistry.counter("llm.router.decisions", "provider", strategy.getModelName(), "reason", reason)
+                .increment();
+    }
+
+    private void onFailure(ChatModelStrategy strategy, ProviderHealth providerHealth) {
+        if (providerHealth.onFailure(System.nanoTime())) {
+            log.warn("模型 {} 已熔断 {} 秒", strategy.getModelName(), properties.getOpenDuration().toSeconds());
+        }
+    }
+
+    private long hedgeDelayNanos(Attempt attempt) {
+        ChatRoutingProperties.Hedge hedge = properties.getHedge();
+        double latencyMillis = health.get(attempt.strategy.getModelName()).latencyMillis();
+        if (latencyMillis < 0) {
+            return hedge.getInitialDelay().toNanos();
+        }
+        long delay = (long) (latencyMillis * hedge.getLatencyMultiplier() * 1_000_000);
+        return Math.max(delay, hedge.getMinDelay().toNanos());
+    }
+
+    /**
+     * 所有服务商正在进行的调用数（对冲请求计为两次）
+     */
+    public int inflight() {
+        int total = 0;
+        for (Map.Entry<String, Semaphore> entry : bulkheads.entrySet()) {
+            int limit = properties.getMaxConcurrent()
+                    .getOrDefault(entry.getKey(), properties.getDefaultMaxConcurrent());
+            total += limit - entry.getValue().availablePermits();
+        }
+        return total;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 一次对单个模型的调用，在虚拟线程上执行
+     */
+    private final class Attempt implements Callable<String> {
+
+        private final Lease lease;
+        private final ChatModelStrategy strategy;
+        private final String reason;
+        private final Function<ChatClient, String> request;
+        private volatile boolean abandoned;
+        /**
+         * 开始执行或在开始前被放弃时置位，二者只有一方成功，由成功的一方归还名额
+         */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private Attempt(Lease lease, String reason, Function<ChatClient, String> request) {
+            this.lease = lease;
+            this.strategy = lease.strategy;
+            this.reason = reason;
+            this.request = request;
+        }
+
+        @Override
+        public String call() {
+            if (!claimed.compareAndSet(false, true)) {
+                throw new CancellationException();
+            }
+            ProviderHealth providerHealth = health.get(strategy.getModelName());
+            long start = System.nanoTime();
+            try {
+                String result = request.apply(strategy.getChatClient());
+                providerHealth.onSuccess(System.nanoTime() - start);
+                return result;
+            } catch (RuntimeException e) {
+                if (abandoned) {
+                    providerHealth.release();
+                } else {
+                    onFailure(strategy, providerHealth);
+                }
+                throw e;
+            } finally {
+                lease.release.run();
+            }
+        }
+
+        /**
+         * 放弃调用并取消任务
+         * 还没开始执行的任务被取消后不会再运行，并发名额和半开探测名额在这里归还；
+         * 已在执行的任务被中断，由 call() 自行归还
+         */
+        void abandon(Future<String> future) {
+            abandoned = true;
+            if (claimed.compareAndSet(false, true)) {
+                health.get(strategy.getModelName()).release();
+                lease.release.run();
+            }
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * 已占用并发名额的候选模型
+     */
+    private record Lease(ChatModelStrategy strategy, Runnable release) {
+    }
+}
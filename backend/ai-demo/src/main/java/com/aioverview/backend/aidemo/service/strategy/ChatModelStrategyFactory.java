@@ -5,6 +5,7 @@ import com.aioverview.backend.aidemo.service.strategy.impl.GlmStrategy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -47,6 +48,14 @@ public class ChatModelStrategyFactory {
         return strategies.get("deepseek");
     }
     
+    /**
+     * 获取所有已注册的策略
+     * @return 策略列表
+     */
+    public Collection<ChatModelStrategy> getStrategies() {
+        return strategies.values();
+    }
+
     /**
      * 获取所有可用的策略
      * @return 可用策略列表
@@ -0,0 +1,205 @@
+package com.aioverview.backend.aidemo.service.strategy;
+
+import com.aioverview.backend.aidemo.service.prompt.SystemPrompt;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.core.Ordered;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 大模型调用指标
+ * 从 ChatResponse 元数据中读取实际模型名和token用量，按服务商、模型记录：
+ * llm.tokens（输入/输出token数，以及输入中命中服务商上下文缓存的token数，按提示词区分）、
+ * llm.prompt.cached.ratio（每次请求输入token中命中缓存的比例，按提示词区分）、
+ * llm.time.to.first.token（流式调用的首包耗时，按提示词区分）、llm.upstream.errors（上游调用失败次数）
+ * 排在advisor链的最后，统计的是对模型服务的实际调用
+ */
+@Slf4j
+class LlmMetricsAdvisor implements CallAdvisor, StreamAdvisor {
+
+    private final String provider;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Timer> timeToFirstToken = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DistributionSummary> cachedRatios = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<TokenKey, TokenCounters> tokenCounters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, Counter> errorCounters = new ConcurrentHashMap<>();
+
+    LlmMetricsAdvisor(String provider, MeterRegistry meterRegistry) {
+        this.provider = provider;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+        ChatClientResponse response;
+        try {
+            response = chain.nextCall(request);
+        } catch (RuntimeException e) {
+            recordError(e);
+            throw e;
+        }
+        ChatResponse chatResponse = response.chatResponse();
+        if (chatResponse != null) {
+            recordUsage(chatResponse.getMetadata(), promptName(request));
+        }
+        return response;
+    }
+
+    @Override
+    public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            String prompt = promptName(request);
+            AtomicBoolean first = new AtomicBoolean(true);
+            // token用量通常只在最后一个片段返回，保留最近一次非空的元数据
+            AtomicReference<ChatResponseMetadata> usage = new AtomicReference<>();
+            return chain.nextStream(request)
+                    .doOnNext(response -> {
+                        if (first.compareAndSet(true, false)) {
+                            timeToFirstToken(prompt).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        }
+                        ChatResponse chatResponse = response.chatResponse();
+                        if (chatResponse != null && hasUsage(chatResponse.getMetadata())) {
+                            usage.set(chatResponse.getMetadata());
+                        }
+                    })
+                    .doOnError(this::recordError)
+                    .doFinally(signal -> {
+                        ChatResponseMetadata metadata = usage.get();
+                        if (metadata != null) {
+                            recordUsage(metadata, prompt);
+                        }
+                    });
+        });
+    }
+
+    private static boolean hasUsage(ChatResponseMetadata metadata) {
+        Usage usage = metadata != null ? metadata.getUsage() : null;
+        return usage != null && usage.getTotalTokens() != null && usage.getTotalTokens() > 0;
+    }
+
+    /**
+     * 请求使用的提示词名称，见 {@link SystemPrompt}
+     */
+    private static String promptName(ChatClientRequest request) {
+        Object name = request.context().get(SystemPrompt.CONTEXT_KEY);
+        return name != null ? name.toString() : "other";
+    }
+
+    /**
+     * 服务商报告的命中上下文缓存的输入token数（OpenAI兼容接口的 prompt_tokens_details.cached_tokens），
+     * 未报告时返回null
+     */
+    private static Integer cachedTokens(Usage usage) {
+        if (usage.getNativeUsage() instanceof OpenAiApi.Usage nativeUsage && nativeUsage.promptTokensDetails() != null) {
+            return nativeUsage.promptTokensDetails().cachedTokens();
+        }
+        return null;
+    }
+
+    private void recordUsage(ChatResponseMetadata metadata, String prompt) {
+        if (!hasUsage(metadata)) {
+            return;
+        }
+        Usage usage = metadata.getUsage();
+        String model = metadata.getModel() != null && !metadata.getModel().isEmpty() ? metadata.getModel() : "unknown";
+        TokenCounters counters = tokenCounters.computeIfAbsent(new TokenKey(model, prompt), this::registerTokenCounters);
+        if (usage.getPromptTokens() != null) {
+            counters.prompt.increment(usage.getPromptTokens());
+        }
+        if (usage.getCompletionTokens() != null) {
+            counters.completion.increment(usage.getCompletionTokens());
+        }
+        Integer cached = cachedTokens(usage);
+        if (cached != null) {
+            counters.cached.increment(cached);
+            if (usage.getPromptTokens() != null && usage.getPromptTokens() > 0) {
+                cachedRatio(prompt).record((double) cached / usage.getPromptTokens());
+            }
+        }
+        log.debug("模型调用token用量: provider={}, model={}, prompt={}, input={}, cached={}, output={}",
+                provider, model, prompt, usage.getPromptTokens(), cached, usage.getCompletionTokens());
+    }
+
+    private Timer timeToFirstToken(String prompt) {
+        return timeToFirstToken.computeIfAbsent(prompt, name -> Timer.builder("llm.time.to.first.token")
+                .description("流式调用从发出请求到收到第一个片段的耗时")
+                .tag("provider", provider)
+                .tag("prompt", name)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofMinutes(1))
+                .register(meterRegistry));
+    }
+
+    private DistributionSummary cachedRatio(String prompt) {
+        return cachedRatios.computeIfAbsent(prompt, name -> DistributionSummary.builder("llm.prompt.cached.ratio")
+                .description("每次请求的输入token中命中服务商上下文缓存的比例")
+                .tag("provider", provider)
+                .tag("prompt", name)
+                .register(meterRegistry));
+    }
+
+    private void recordError(Throwable error) {
+        errorCounters.computeIfAbsent(error.getClass(), type -> Counter.builder("llm.upstream.errors")
+                        .description("调用模型服务失败的次数")
+                        .tag("provider", provider)
+                        .tag("exception", type.getSimpleName())
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private TokenCounters registerTokenCounters(TokenKey key) {
+        return new TokenCounters(tokenCounter(key, "prompt"), tokenCounter(key, "completion"),
+                tokenCounter(key, "cached"));
+    }
+
+    private Counter tokenCounter(TokenKey key, String type) {
+        return Counter.builder("llm.tokens")
+                .description("模型服务返回的token用量")
+                .baseUnit("tokens")
+                .tag("provider", provider)
+                .tag("model", key.model())
+                .tag("prompt", key.prompt())
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return "LlmMetricsAdvisor";
+    }
+
+    @Override
+    public int getOrder() {
+        // 紧挨着调用模型的内置advisor（LOWEST_PRECEDENCE），在其他advisor之后执行
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+
+    private record TokenKey(String model, String prompt) {
+    }
+
+    /**
+     * @param cached 输入token中命中缓存的部分，已包含在prompt中
+     */
+    private record TokenCounters(Counter prompt, Counter completion, Counter cached) {
+    }
+}
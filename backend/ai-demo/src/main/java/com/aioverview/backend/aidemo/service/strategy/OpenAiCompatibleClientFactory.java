@@ -0,0 +1,62 @@
+package com.aioverview.backend.aidemo.service.strategy;
+
+import com.aioverview.backend.aidemo.config.UpstreamHttpClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 兼容OpenAI接口的模型客户端工厂
+ * 每个模型服务商使用独立的 OpenAiApi（各自的base-url和api-key）和独立的HTTP客户端（连接上限、超时），
+ * 并挂载 {@link LlmMetricsAdvisor} 记录token用量、首包耗时和上游错误
+ */
+@Component
+public class OpenAiCompatibleClientFactory {
+
+    private final UpstreamHttpClients upstreamHttpClients;
+    private final ObjectProvider<ObservationRegistry> observationRegistryProvider;
+    private final MeterRegistry meterRegistry;
+
+    public OpenAiCompatibleClientFactory(UpstreamHttpClients upstreamHttpClients,
+                                         ObjectProvider<ObservationRegistry> observationRegistryProvider,
+                                         MeterRegistry meterRegistry) {
+        this.upstreamHttpClients = upstreamHttpClients;
+        this.observationRegistryProvider = observationRegistryProvider;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 创建聊天客户端
+     * @param provider 服务商名称，对应 ai-demo.http.providers 下的HTTP配置
+     * @param baseUrl 服务地址
+     * @param apiKey 密钥
+     * @param completionsPath 对话接口路径
+     * @param options 默认模型参数，流式调用需开启streamUsage才能统计token用量
+     * @return ChatClient实例
+     */
+    public ChatClient create(String provider, String baseUrl, String apiKey, String completionsPath, OpenAiChatOptions options) {
+        OpenAiApi openAiApi = OpenAiApi.builder()
+                .baseUrl(baseUrl)
+                .apiKey(apiKey)
+                .completionsPath(completionsPath)
+                .restClientBuilder(upstreamHttpClients.restClientBuilder(provider))
+                .webClientBuilder(upstreamHttpClients.webClientBuilder(provider))
+                .build();
+        OpenAiChatModel chatModel = OpenAiChatModel.builder()
+                .openAiApi(openAiApi)
+                .defaultOptions(options)
+                // 不在单个服务商上重试，失败后由 ChatModelRouter 切换到其他服务商
+                .retryTemplate(RetryTemplate.builder().maxAttempts(1).build())
+                .observationRegistry(observationRegistryProvider.getIfAvailable(() -> ObservationRegistry.NOOP))
+                .build();
+        return ChatClient.builder(chatModel)
+                .defaultAdvisors(new LlmMetricsAdvisor(provider, meterRegistry))
+                .build();
+    }
+}
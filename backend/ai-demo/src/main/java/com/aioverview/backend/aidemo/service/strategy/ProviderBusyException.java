@@ -0,0 +1,11 @@
+package com.aioverview.backend.aidemo.service.strategy;
+
+/**
+ * 所有候选模型的并发数都已达到上限
+ */
+public class ProviderBusyException extends RuntimeException {
+
+    public ProviderBusyException(String message) {
+        super(message);
+    }
+}
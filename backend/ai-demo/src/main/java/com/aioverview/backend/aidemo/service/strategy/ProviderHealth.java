@@ -0,0 +1,137 @@
+package com.aioverview.backend.aidemo.service.strategy;
+
+import com.aioverview.backend.aidemo.config.ChatRoutingProperties;
+
+/**
+ * 单个模型服务商的健康状况：平滑延迟、平滑错误率和熔断状态
+ * 每次模型调用只更新一次，调用频率低，直接用对象锁保证一致性
+ */
+final class ProviderHealth {
+
+    enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final ChatRoutingProperties properties;
+
+    private double latencyMillis = -1;
+    private double errorRate;
+    private long samples;
+    private int consecutiveFailures;
+    private State state = State.CLOSED;
+    private long openUntil;
+    private boolean probing;
+
+    ProviderHealth(ChatRoutingProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 是否可以参与路由（未熔断，或熔断已到期等待探测）
+     */
+    synchronized boolean isRoutable(long now) {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> now - openUntil >= 0;
+            case HALF_OPEN -> !probing;
+        };
+    }
+
+    /**
+     * 申请发起一次调用；熔断到期后只放行一个探测请求
+     */
+    synchronized boolean tryAcquire(long now) {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN && now - openUntil < 0) {
+            return false;
+        }
+        if (probing) {
+            return false;
+        }
+        state = State.HALF_OPEN;
+        probing = true;
+        return true;
+    }
+
+    /**
+     * 记录一次成功调用
+     * @param latencyNanos 调用耗时，小于0表示暂不计入延迟（流式调用在结束后由 {@link #recordLatency} 补记）
+     */
+    synchronized void onSuccess(long latencyNanos) {
+        recordLatency(latencyNanos);
+        errorRate = ewma(errorRate, 0);
+        samples++;
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+        probing = false;
+    }
+
+    /**
+     * 只记录延迟样本，不影响错误率和熔断状态
+     * @param latencyNanos 调用耗时，小于0时忽略
+     */
+    synchronized void recordLatency(long latencyNanos) {
+        if (latencyNanos >= 0) {
+            double millis = latencyNanos / 1_000_000.0;
+            latencyMillis = latencyMillis < 0 ? millis : ewma(latencyMillis, millis);
+        }
+    }
+
+    /**
+     * 记录一次失败调用
+     * @return 本次失败是否导致熔断
+     */
+    synchronized boolean onFailure(long now) {
+        errorRate = ewma(errorRate, 1);
+        samples++;
+        consecutiveFailures++;
+        boolean trip = state == State.HALF_OPEN
+                || consecutiveFailures >= properties.getFailureThreshold()
+                || (samples >= properties.getMinSamples() && errorRate >= properties.getErrorRateThreshold());
+        probing = false;
+        if (trip && state != State.OPEN) {
+            state = State.OPEN;
+            openUntil = now + properties.getOpenDuration().toNanos();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 调用被放弃（对冲失败方被取消），不计入统计，只归还探测名额
+     */
+    synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            probing = false;
+        }
+    }
+
+    /**
+     * 路由排序分值：平滑延迟，没有样本时为0（优先尝试），非关闭状态排在最后
+     */
+    synchronized double score() {
+        if (state != State.CLOSED) {
+            return Double.MAX_VALUE;
+        }
+        return Math.max(latencyMillis, 0);
+    }
+
+    synchronized double latencyMillis() {
+        return latencyMillis;
+    }
+
+    synchronized double errorRate() {
+        return errorRate;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private double ewma(double current, double sample) {
+        double alpha = properties.getEwmaAlpha();
+        return alpha * sample + (1 - alpha) * current;
+    }
+}
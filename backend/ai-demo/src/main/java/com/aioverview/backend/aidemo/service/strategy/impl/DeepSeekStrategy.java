@@ -1,8 +1,10 @@
 package com.aioverview.backend.aidemo.service.strategy.impl;
 
 import com.aioverview.backend.aidemo.service.strategy.ChatModelStrategy;
+import com.aioverview.backend.aidemo.service.strategy.OpenAiCompatibleClientFactory;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
@@ -13,9 +15,20 @@ public class DeepSeekStrategy implements ChatModelStrategy {
     
     private final ChatClient chatClient;
     
-    @Autowired
-    public DeepSeekStrategy(ChatClient.Builder chatClientBuilder) {
-        this.chatClient = chatClientBuilder.build();
+    public DeepSeekStrategy(OpenAiCompatibleClientFactory clientFactory,
+                            @Value("${spring.ai.openai.api-key}") String apiKey,
+                            @Value("${spring.ai.openai.base-url:https://api.deepseek.com}") String baseUrl,
+                            @Value("${spring.ai.openai.chat.completions-path:/v1/chat/completions}") String completionsPath,
+                            @Value("${spring.ai.openai.chat.options.model:deepseek-chat}") String model,
+                            @Value("${spring.ai.openai.chat.options.temperature:0.7}") double temperature,
+                            @Value("${spring.ai.openai.chat.options.max-tokens:8000}") int maxTokens) {
+        this.chatClient = clientFactory.create(getModelName(), baseUrl, apiKey, completionsPath, OpenAiChatOptions.builder()
+                .model(model)
+                .temperature(temperature)
+                .maxTokens(maxTokens)
+                // 流式调用时要求服务商在最后一个片段返回token用量（stream_options.include_usage）
+                .streamUsage(true)
+                .build());
     }
     
     @Override
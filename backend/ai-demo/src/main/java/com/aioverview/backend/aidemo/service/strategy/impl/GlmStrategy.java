@@ -1,7 +1,9 @@
 package com.aioverview.backend.aidemo.service.strategy.impl;
 
 import com.aioverview.backend.aidemo.service.strategy.ChatModelStrategy;
+import com.aioverview.backend.aidemo.service.strategy.OpenAiCompatibleClientFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -14,10 +16,21 @@ public class GlmStrategy implements ChatModelStrategy {
     private final ChatClient chatClient;
     private final boolean available;
     
-    public GlmStrategy(@Value("${spring.ai.glm.api-key:}") String glmKey,
-                      ChatClient.Builder chatClientBuilder) {
+    public GlmStrategy(OpenAiCompatibleClientFactory clientFactory,
+                       @Value("${spring.ai.glm.api-key:}") String glmKey,
+                       @Value("${spring.ai.glm.base-url:https://open.bigmodel.cn/api/paas/v4}") String baseUrl,
+                       @Value("${spring.ai.glm.chat.completions-path:/chat/completions}") String completionsPath,
+                       @Value("${spring.ai.glm.chat.options.model:glm-4.7-flash}") String model,
+                       @Value("${spring.ai.glm.chat.options.temperature:0.7}") double temperature,
+                       @Value("${spring.ai.glm.chat.options.max-tokens:65536}") int maxTokens) {
         if (glmKey != null && !glmKey.isEmpty() && !glmKey.startsWith("your_")) {
-            this.chatClient = chatClientBuilder.build();
+            this.chatClient = clientFactory.create(getModelName(), baseUrl, glmKey, completionsPath, OpenAiChatOptions.builder()
+                    .model(model)
+                    .temperature(temperature)
+                    .maxTokens(maxTokens)
+                    // 流式调用时要求服务商在最后一个片段返回token用量（stream_options.include_usage）
+                    .streamUsage(true)
+                    .build());
             this.available = true;
         } else {
             this.chatClient = null;
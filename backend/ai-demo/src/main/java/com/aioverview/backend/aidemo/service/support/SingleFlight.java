@@ -0,0 +1,221 @@
+package com.aioverview.backend.aidemo.service.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 请求合并（single-flight）
+ * 相同key的并发调用只会触发一次上游执行，其余调用等待并共享同一结果。
+ * 每个等待者有独立的超时；最后一个等待者离开时取消共享的上游调用。
+ * 同时提供阻塞和响应式两种用法，两者共用同一组指标但不会相互合并。
+ * @param <K> 请求键类型
+ * @param <V> 结果类型
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * 上游调用在虚拟线程中执行，等待者可以随时离开而不影响其他人
+     */
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, Flight<V>> reactiveInFlight = new ConcurrentHashMap<>();
+    private final Duration timeout;
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+    private final Counter cancelled;
+
+    /**
+     * @param name 指标标签名
+     * @param timeout 单个等待者的最长等待时间
+     * @param meterRegistry 指标注册表
+     */
+    public SingleFlight(String name, Duration timeout, MeterRegistry meterRegistry) {
+        this.timeout = timeout;
+        FunctionCounter.builder("llm.singleflight.calls", leaders, LongAdder::sum)
+                .tag("name", name)
+                .tag("role", "leader")
+                .register(meterRegistry);
+        FunctionCounter.builder("llm.singleflight.calls", followers, LongAdder::sum)
+                .tag("name", name)
+                .tag("role", "follower")
+                .register(meterRegistry);
+        Gauge.builder("llm.singleflight.coalescing.ratio", this, SingleFlight::coalescingRatio)
+                .tag("name", name)
+                .description("被合并的请求占全部请求的比例")
+                .register(meterRegistry);
+        Gauge.builder("llm.singleflight.inflight", this, f -> f.inFlight.size() + f.reactiveInFlight.size())
+                .tag("name", name)
+                .register(meterRegistry);
+        this.cancelled = Counter.builder("llm.singleflight.cancelled")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 执行或加入一次调用
+     * @param key 请求键，相同key的并发调用会被合并
+     * @param supplier 真正的上游调用
+     * @return 调用结果
+     */
+    public V execute(K key, Supplier<V> supplier) {
+        while (true) {
+            Flight<V> created = new Flight<>();
+            Flight<V> flight = inFlight.putIfAbsent(key, created);
+            if (flight == null) {
+                leaders.increment();
+                created.task = EXECUTOR.submit(() -> run(key, created, supplier));
+                return await(key, created);
+            }
+            if (flight.join()) {
+                followers.increment();
+                return await(key, flight);
+            }
+            // 该调用正在被取消，移除后重新发起
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * 响应式地执行或加入一次调用，订阅时才真正发起或加入
+     * 上游Mono只被订阅一次，结果分发给所有订阅者；某个订阅者取消或超时只影响它自己，
+     * 最后一个订阅者离开时取消上游订阅
+     * @param key 请求键，相同key的并发调用会被合并
+     * @param supplier 真正的上游调用
+     * @return 调用结果
+     */
+    public Mono<V> executeReactive(K key, Supplier<Mono<V>> supplier) {
+        return Mono.defer(() -> {
+            while (true) {
+                Flight<V> created = new Flight<>();
+                Flight<V> flight = reactiveInFlight.putIfAbsent(key, created);
+                if (flight == null) {
+                    leaders.increment();
+                    created.result.whenComplete((value, error) -> reactiveInFlight.remove(key, created));
+                    try {
+                        created.subscription = supplier.get().subscribe(
+                                created.result::complete,
+                                created.result::completeExceptionally,
+                                () -> created.result.complete(null));
+                    } catch (RuntimeException e) {
+                        created.result.completeExceptionally(e);
+                    }
+                    return awaitReactive(key, created);
+                }
+                if (flight.join()) {
+                    followers.increment();
+                    return awaitReactive(key, flight);
+                }
+                reactiveInFlight.remove(key, flight);
+            }
+        });
+    }
+
+    private Mono<V> awaitReactive(K key, Flight<V> flight) {
+        // 单个订阅者取消时不取消共享的future，由leave统一决定是否取消上游
+        return Mono.fromFuture(flight.result, true)
+                .timeout(timeout)
+                .onErrorMap(TimeoutException.class, e -> {
+                    leave(reactiveInFlight, key, flight);
+                    return new IllegalStateException("等待模型响应超时（" + timeout.toSeconds() + "s）");
+                })
+                .doOnCancel(() -> leave(reactiveInFlight, key, flight));
+    }
+
+    private void run(K key, Flight<V> flight, Supplier<V> supplier) {
+        try {
+            flight.result.complete(supplier.get());
+        } catch (Throwable t) {
+            flight.result.completeExceptionally(t);
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private V await(K key, Flight<V> flight) {
+        try {
+            return flight.result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            leave(inFlight, key, flight);
+            throw new IllegalStateException("等待模型响应超时（" + timeout.toSeconds() + "s）");
+        } catch (InterruptedException e) {
+            leave(inFlight, key, flight);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待模型响应被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 等待者提前离开；如果是最后一个则取消上游调用
+     */
+    private void leave(ConcurrentHashMap<K, Flight<V>> flights, K key, Flight<V> flight) {
+        if (flight.waiters.decrementAndGet() == 0) {
+            flights.remove(key, flight);
+            Future<?> task = flight.task;
+            if (task != null && task.cancel(true)) {
+                cancelled.increment();
+            }
+            Disposable subscription = flight.subscription;
+            if (subscription != null && !subscription.isDisposed() && !flight.result.isDone()) {
+                subscription.dispose();
+                cancelled.increment();
+            }
+            flight.result.cancel(false);
+        }
+    }
+
+    private double coalescingRatio() {
+        long leaderCount = leaders.sum();
+        long followerCount = followers.sum();
+        long total = leaderCount + followerCount;
+        return total == 0 ? 0 : (double) followerCount / total;
+    }
+
+    private static class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger(1);
+        private volatile Future<?> task;
+        private volatile Disposable subscription;
+
+        /**
+         * 仍有等待者时加入；等待者已全部离开（即将取消）时返回false
+         */
+        boolean join() {
+            int current;
+            do {
+                current = waiters.get();
+                if (current == 0) {
+                    return false;
+                }
+            } while (!waiters.compareAndSet(current, current + 1));
+            return true;
+        }
+    }
+}
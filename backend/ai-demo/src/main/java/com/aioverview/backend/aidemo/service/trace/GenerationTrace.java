@@ -0,0 +1,26 @@
+package com.aioverview.backend.aidemo.service.trace;
+
+import java.time.LocalDateTime;
+
+/**
+ * 一次提示词生成/优化的记录
+ * @param sequence 全局递增序号
+ * @param time 完成时间
+ * @param operation 操作类型：generate、generate-stream、optimize
+ * @param model 请求的模型
+ * @param task 任务描述（已截断）
+ * @param length 生成内容的字符数
+ * @param latencyMs 耗时（毫秒）
+ * @param error 失败原因，成功时为null
+ */
+public record GenerationTrace(
+        long sequence,
+        LocalDateTime time,
+        String operation,
+        String model,
+        String task,
+        int length,
+        long latencyMs,
+        String error
+) {
+}
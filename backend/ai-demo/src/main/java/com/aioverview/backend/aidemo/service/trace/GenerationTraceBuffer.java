@@ -0,0 +1,99 @@
+package com.aioverview.backend.aidemo.service.trace;
+
+import com.aioverview.backend.aidemo.config.GenerationTraceProperties;
+import com.aioverview.backend.aidemo.service.ratelimit.TokenBucketRateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 最近的提示词生成记录（无锁环形缓冲区）
+ * 写入只有一次 getAndIncrement 和一次数组写，不加锁；新记录覆盖最旧的记录。
+ * 读取时按序号校验槽位，已被覆盖或尚未写完的槽位直接跳过。
+ * 同时把每条记录输出到日志，按令牌桶限制输出速率，超出的条数在下一条日志中汇总。
+ */
+@Component
+@Slf4j
+public class GenerationTraceBuffer {
+
+    private static final String LOG_KEY = "generation-trace";
+
+    private final GenerationTraceProperties properties;
+    private final AtomicReferenceArray<GenerationTrace> slots;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final TokenBucketRateLimiter logLimiter = new TokenBucketRateLimiter(1);
+    private final LongAdder suppressed = new LongAdder();
+
+    public GenerationTraceBuffer(GenerationTraceProperties properties) {
+        this.properties = properties;
+        int capacity = Integer.highestOneBit(Math.max(1, properties.getCapacity() - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * 记录一次生成
+     * @param operation 操作类型
+     * @param model 请求的模型
+     * @param task 任务描述
+     * @param length 生成内容的字符数
+     * @param startNanos 开始时间（System.nanoTime）
+     * @param error 失败时的异常，成功时为null
+     */
+    public void record(String operation, String model, String task, int length, long startNanos, Throwable error) {
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        long seq = sequence.getAndIncrement();
+        GenerationTrace trace = new GenerationTrace(seq, LocalDateTime.now(), operation, model, abbreviate(task),
+                length, latencyMs, error != null ? String.valueOf(error.getMessage()) : null);
+        slots.set((int) (seq & mask), trace);
+        log(trace, error);
+    }
+
+    /**
+     * 最近的记录，最新的在前
+     * @param limit 最多返回的条数
+     */
+    public List<GenerationTrace> recent(int limit) {
+        long end = sequence.get();
+        long start = Math.max(0, end - slots.length());
+        List<GenerationTrace> traces = new ArrayList<>(Math.min(limit, slots.length()));
+        for (long seq = end - 1; seq >= start && traces.size() < limit; seq--) {
+            GenerationTrace trace = slots.get((int) (seq & mask));
+            if (trace != null && trace.sequence() == seq) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+
+    private void log(GenerationTrace trace, Throwable error) {
+        if (logLimiter.tryAcquire(LOG_KEY, properties.getLogCapacity(), properties.getLogPeriod().toNanos()) > 0) {
+            suppressed.increment();
+            return;
+        }
+        long skipped = suppressed.sumThenReset();
+        if (error != null) {
+            log.warn("提示词{}失败: model={}, task={}, latencyMs={}, 期间省略{}条记录",
+                    trace.operation(), trace.model(), trace.task(), trace.latencyMs(), skipped, error);
+        } else {
+            log.info("提示词{}完成: model={}, task={}, length={}, latencyMs={}, 期间省略{}条记录",
+                    trace.operation(), trace.model(), trace.task(), trace.length(), trace.latencyMs(), skipped);
+        }
+    }
+
+    private String abbreviate(String task) {
+        if (task == null || task.length() <= properties.getMaxTaskLength()) {
+            return task;
+        }
+        return task.substring(0, properties.getMaxTaskLength()) + "...";
+    }
+}
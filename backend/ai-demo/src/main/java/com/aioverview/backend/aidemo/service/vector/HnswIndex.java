@@ -0,0 +1,747 @@
+package com.aioverview.backend.aidemo.service.vector;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * HNSW近邻索引
+ * 向量单位化后按每条向量一个缩放系数量化为int8，存放在内存映射文件（或堆外内存）中，堆内只保存图结构；
+ * 相似度为量化向量的内积，即近似的余弦相似度。
+ * 删除只做标记，被删除的节点仍参与图的遍历但不出现在结果中，删除比例较高时由 compact() 重建。
+ * 查询可以并发执行，写入互斥。
+ *
+ * <p>持久化文件：vectors.bin（文件头 + 定长向量记录，随写入直接落在映射内存中）和 graph.bin（save()时整体写出）。
+ * 两个文件带有相同的代数（generation），重建索引时代数加一，加载时代数不一致说明上次重建没有完成，索引作废。
+ */
+@Slf4j
+public class HnswIndex implements Closeable {
+
+    static final String VECTORS_FILE = "vectors.bin";
+    static final String GRAPH_FILE = "graph.bin";
+
+    private static final int MAGIC = 0x484E5357;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int SCALE_BYTES = Float.BYTES;
+    private static final int MAX_LEVEL = 16;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Path directory;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelFactor;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private FileChannel channel;
+    private ByteBuffer vectors;
+    /**
+     * 与vectors同一块内存，查询时直接在其上计算内积
+     */
+    private VectorMath.Int8Store store;
+    private int capacity;
+    private int dimension;
+    private int recordBytes;
+    private int generation;
+
+    private int size;
+    private int[] levels = new int[0];
+    /**
+     * links[节点][层] = {邻居数, 邻居1, 邻居2, ...}
+     */
+    private int[][][] links = new int[0][][];
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    private HnswIndex(Path directory, int m, int efConstruction) {
+        if (m < 2 || efConstruction < m) {
+            throw new IllegalArgumentException("HNSW参数无效: m=" + m + ", efConstruction=" + efConstruction);
+        }
+        this.directory = directory;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelFactor = 1 / Math.log(m);
+    }
+
+    /**
+     * 仅在堆外内存中的索引，不持久化
+     * @param m 每层的邻居数（第0层为2m）
+     * @param efConstruction 建图时的候选集大小
+     */
+    public static HnswIndex inMemory(int m, int efConstruction) {
+        return new HnswIndex(null, m, efConstruction);
+    }
+
+    /**
+     * 打开目录中的索引，不存在或已损坏时创建空索引
+     * @param directory 索引目录
+     * @param m 每层的邻居数（第0层为2m）
+     * @param efConstruction 建图时的候选集大小
+     */
+    public static HnswIndex open(Path directory, int m, int efConstruction) throws IOException {
+        HnswIndex index = new HnswIndex(directory, m, efConstruction);
+        Files.createDirectories(directory);
+        Path vectorsFile = directory.resolve(VECTORS_FILE);
+        Path graphFile = directory.resolve(GRAPH_FILE);
+        if (Files.isRegularFile(vectorsFile) && Files.isRegularFile(graphFile)) {
+            try {
+                index.load(vectorsFile, graphFile);
+                return index;
+            } catch (IOException | RuntimeException e) {
+                log.warn("向量索引文件无效，重新建立: {}: {}", directory, e.getMessage());
+                index.reset();
+            }
+        }
+        Files.deleteIfExists(graphFile);
+        Files.deleteIfExists(vectorsFile);
+        return index;
+    }
+
+    /**
+     * 加入一条向量
+     * @return 节点序号
+     */
+    public int add(float[] vector) {
+        lock.writeLock().lock();
+        try {
+            if (dimension == 0) {
+                initDimension(vector.length);
+            } else if (vector.length != dimension) {
+                throw new IllegalArgumentException("向量维度不一致: " + vector.length + " != " + dimension);
+            }
+            int node = size;
+            ensureCapacity(node + 1);
+            Quantized quantized = quantize(vector);
+            writeRecord(node, quantized.scale(), quantized.values());
+            link(node);
+            return node;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 标记删除，节点保留在图中作为路径
+     */
+    public void delete(int node) {
+        lock.writeLock().lock();
+        try {
+            if (node >= 0 && node < size && !deleted.get(node)) {
+                deleted.set(node);
+                deletedCount++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询最相似的k个节点
+     * @param vector 查询向量
+     * @param k 返回数量
+     * @param ef 查询时的候选集大小，越大召回率越高、耗时越长
+     * @return 按相似度从高到低排列
+     */
+    public List<Neighbor> search(float[] vector, int k, int ef) {
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0) {
+                return List.of();
+            }
+            if (vector.length != dimension) {
+                throw new IllegalArgumentException("向量维度不一致: " + vector.length + " != " + dimension);
+            }
+            Quantized quantized = quantize(vector);
+            Query query = new Query(quantized.values(), quantized.scale());
+            int node = entryPoint;
+            for (int level = maxLevel; level > 0; level--) {
+                node = greedy(query, node, level);
+            }
+            // 已删除的节点会占用候选位置，按删除比例放大候选集
+            int candidates = Math.max(ef, k);
+            if (deletedCount > 0) {
+                candidates = (int) Math.min(size, Math.ceil(candidates * (double) size / Math.max(1, size - deletedCount)));
+            }
+            List<Neighbor> found = searchLayer(query, node, candidates, 0, new BitSet(size));
+            List<Neighbor> result = new ArrayList<>(Math.min(k, found.size()));
+            for (Neighbor neighbor : found) {
+                if (!deleted.get(neighbor.node())) {
+                    result.add(neighbor);
+                    if (result.size() == k) {
+                        break;
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 去掉已删除的节点并重建图，节点序号重新连续编号
+     * @return 旧序号到新序号的映射，已删除的节点为-1
+     */
+    public int[] compact() {
+        lock.writeLock().lock();
+        try {
+            int[] mapping = new int[size];
+            Arrays.fill(mapping, -1);
+            int live = size - deletedCount;
+            float[] scales = new float[live];
+            byte[][] values = new byte[live][];
+            int next = 0;
+            for (int node = 0; node < size; node++) {
+                if (!deleted.get(node)) {
+                    scales[next] = scale(node);
+                    values[next] = new byte[dimension];
+                    readValues(node, values[next]);
+                    mapping[node] = next++;
+                }
+            }
+            // 先更新代数再覆盖向量记录，中途退出时旧的图文件会因代数不一致而作废
+            generation++;
+            writeHeader();
+            clearGraph();
+            for (int node = 0; node < live; node++) {
+                writeRecord(node, scales[node], values[node]);
+                link(node);
+            }
+            return mapping;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 清空索引
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            generation++;
+            if (vectors != null) {
+                writeHeader();
+            }
+            clearGraph();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 把向量刷到磁盘并写出图结构
+     */
+    public void save() throws IOException {
+        if (directory == null) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            if (channel == null) {
+                return;
+            }
+            channel.force(false);
+            Path tmp = directory.resolve(GRAPH_FILE + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(generation);
+                out.writeInt(dimension);
+                out.writeInt(size);
+                out.writeInt(entryPoint);
+                out.writeInt(maxLevel);
+                for (int node = 0; node < size; node++) {
+                    out.writeByte(levels[node]);
+                    for (int level = 0; level <= levels[node]; level++) {
+                        int[] neighbors = links[node][level];
+                        for (int i = 0; i <= neighbors[0]; i++) {
+                            out.writeInt(neighbors[i]);
+                        }
+                    }
+                }
+                long[] words = deleted.toLongArray();
+                out.writeInt(words.length);
+                for (long word : words) {
+                    out.writeLong(word);
+                }
+            }
+            Files.move(tmp, directory.resolve(GRAPH_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 节点总数（含已删除）
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 已删除节点所占的比例
+     */
+    public double deletedRatio() {
+        lock.readLock().lock();
+        try {
+            return size == 0 ? 0 : (double) deletedCount / size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 向量维度，尚未写入任何向量时为0
+     */
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * 持久化文件的代数，每次重建或清空时加一
+     */
+    public int generation() {
+        return generation;
+    }
+
+    /**
+     * 查询结果
+     * @param node 节点序号
+     * @param score 相似度（近似余弦相似度）
+     */
+    public record Neighbor(int node, float score) {
+    }
+
+    // ---------------------------------------------------------------- 图
+
+    private void link(int node) {
+        int level = randomLevel();
+        ensureGraphCapacity(node + 1);
+        levels[node] = level;
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[1 + maxNeighbors(l)];
+        }
+        size = node + 1;
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        byte[] values = new byte[dimension];
+        readValues(node, values);
+        Query query = new Query(values, scale(node));
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedy(query, current, l);
+        }
+        BitSet visited = new BitSet(size);
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            visited.clear();
+            List<Neighbor> candidates = searchLayer(query, current, efConstruction, l, visited);
+            int[] selected = selectNeighbors(candidates, maxNeighbors(l));
+            int[] own = links[node][l];
+            own[0] = selected.length;
+            System.arraycopy(selected, 0, own, 1, selected.length);
+            for (int neighbor : selected) {
+                connect(neighbor, node, l);
+            }
+            current = candidates.getFirst().node();
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * 把node加入neighbor的邻居表，表满时重新挑选
+     */
+    private void connect(int neighbor, int node, int level) {
+        int[] list = links[neighbor][level];
+        int count = list[0];
+        if (count < list.length - 1) {
+            list[count + 1] = node;
+            list[0] = count + 1;
+            return;
+        }
+        byte[] values = new byte[dimension];
+        readValues(neighbor, values);
+        Query query = new Query(values, scale(neighbor));
+        List<Neighbor> candidates = new ArrayList<>(count + 1);
+        for (int i = 1; i <= count; i++) {
+            candidates.add(new Neighbor(list[i], query.score(list[i])));
+        }
+        candidates.add(new Neighbor(node, query.score(node)));
+        candidates.sort(Comparator.comparingDouble(Neighbor::score).reversed());
+        int[] selected = selectNeighbors(candidates, list.length - 1);
+        list[0] = selected.length;
+        System.arraycopy(selected, 0, list, 1, selected.length);
+    }
+
+    /**
+     * 启发式挑选邻居：候选与已选邻居的相似度高于与目标的相似度时跳过，使邻居分布在不同方向；
+     * 名额有剩余时再按相似度补齐被跳过的候选，保证连通性
+     * @param candidates 按相似度从高到低排列
+     */
+    private int[] selectNeighbors(List<Neighbor> candidates, int max) {
+        if (candidates.size() <= max) {
+            return candidates.stream().mapToInt(Neighbor::node).toArray();
+        }
+        int[] selected = new int[max];
+        // 已选邻居的向量留在堆内，逐个比较候选时不必重复读取
+        byte[][] selectedValues = new byte[max][];
+        float[] selectedScales = new float[max];
+        int count = 0;
+        List<Neighbor> skipped = new ArrayList<>();
+        byte[] values = new byte[dimension];
+        for (Neighbor candidate : candidates) {
+            if (count == max) {
+                break;
+            }
+            readValues(candidate.node(), values);
+            float scale = scale(candidate.node());
+            boolean diverse = true;
+            for (int i = 0; i < count; i++) {
+                if (VectorMath.dot(values, selectedValues[i], dimension) * scale * selectedScales[i] > candidate.score()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[count] = candidate.node();
+                selectedValues[count] = values;
+                selectedScales[count++] = scale;
+                values = new byte[dimension];
+            } else {
+                skipped.add(candidate);
+            }
+        }
+        for (int i = 0; i < skipped.size() && count < max; i++) {
+            selected[count++] = skipped.get(i).node();
+        }
+        return count == max ? selected : Arrays.copyOf(selected, count);
+    }
+
+    private int greedy(Query query, int start, int level) {
+        int current = start;
+        float best = query.score(current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbors = links[current][level];
+            for (int i = 1; i <= neighbors[0]; i++) {
+                float score = query.score(neighbors[i]);
+                if (score > best) {
+                    best = score;
+                    current = neighbors[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 在一层内做最佳优先搜索
+     * @return 最多ef个节点，按相似度从高到低排列
+     */
+    private List<Neighbor> searchLayer(Query query, int start, int ef, int level, BitSet visited) {
+        Comparator<Neighbor> byScore = Comparator.comparingDouble(Neighbor::score);
+        PriorityQueue<Neighbor> candidates = new PriorityQueue<>(byScore.reversed());
+        PriorityQueue<Neighbor> results = new PriorityQueue<>(byScore);
+        Neighbor first = new Neighbor(start, query.score(start));
+        visited.set(start);
+        candidates.add(first);
+        results.add(first);
+        while (!candidates.isEmpty()) {
+            Neighbor candidate = candidates.poll();
+            if (results.size() >= ef && candidate.score() < results.peek().score()) {
+                break;
+            }
+            int[] neighbors = links[candidate.node()][level];
+            for (int i = 1; i <= neighbors[0]; i++) {
+                int node = neighbors[i];
+                if (visited.get(node)) {
+                    continue;
+                }
+                visited.set(node);
+                float score = query.score(node);
+                if (results.size() < ef || score > results.peek().score()) {
+                    Neighbor neighbor = new Neighbor(node, score);
+                    candidates.add(neighbor);
+                    results.add(neighbor);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        List<Neighbor> sorted = new ArrayList<>(results);
+        sorted.sort(byScore.reversed());
+        return sorted;
+    }
+
+    private int randomLevel() {
+        double random = ThreadLocalRandom.current().nextDouble();
+        return Math.min(MAX_LEVEL, (int) (-Math.log(1 - random) * levelFactor));
+    }
+
+    private int maxNeighbors(int level) {
+        return level == 0 ? maxM0 : m;
+    }
+
+    private void ensureGraphCapacity(int required) {
+        if (levels.length < required) {
+            int newLength = Math.max(required, Math.max(16, levels.length * 2));
+            levels = Arrays.copyOf(levels, newLength);
+            links = Arrays.copyOf(links, newLength);
+        }
+    }
+
+    private void clearGraph() {
+        size = 0;
+        levels = new int[0];
+        links = new int[0][][];
+        deleted.clear();
+        deletedCount = 0;
+        entryPoint = -1;
+        maxLevel = -1;
+    }
+
+    // ---------------------------------------------------------------- 向量存储
+
+    private void initDimension(int dimension) {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("向量维度无效: " + dimension);
+        }
+        this.dimension = dimension;
+        this.recordBytes = SCALE_BYTES + dimension;
+        this.capacity = 0;
+        this.vectors = null;
+        this.store = null;
+        ensureCapacity(INITIAL_CAPACITY);
+        writeHeader();
+    }
+
+    /**
+     * 扩容时按两倍重新映射；单个映射不能超过2GB，1536维时约可容纳140万条向量
+     */
+    private void ensureCapacity(int required) {
+        if (required <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(required, Math.max(INITIAL_CAPACITY, capacity * 2));
+        long bytes = HEADER_BYTES + (long) newCapacity * recordBytes;
+        if (bytes > Integer.MAX_VALUE) {
+            newCapacity = (int) ((Integer.MAX_VALUE - HEADER_BYTES) / recordBytes);
+            if (newCapacity < required) {
+                throw new IllegalStateException("向量索引已达到单个映射文件的容量上限: " + capacity);
+            }
+            bytes = HEADER_BYTES + (long) newCapacity * recordBytes;
+        }
+        try {
+            if (directory == null) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect((int) bytes);
+                if (vectors != null) {
+                    buffer.put(0, vectors, 0, HEADER_BYTES + size * recordBytes);
+                }
+                vectors = buffer;
+            } else {
+                if (channel == null) {
+                    channel = FileChannel.open(directory.resolve(VECTORS_FILE),
+                            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                }
+                // 旧的映射由GC回收
+                vectors = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("扩展向量文件失败: " + directory, e);
+        }
+        store = VectorMath.wrap(vectors);
+        capacity = newCapacity;
+    }
+
+    private void writeHeader() {
+        vectors.putInt(0, MAGIC);
+        vectors.putInt(4, VERSION);
+        vectors.putInt(8, dimension);
+        vectors.putInt(12, generation);
+    }
+
+    private void writeRecord(int node, float scale, byte[] values) {
+        int offset = HEADER_BYTES + node * recordBytes;
+        vectors.putFloat(offset, scale);
+        vectors.put(offset + SCALE_BYTES, values);
+    }
+
+    private float scale(int node) {
+        return vectors.getFloat(HEADER_BYTES + node * recordBytes);
+    }
+
+    private void readValues(int node, byte[] target) {
+        // 绝对位置读取不修改缓冲区状态，多个查询线程可以并发读
+        vectors.get(HEADER_BYTES + node * recordBytes + SCALE_BYTES, target);
+    }
+
+    /**
+     * 单位化后对称量化：values = round(x / scale)，scale = max|x| / 127
+     */
+    private static Quantized quantize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        norm = Math.sqrt(norm);
+        byte[] values = new byte[vector.length];
+        if (norm == 0) {
+            return new Quantized(values, 0);
+        }
+        double maxAbs = 0;
+        for (float value : vector) {
+            maxAbs = Math.max(maxAbs, Math.abs(value / norm));
+        }
+        double scale = maxAbs / 127;
+        for (int i = 0; i < vector.length; i++) {
+            values[i] = (byte) Math.round(vector[i] / norm / scale);
+        }
+        return new Quantized(values, (float) scale);
+    }
+
+    private void load(Path vectorsFile, Path graphFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(graphFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("图文件格式不匹配");
+            }
+            int graphGeneration = in.readInt();
+            int graphDimension = in.readInt();
+            int graphSize = in.readInt();
+            int graphEntryPoint = in.readInt();
+            int graphMaxLevel = in.readInt();
+
+            channel = FileChannel.open(vectorsFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long fileSize = channel.size();
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION
+                    || header.getInt(8) != graphDimension || header.getInt(12) != graphGeneration) {
+                throw new IOException("向量文件与图文件不匹配");
+            }
+            if (graphSize > 0 && fileSize < HEADER_BYTES + (long) graphSize * (SCALE_BYTES + graphDimension)) {
+                throw new IOException("向量文件不完整");
+            }
+
+            generation = graphGeneration;
+            if (graphDimension > 0) {
+                dimension = graphDimension;
+                recordBytes = SCALE_BYTES + dimension;
+                ensureCapacity(Math.max(INITIAL_CAPACITY, (int) ((fileSize - HEADER_BYTES) / recordBytes)));
+            }
+            ensureGraphCapacity(graphSize);
+            for (int node = 0; node < graphSize; node++) {
+                int level = in.readByte();
+                levels[node] = level;
+                links[node] = new int[level + 1][];
+                for (int l = 0; l <= level; l++) {
+                    int count = in.readInt();
+                    int[] neighbors = new int[1 + Math.max(count, maxNeighbors(l))];
+                    neighbors[0] = count;
+                    for (int i = 1; i <= count; i++) {
+                        neighbors[i] = in.readInt();
+                    }
+                    links[node][l] = neighbors;
+                }
+            }
+            long[] words = new long[in.readInt()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            deleted.or(BitSet.valueOf(words));
+            deletedCount = deleted.cardinality();
+            size = graphSize;
+            entryPoint = graphEntryPoint;
+            maxLevel = graphMaxLevel;
+        }
+    }
+
+    private void reset() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        vectors = null;
+        store = null;
+        capacity = 0;
+        dimension = 0;
+        recordBytes = 0;
+        generation = 0;
+        clearGraph();
+    }
+
+    private record Quantized(byte[] values, float scale) {
+    }
+
+    /**
+     * 一次查询或建图操作的上下文
+     */
+    private final class Query {
+
+        private final byte[] values;
+        private final float scale;
+
+        Query(byte[] values, float scale) {
+            this.values = values;
+            this.scale = scale;
+        }
+
+        /**
+         * 直接在向量存储上计算内积，不把节点向量复制到堆内
+         */
+        float score(int node) {
+            int offset = HEADER_BYTES + node * recordBytes;
+            return store.dot(values, offset + SCALE_BYTES, dimension) * scale * vectors.getFloat(offset);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.aioverview.backend.aidemo.service.vector;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.DocumentMetadata;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptionsBuilder;
+import org.springframework.ai.observation.conventions.VectorStoreSimilarityMetric;
+import org.springframework.ai.util.JacksonUtils;
+import org.springframework.ai.vectorstore.AbstractVectorStoreBuilder;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.observation.AbstractObservationVectorStore;
+import org.springframework.ai.vectorstore.observation.VectorStoreObservationContext;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 基于 {@link HnswIndex} 的向量库
+ * 向量以int8量化后存放在内存映射文件中，文档内容和元数据保存在 documents.json；
+ * 打开时直接映射已有文件，不需要重新向量化。相同ID重复写入时覆盖旧文档。
+ * 不支持元数据过滤表达式。
+ */
+@Slf4j
+public class HnswVectorStore extends AbstractObservationVectorStore implements Closeable {
+
+    private static final String DOCUMENTS_FILE = "documents.json";
+
+    private final Path directory;
+    private final HnswIndex index;
+    private final int efSearch;
+    private final double compactThreshold;
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModules(JacksonUtils.instantiateAvailableModules())
+            .build();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 节点序号 -> 文档，已删除的为null
+     */
+    private final List<StoredDocument> documents = new ArrayList<>();
+    private final Map<String, Integer> nodes = new HashMap<>();
+
+    private HnswVectorStore(Builder builder) {
+        super(builder);
+        this.directory = builder.directory;
+        this.efSearch = builder.efSearch;
+        this.compactThreshold = builder.compactThreshold;
+        try {
+            this.index = directory != null
+                    ? HnswIndex.open(directory, builder.m, builder.efConstruction)
+                    : HnswIndex.inMemory(builder.m, builder.efConstruction);
+        } catch (IOException e) {
+            throw new IllegalStateException("打开向量索引失败: " + directory, e);
+        }
+        if (directory != null) {
+            loadDocuments();
+        }
+    }
+
+    public static Builder builder(EmbeddingModel embeddingModel) {
+        return new Builder(embeddingModel);
+    }
+
+    @Override
+    public void doAdd(List<Document> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<float[]> embeddings = embeddingModel.embed(batch, EmbeddingOptionsBuilder.builder().build(), batchingStrategy);
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                Document document = batch.get(i);
+                remove(document.getId());
+                int node = index.add(embeddings.get(i));
+                while (documents.size() <= node) {
+                    documents.add(null);
+                }
+                documents.set(node, new StoredDocument(document.getId(), document.getText(), document.getMetadata()));
+                nodes.put(document.getId(), node);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void doDelete(List<String> ids) {
+        lock.writeLock().lock();
+        try {
+            ids.forEach(this::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Document> doSimilaritySearch(SearchRequest request) {
+        if (request.getFilterExpression() != null) {
+            throw new IllegalArgumentException("HnswVectorStore不支持元数据过滤");
+        }
+        if (size() == 0) {
+            return List.of();
+        }
+        float[] embedding = embeddingModel.embed(request.getQuery());
+        lock.readLock().lock();
+        try {
+            List<Document> result = new ArrayList<>(request.getTopK());
+            for (HnswIndex.Neighbor neighbor : index.search(embedding, request.getTopK(), efSearch)) {
+                StoredDocument stored = documents.get(neighbor.node());
+                if (stored == null || neighbor.score() < request.getSimilarityThreshold()) {
+                    continue;
+                }
+                Map<String, Object> metadata = new HashMap<>(stored.metadata());
+                metadata.put(DocumentMetadata.DISTANCE.value(), 1 - neighbor.score());
+                result.add(Document.builder()
+                        .id(stored.id())
+                        .text(stored.text())
+                        .metadata(metadata)
+                        .score((double) neighbor.score())
+                        .build());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public VectorStoreObservationContext.Builder createObservationContextBuilder(String operationName) {
+        return VectorStoreObservationContext.builder("hnsw", operationName)
+                .dimensions(index.dimension())
+                .collectionName(directory != null ? directory.getFileName().toString() : "in-memory")
+                .similarityMetric(VectorStoreSimilarityMetric.COSINE.value());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> getNativeClient() {
+        return Optional.of((T) index);
+    }
+
+    /**
+     * 持久化；已删除的文档超过 compactThreshold 时先重建索引
+     */
+    public void save() throws IOException {
+        if (directory == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (index.deletedRatio() > compactThreshold) {
+                compact();
+            }
+            Path tmp = directory.resolve(DOCUMENTS_FILE + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), new DocumentsFile(index.generation(), documents));
+            Files.move(tmp, directory.resolve(DOCUMENTS_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            index.save();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 有效文档数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        index.close();
+    }
+
+    private void remove(String id) {
+        Integer node = nodes.remove(id);
+        if (node != null) {
+            index.delete(node);
+            documents.set(node, null);
+        }
+    }
+
+    private void compact() {
+        int before = index.size();
+        int[] mapping = index.compact();
+        List<StoredDocument> compacted = new ArrayList<>(nodes.size());
+        nodes.clear();
+        for (int node = 0; node < mapping.length; node++) {
+            if (mapping[node] >= 0) {
+                StoredDocument stored = documents.get(node);
+                compacted.add(stored);
+                nodes.put(stored.id(), mapping[node]);
+            }
+        }
+        documents.clear();
+        documents.addAll(compacted);
+        log.info("向量索引已重建: {} -> {}个节点", before, compacted.size());
+    }
+
+    /**
+     * 文档文件的代数必须与索引一致，并且覆盖索引中的全部节点（文档先于图文件写出，可能多出尚未写入图的节点）
+     */
+    private void loadDocuments() {
+        Path file = directory.resolve(DOCUMENTS_FILE);
+        if (index.size() == 0) {
+            return;
+        }
+        try {
+            DocumentsFile loaded = Files.isRegularFile(file) ? objectMapper.readValue(file.toFile(), DocumentsFile.class) : null;
+            if (loaded == null || loaded.generation() != index.generation() || loaded.documents().size() < index.size()) {
+                throw new IOException("文档文件与索引不匹配");
+            }
+            for (int node = 0; node < index.size(); node++) {
+                StoredDocument stored = loaded.documents().get(node);
+                documents.add(stored);
+                if (stored != null) {
+                    nodes.put(stored.id(), node);
+                }
+            }
+            log.info("已加载向量索引: {}，{}个文档，内积实现: {}", directory, nodes.size(), VectorMath.implementation());
+        } catch (IOException | RuntimeException e) {
+            log.warn("向量索引的文档文件无效，清空索引: {}: {}", directory, e.getMessage());
+            documents.clear();
+            nodes.clear();
+            index.clear();
+        }
+    }
+
+    record StoredDocument(String id, String text, Map<String, Object> metadata) {
+    }
+
+    record DocumentsFile(int generation, List<StoredDocument> documents) {
+    }
+
+    public static final class Builder extends AbstractVectorStoreBuilder<Builder> {
+
+        private Path directory;
+        private int m = 16;
+        private int efConstruction = 100;
+        private int efSearch = 100;
+        private double compactThreshold = 0.2;
+
+        private Builder(EmbeddingModel embeddingModel) {
+            super(embeddingModel);
+        }
+
+        /**
+         * 索引目录，不设置时只保存在堆外内存中
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        public Builder m(int m) {
+            this.m = m;
+            return this;
+        }
+
+        public Builder efConstruction(int efConstruction) {
+            this.efConstruction = efConstruction;
+            return this;
+        }
+
+        public Builder efSearch(int efSearch) {
+            this.efSearch = efSearch;
+            return this;
+        }
+
+        /**
+         * 保存时触发重建的已删除比例
+         */
+        public Builder compactThreshold(double compactThreshold) {
+            this.compactThreshold = compactThreshold;
+            return this;
+        }
+
+        @Override
+        public HnswVectorStore build() {
+            return new HnswVectorStore(this);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.aioverview.backend.aidemo.service.vector;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 基于Vector API的int8内积
+ * 每次读取与int向量等宽（lane数相同）的一段byte，扩展为int后相乘累加；
+ * 只在int向量不少于256位时启用，128位时byte段只有32位，没有对应的向量形状。
+ * 堆外存储通过 MemorySegment 直接加载（JDK 21 中为预览API，本类编译为预览类文件，运行时需要 --enable-preview）。
+ * 仅由 VectorMath 通过反射加载，加载失败时退回标量实现
+ */
+final class SimdInt8DotProduct implements VectorMath.Int8DotProduct {
+
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTE_SPECIES = INT_SPECIES.vectorBitSize() >= 256
+            ? VectorSpecies.of(byte.class, VectorShape.forBitSize(INT_SPECIES.vectorBitSize() / 4))
+            : null;
+
+    @Override
+    public boolean supported() {
+        return BYTE_SPECIES != null;
+    }
+
+    @Override
+    public int dot(byte[] a, byte[] b, int length) {
+        IntVector sum = IntVector.zero(INT_SPECIES);
+        int i = 0;
+        int bound = BYTE_SPECIES.loopBound(length);
+        for (; i < bound; i += BYTE_SPECIES.length()) {
+            IntVector va = (IntVector) ByteVector.fromArray(BYTE_SPECIES, a, i)
+                    .convertShape(VectorOperators.B2I, INT_SPECIES, 0);
+            IntVector vb = (IntVector) ByteVector.fromArray(BYTE_SPECIES, b, i)
+                    .convertShape(VectorOperators.B2I, INT_SPECIES, 0);
+            sum = sum.add(va.mul(vb));
+        }
+        int result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result += a[i] * b[i];
+        }
+        return result;
+    }
+
+    @Override
+    public VectorMath.Int8Store wrap(ByteBuffer buffer) {
+        MemorySegment segment = MemorySegment.ofBuffer(buffer);
+        return (a, offset, length) -> {
+            IntVector sum = IntVector.zero(INT_SPECIES);
+            int i = 0;
+            int bound = BYTE_SPECIES.loopBound(length);
+            for (; i < bound; i += BYTE_SPECIES.length()) {
+                IntVector va = (IntVector) ByteVector.fromArray(BYTE_SPECIES, a, i)
+                        .convertShape(VectorOperators.B2I, INT_SPECIES, 0);
+                IntVector vb = (IntVector) ByteVector.fromMemorySegment(BYTE_SPECIES, segment, offset + i, ByteOrder.nativeOrder())
+                        .convertShape(VectorOperators.B2I, INT_SPECIES, 0);
+                sum = sum.add(va.mul(vb));
+            }
+            int result = sum.reduceLanes(VectorOperators.ADD);
+            for (; i < length; i++) {
+                result += a[i] * segment.get(ValueLayout.JAVA_BYTE, offset + i);
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "SimdInt8DotProduct[" + INT_SPECIES + "]";
+    }
+}
@@ -0,0 +1,105 @@
+package com.aioverview.backend.aidemo.service.vector;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 量化向量的内积计算
+ * 运行时带有 --add-modules jdk.incubator.vector --enable-preview 时使用Vector API（SIMD），否则使用标量循环。
+ * SIMD实现直接从堆外内存按 MemorySegment 读取向量，JDK 21 中 MemorySegment 还是预览API，因此需要 --enable-preview
+ */
+@Slf4j
+final class VectorMath {
+
+    private static final Int8DotProduct DOT_PRODUCT = load();
+
+    private VectorMath() {
+    }
+
+    /**
+     * int8向量内积，length不超过 2^17 时不会溢出
+     */
+    static int dot(byte[] a, byte[] b, int length) {
+        return DOT_PRODUCT.dot(a, b, length);
+    }
+
+    /**
+     * 包装一块保存int8向量记录的堆外内存（直接内存或内存映射），计算内积时直接读取，不复制到堆内
+     */
+    static Int8Store wrap(ByteBuffer buffer) {
+        return DOT_PRODUCT.wrap(buffer);
+    }
+
+    /**
+     * 当前使用的实现，用于日志和监控
+     */
+    static String implementation() {
+        return DOT_PRODUCT.getClass().getSimpleName();
+    }
+
+    private static Int8DotProduct load() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // 通过反射加载，未启用孵化模块时不会触发Vector API的类加载
+                Int8DotProduct simd = (Int8DotProduct) Class
+                        .forName(VectorMath.class.getPackageName() + ".SimdInt8DotProduct")
+                        .getDeclaredConstructor()
+                        .newInstance();
+                if (simd.supported()) {
+                    log.info("向量内积使用Vector API: {}", simd);
+                    return simd;
+                }
+            } catch (ReflectiveOperationException | LinkageError e) {
+                log.warn("Vector API不可用，向量内积使用标量实现: {}", e.getMessage());
+            }
+        }
+        return new ScalarInt8DotProduct();
+    }
+
+    interface Int8DotProduct {
+
+        int dot(byte[] a, byte[] b, int length);
+
+        Int8Store wrap(ByteBuffer buffer);
+
+        default boolean supported() {
+            return true;
+        }
+    }
+
+    static final class ScalarInt8DotProduct implements Int8DotProduct {
+
+        @Override
+        public int dot(byte[] a, byte[] b, int length) {
+            int sum = 0;
+            for (int i = 0; i < length; i++) {
+                sum += a[i] * b[i];
+            }
+            return sum;
+        }
+
+        @Override
+        public Int8Store wrap(ByteBuffer buffer) {
+            return (a, offset, length) -> {
+                int sum = 0;
+                for (int i = 0; i < length; i++) {
+                    // 绝对位置读取不修改缓冲区状态，多个查询线程可以并发读
+                    sum += a[i] * buffer.get(offset + i);
+                }
+                return sum;
+            };
+        }
+    }
+
+    /**
+     * 堆外的int8向量存储
+     */
+    interface Int8Store {
+
+        /**
+         * 堆内向量a与存储中从offset开始的length个字节的内积
+         */
+        int dot(byte[] a, int offset, int length);
+    }
+}
@@ -0,0 +1,304 @@
+package com.aioverview.backend.aidemo.service.warmup;
+
+import com.aioverview.backend.aidemo.config.ConceptWarmupProperties;
+import com.aioverview.backend.aidemo.service.Answer;
+import com.aioverview.backend.aidemo.service.ConceptExplainerService;
+import com.aioverview.backend.aidemo.service.Question;
+import com.aioverview.backend.aidemo.service.cache.ConceptAnswerCache;
+import com.aioverview.backend.aidemo.service.strategy.ChatModelRouter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 概念解释缓存预热
+ * 定期读取前端术语表，为缓存中缺失或即将过期的术语生成解释，并以术语的中文名、缩写和英文名分别写入缓存。
+ * 预热在低优先级的后台线程中进行，同时进行的调用数有上限；用户请求的在途调用较多或连续失败时按指数退避，
+ * 连续失败过多时放弃本轮，等下一轮再试。
+ */
+@Component
+@ConditionalOnProperty(prefix = "ai-demo.concept-warmup", name = "enabled", havingValue = "true")
+@Slf4j
+public class ConceptCacheWarmer {
+
+    private static final String[] ALIAS_FIELDS = {"name", "abbr", "enName"};
+
+    private final ConceptWarmupProperties properties;
+    private final ConceptExplainerService explainerService;
+    private final ConceptAnswerCache answerCache;
+    private final ChatModelRouter router;
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final TokenCountEstimator tokenCountEstimator = new JTokkitTokenCountEstimator();
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger catalogueSize = new AtomicInteger();
+    private volatile Thread coordinator;
+
+    private final Counter generated;
+    private final Counter fresh;
+    private final Counter failed;
+    private final Counter backoffs;
+    private final Counter tokens;
+    private final Timer generationTimer;
+
+    public ConceptCacheWarmer(ConceptWarmupProperties properties,
+                              ConceptExplainerService explainerService,
+                              ConceptAnswerCache answerCache,
+                              ChatModelRouter router,
+                              ResourceLoader resourceLoader,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        if (properties.getMaxConcurrent() < 1) {
+            throw new IllegalArgumentException("ai-demo.concept-warmup.max-concurrent必须大于0");
+        }
+        this.properties = properties;
+        this.explainerService = explainerService;
+        this.answerCache = answerCache;
+        this.router = router;
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(properties.getMaxConcurrent());
+        this.executor = Executors.newFixedThreadPool(properties.getMaxConcurrent(), lowPriorityThreads("concept-warmup-worker"));
+
+        this.generated = termCounter(meterRegistry, "generated");
+        this.fresh = termCounter(meterRegistry, "fresh");
+        this.failed = termCounter(meterRegistry, "failed");
+        this.backoffs = Counter.builder("concept.warmup.backoffs")
+                .description("因用户请求较多或调用失败而暂停预热的次数")
+                .register(meterRegistry);
+        this.tokens = Counter.builder("concept.warmup.tokens")
+                .description("预热生成内容的估算token数")
+                .register(meterRegistry);
+        this.generationTimer = Timer.builder("concept.warmup.generation")
+                .description("预热生成单个术语解释的耗时")
+                .register(meterRegistry);
+        Gauge.builder("concept.warmup.pending", pending, AtomicInteger::get)
+                .description("本轮尚未处理的术语数")
+                .register(meterRegistry);
+        Gauge.builder("concept.warmup.catalogue", catalogueSize, AtomicInteger::get)
+                .description("术语表中的术语数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 定时触发，实际工作在后台线程中进行，不占用调度线程；上一轮未结束时跳过
+     */
+    @Scheduled(fixedDelayString = "${ai-demo.concept-warmup.interval:6h}",
+            initialDelayString = "${ai-demo.concept-warmup.initial-delay:2m}")
+    public void trigger() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("上一轮概念缓存预热尚未结束，跳过本轮");
+            return;
+        }
+        coordinator = lowPriorityThreads("concept-warmup").newThread(() -> {
+            try {
+                warmUp();
+            } finally {
+                pending.set(0);
+                running.set(false);
+            }
+        });
+        coordinator.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Thread thread = coordinator;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        executor.shutdownNow();
+    }
+
+    private void warmUp() {
+        List<Term> terms = loadCatalogue();
+        catalogueSize.set(terms.size());
+        List<Term> stale = new ArrayList<>();
+        for (Term term : terms) {
+            if (answerCache.needsRefresh(term.name(), properties.getRefreshMargin())) {
+                stale.add(term);
+            } else {
+                fresh.increment();
+            }
+        }
+        pending.set(stale.size());
+        log.info("概念缓存预热开始: 术语{}个，需要生成{}个", terms.size(), stale.size());
+        if (stale.isEmpty()) {
+            return;
+        }
+
+        consecutiveFailures.set(0);
+        try {
+            for (Term term : stale) {
+                if (!awaitCapacity()) {
+                    log.warn("概念缓存预热连续失败{}次，放弃本轮，剩余{}个术语", consecutiveFailures.get(), pending.get());
+                    return;
+                }
+                permits.acquire();
+                active.incrementAndGet();
+                executor.execute(() -> generate(term));
+            }
+            // 等待进行中的调用结束
+            permits.acquire(properties.getMaxConcurrent());
+            permits.release(properties.getMaxConcurrent());
+            log.info("概念缓存预热结束");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 用户请求的在途调用过多或上一次调用失败时退避等待
+     * @return 连续失败次数达到上限时返回false
+     */
+    private boolean awaitCapacity() throws InterruptedException {
+        long delay = properties.getBackoffInitial().toMillis();
+        while (true) {
+            int failures = consecutiveFailures.get();
+            if (failures >= properties.getMaxFailures()) {
+                return false;
+            }
+            // 在途调用包含预热自身的调用，需要扣除
+            boolean busy = router.inflight() - active.get() > properties.getMaxInteractiveInflight();
+            if (!busy && failures == 0) {
+                return true;
+            }
+            long wait = failures > 0 ? backoff(failures) : delay;
+            backoffs.increment();
+            log.debug("概念缓存预热退避{}ms（{}）", wait, busy ? "用户请求较多" : "连续失败" + failures + "次");
+            Thread.sleep(wait);
+            if (failures > 0) {
+                // 失败后的退避只等一次，下一个术语的结果决定是否继续退避
+                return true;
+            }
+            delay = Math.min(delay * 2, properties.getBackoffMax().toMillis());
+        }
+    }
+
+    private long backoff(int failures) {
+        long delay = properties.getBackoffInitial().toMillis() << Math.min(failures - 1, 20);
+        return Math.min(delay, properties.getBackoffMax().toMillis());
+    }
+
+    private void generate(Term term) {
+        try {
+            // 排队期间可能已被用户请求生成
+            if (!answerCache.needsRefresh(term.name(), properties.getRefreshMargin())) {
+                fresh.increment();
+                return;
+            }
+            Timer.Sample sample = Timer.start();
+            Answer answer = explainerService.regenerate(new Question(term.name()));
+            sample.stop(generationTimer);
+            for (String alias : term.aliases()) {
+                answerCache.store(alias, answer.answer());
+            }
+            generated.increment();
+            tokens.increment(tokenCountEstimator.estimate(answer.answer()));
+            consecutiveFailures.set(0);
+        } catch (Exception e) {
+            failed.increment();
+            consecutiveFailures.incrementAndGet();
+            log.warn("概念缓存预热失败: {}: {}", term.name(), e.getMessage());
+        } finally {
+            pending.decrementAndGet();
+            active.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    /**
+     * 读取并合并术语表，同一id在多个术语表中出现时合并别名，以先出现的名称生成解释
+     */
+    private List<Term> loadCatalogue() {
+        Map<String, Set<String>> aliasesById = new LinkedHashMap<>();
+        for (String location : properties.getCatalogues()) {
+            Resource resource = resourceLoader.getResource(location);
+            try (InputStream in = resource.getInputStream()) {
+                for (JsonNode node : objectMapper.readTree(in)) {
+                    String id = node.path("id").asText("");
+                    if (id.isBlank()) {
+                        continue;
+                    }
+                    Set<String> aliases = aliasesById.computeIfAbsent(id, k -> new LinkedHashSet<>());
+                    for (String field : ALIAS_FIELDS) {
+                        String alias = node.path(field).asText("").trim();
+                        if (!alias.isEmpty()) {
+                            aliases.add(alias);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("读取术语表失败: {}: {}", location, e.getMessage());
+            }
+        }
+        List<Term> terms = new ArrayList<>(aliasesById.size());
+        aliasesById.forEach((id, aliases) -> {
+            if (!aliases.isEmpty()) {
+                terms.add(new Term(id, List.copyOf(aliases)));
+            }
+        });
+        return terms;
+    }
+
+    private static Counter termCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("concept.warmup.terms")
+                .description("预热处理的术语数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static ThreadFactory lowPriorityThreads(String name) {
+        return Thread.ofPlatform()
+                .name(name + "-", 0)
+                .daemon(true)
+                .priority(Thread.MIN_PRIORITY)
+                .factory();
+    }
+
+    /**
+     * 术语
+     * @param id 术语表中的id
+     * @param aliases 中文名、缩写、英文名，第一个用于生成解释
+     */
+    record Term(String id, List<String> aliases) {
+
+        String name() {
+            return aliases.get(0);
+        }
+    }
+}
@@ -1,20 +1,6 @@
 -- SQLite数据库初始化脚本
--- 创建访客统计表
-CREATE TABLE IF NOT EXISTS visitor_stats (
-    id INTEGER PRIMARY KEY AUTOINCREMENT,
-    page_path VARCHAR(255) NOT NULL,
-    page_name VARCHAR(100) NOT NULL,
-    visit_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    user_agent VARCHAR(500),
-    ip_address VARCHAR(50),
-    session_id VARCHAR(100),
-    referrer VARCHAR(500)
-);
-
--- 创建索引优化查询性能
-CREATE INDEX IF NOT EXISTS idx_page_path ON visitor_stats(page_path);
-CREATE INDEX IF NOT EXISTS idx_visit_time ON visitor_stats(visit_time);
-CREATE INDEX IF NOT EXISTS idx_page_name ON visitor_stats(page_name);
+-- 访问原始记录按月分区存放在 visitor_stats_YYYYMM 表中，由应用启动时和按需创建
+-- （见 VisitorStatsPartitions），旧版本的单表 visitor_stats 会在启动时迁移到分区表
 
 -- 创建IP过滤配置表
 CREATE TABLE IF NOT EXISTS filter_ip (
@@ -25,4 +11,28 @@ CREATE TABLE IF NOT EXISTS filter_ip (
 );
 
 -- 创建IP索引
-CREATE INDEX IF NOT EXISTS idx_filter_ip ON filter_ip(ip);
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_filter_ip ON filter_ip(ip);
+
+-- 按小时汇总的页面访问量（bucket_hour格式：YYYY-MM-DD HH）
+CREATE TABLE IF NOT EXISTS visitor_stats_hourly (
+    bucket_hour VARCHAR(13) NOT NULL,
+    page_path VARCHAR(255) NOT NULL,
+    page_name VARCHAR(100) NOT NULL,
+    visit_count INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_hour, page_path, page_name)
+);
+
+-- 按天汇总的页面访问量（bucket_date格式：YYYY-MM-DD）
+CREATE TABLE IF NOT EXISTS visitor_stats_daily (
+    bucket_date VARCHAR(10) NOT NULL,
+    page_path VARCHAR(255) NOT NULL,
+    page_name VARCHAR(100) NOT NULL,
+    visit_count INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_date, page_path, page_name)
+);
+
+-- 汇总进度：记录已汇总到的访问记录ID，大于该ID的原始记录尚未计入汇总表
+CREATE TABLE IF NOT EXISTS visitor_stats_rollup_state (
+    name VARCHAR(50) PRIMARY KEY,
+    last_id INTEGER NOT NULL DEFAULT 0
+);
@@ -0,0 +1,75 @@
+package com.aioverview.backend.aidemo.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SemanticIndexTest {
+
+    @Test
+    void findsNearestKeyAboveThreshold() {
+        SemanticIndex index = new SemanticIndex(0.9, 10);
+        index.add("a", new float[]{1, 0});
+        index.add("b", new float[]{0, 1});
+
+        assertThat(index.nearest(new float[]{2, 0.1f})).isEqualTo("a");
+        assertThat(index.nearest(new float[]{1, 1})).isNull();
+    }
+
+    @Test
+    void addingSameKeyReplacesVector() {
+        SemanticIndex index = new SemanticIndex(0.9, 10);
+        index.add("a", new float[]{1, 0});
+        index.add("a", new float[]{0, 1});
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.nearest(new float[]{1, 0})).isNull();
+        assertThat(index.nearest(new float[]{0, 1})).isEqualTo("a");
+    }
+
+    @Test
+    void evictsEldestBeyondMaxEntries() {
+        SemanticIndex index = new SemanticIndex(0.99, 2);
+        index.add("a", new float[]{1, 0, 0});
+        index.add("b", new float[]{0, 1, 0});
+        index.add("c", new float[]{0, 0, 1});
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.nearest(new float[]{1, 0, 0})).isNull();
+        assertThat(index.nearest(new float[]{0, 0, 1})).isEqualTo("c");
+    }
+
+    @Test
+    void concurrentAddAndRemoveKeepSizeWithinCap() throws InterruptedException {
+        SemanticIndex index = new SemanticIndex(0.9, 50);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    // 少量重复的键，让add、remove和淘汰在同一个键上交错
+                    String key = "k" + random.nextInt(200);
+                    if (random.nextInt(4) == 0) {
+                        index.remove(key);
+                    } else {
+                        index.add(key, new float[]{random.nextFloat(), random.nextFloat()});
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(index.size()).isBetween(0, 50);
+        // 并发结束后继续加入时仍能按容量淘汰
+        for (int i = 0; i < 200; i++) {
+            index.add("after-" + i, new float[]{1, i});
+        }
+        assertThat(index.size()).isEqualTo(50);
+    }
+}
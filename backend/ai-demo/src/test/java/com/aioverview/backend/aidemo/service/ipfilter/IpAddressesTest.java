@@ -0,0 +1,91 @@
+package com.aioverview.backend.aidemo.service.ipfilter;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IpAddressesTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.0.0.0", "1.2.3.4", "10.0.0.255", "192.168.1.5", "255.255.255.255"})
+    void parsesIpv4(String text) throws UnknownHostException {
+        long expected = Integer.toUnsignedLong(ByteBuffer.wrap(InetAddress.getByName(text).getAddress()).getInt());
+        assertThat(IpAddresses.parseIpv4(text, 0, text.length())).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "1.2.3", "1.2.3.4.5", "256.1.1.1", "1.2.3.1000", "1..2.3", ".1.2.3", "1.2.3.",
+            "a.b.c.d", "1.2.3.4 ", "-1.2.3.4", "::1"})
+    void rejectsInvalidIpv4(String text) {
+        assertThat(IpAddresses.parseIpv4(text, 0, text.length())).isEqualTo(-1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"::", "::1", "1::", "2001:db8::1", "2001:DB8::ABCD", "2001:db8:0:0:1:0:0:1",
+            "1:2:3:4:5:6:7:8", "1::8", "1:2:3:4:5:6:7::", "::2:3:4:5:6:7:8", "fe80::1:2", "ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff",
+            "::ffff:1.2.3.4", "64:ff9b::192.0.2.33", "1:2:3:4:5:6:1.2.3.4", "::ffff:0:0", "8000::"})
+    void parsesIpv6LikeInetAddress(String text) throws UnknownHostException {
+        long[] address = new long[2];
+        assertThat(IpAddresses.parseIpv6(text, 0, text.length(), address)).isTrue();
+        assertThat(address).containsExactly(expected(text));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"fe80::1%eth0", "fe80::1%1"})
+    void ignoresZoneId(String text) throws UnknownHostException {
+        long[] address = new long[2];
+        assertThat(IpAddresses.parseIpv6(text, 0, text.length(), address)).isTrue();
+        assertThat(address).containsExactly(expected(text.substring(0, text.indexOf('%'))));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", ":", ":::", "1:::2", "1::2::3", ":1::2", "1:", "1::2:", "12345::", "::g",
+            "1:2:3:4:5:6:7", "1:2:3:4:5:6:7:8:9", "1:2:3:4:5:6:7:8::", "::1:2:3:4:5:6:7:8",
+            "1.2.3.4::", "::1.2.3", "::1.2.3.256", "::1.2.3.4:5", "1:2:3:4:5:6:7:1.2.3.4", "%eth0"})
+    void rejectsInvalidIpv6(String text) {
+        assertThat(IpAddresses.parseIpv6(text, 0, text.length(), new long[2])).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"x[2001:db8::1]", "[::ffff:10.0.0.1]"})
+    void parsesSubrange(String text) throws UnknownHostException {
+        int from = text.indexOf('[') + 1;
+        int to = text.indexOf(']');
+        long[] address = new long[2];
+        assertThat(IpAddresses.parseIpv6(text, from, to, address)).isTrue();
+        assertThat(address).containsExactly(expected(text.substring(from, to)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"::ffff:0.0.0.0", "::ffff:1.2.3.4", "::ffff:255.255.255.255"})
+    void recognisesIpv4Mapped(String text) {
+        long[] address = new long[2];
+        IpAddresses.parseIpv6(text, 0, text.length(), address);
+        assertThat(IpAddresses.isIpv4Mapped(address[0], address[1])).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"::1.2.3.4", "::fffe:1.2.3.4", "1::ffff:1.2.3.4", "64:ff9b::1.2.3.4"})
+    void rejectsOtherAddressesAsIpv4Mapped(String text) {
+        long[] address = new long[2];
+        IpAddresses.parseIpv6(text, 0, text.length(), address);
+        assertThat(IpAddresses.isIpv4Mapped(address[0], address[1])).isFalse();
+    }
+
+    /**
+     * 以JDK解析结果为准；InetAddress会把映射地址转成Inet4Address，这里补回映射前缀
+     */
+    private static long[] expected(String text) throws UnknownHostException {
+        byte[] bytes = InetAddress.getByName(text).getAddress();
+        if (bytes.length == 4) {
+            return new long[]{0, 0xFFFFL << 32 | Integer.toUnsignedLong(ByteBuffer.wrap(bytes).getInt())};
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new long[]{buffer.getLong(), buffer.getLong()};
+    }
+}
@@ -0,0 +1,140 @@
+package com.aioverview.backend.aidemo.service.ipfilter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IP过滤规则匹配基准：预编译前缀树 与 原先逐条拆分字符串匹配的实现（不含原实现每次查询数据库的开销）
+ *
+ * <p>运行（在 backend 目录下）：
+ * <pre>
+ * mvn -q -pl ai-demo test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp ai-demo/target/test-classes:ai-demo/target/classes:$(cat ai-demo/target/cp.txt) \
+ *      org.openjdk.jmh.Main IpRuleSetBenchmark -prof gc
+ * </pre>
+ * -prof gc 输出的 gc.alloc.rate.norm 为每次查询分配的字节数。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IpRuleSetBenchmark {
+
+    private static final int ADDRESSES = 1024;
+
+    @Param({"10", "1000", "100000"})
+    int rules;
+
+    private IpRuleSet ruleSet;
+    private List<String> ruleList;
+    private String[] ipv4;
+    private String[] ipv6;
+    private String[] mapped;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ruleList = new ArrayList<>(rules);
+        for (int i = 0; i < rules; i++) {
+            // 一半单个地址，一半/16到/31的网段
+            String address = ipv4(random.nextInt());
+            ruleList.add(i % 2 == 0 ? address : address + "/" + (16 + random.nextInt(16)));
+        }
+        ruleSet = IpRuleSet.compile(ruleList);
+
+        ipv4 = new String[ADDRESSES];
+        ipv6 = new String[ADDRESSES];
+        mapped = new String[ADDRESSES];
+        for (int i = 0; i < ADDRESSES; i++) {
+            // 约一成地址命中规则
+            String address = i % 10 == 0
+                    ? ruleList.get(random.nextInt(rules)).split("/")[0]
+                    : ipv4(random.nextInt());
+            ipv4[i] = address;
+            mapped[i] = "::ffff:" + address;
+            ipv6[i] = String.format("2001:db8:%x:%x::%x", random.nextInt(0x10000), random.nextInt(0x10000),
+                    random.nextInt(0x10000));
+        }
+    }
+
+    @Benchmark
+    public boolean trieIpv4() {
+        return ruleSet.matches(ipv4[next()]);
+    }
+
+    @Benchmark
+    public boolean trieIpv6() {
+        return ruleSet.matches(ipv6[next()]);
+    }
+
+    @Benchmark
+    public boolean trieIpv4Mapped() {
+        return ruleSet.matches(mapped[next()]);
+    }
+
+    @Benchmark
+    public boolean legacyIpv4() {
+        String ip = ipv4[next()];
+        for (String rule : ruleList) {
+            if (legacyMatch(ip, rule)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int next() {
+        next = (next + 1) & (ADDRESSES - 1);
+        return next;
+    }
+
+    private static String ipv4(int value) {
+        return (value >>> 24) + "." + ((value >>> 16) & 0xFF) + "." + ((value >>> 8) & 0xFF) + "." + (value & 0xFF);
+    }
+
+    /**
+     * 原 FilterIpService.isIpMatch 的实现
+     */
+    private static boolean legacyMatch(String ipAddress, String filterIp) {
+        if (ipAddress.equals(filterIp)) {
+            return true;
+        }
+        if (!filterIp.contains("/")) {
+            return false;
+        }
+        try {
+            String[] parts = filterIp.split("/");
+            int prefixLength = Integer.parseInt(parts[1]);
+            int mask = 0xFFFFFFFF << (32 - prefixLength);
+            return (legacyToInt(ipAddress) & mask) == (legacyToInt(parts[0]) & mask);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static int legacyToInt(String ip) {
+        String[] parts = ip.split("\\.");
+        int result = 0;
+        for (int i = 0; i < 4; i++) {
+            result |= (Integer.parseInt(parts[i]) & 0xFF) << (24 - (i * 8));
+        }
+        return result;
+    }
+}
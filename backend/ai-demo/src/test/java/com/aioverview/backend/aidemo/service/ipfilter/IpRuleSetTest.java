@@ -0,0 +1,180 @@
+package com.aioverview.backend.aidemo.service.ipfilter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IpRuleSetTest {
+
+    @Test
+    void matchesAddressesAndCidrs() {
+        IpRuleSet rules = IpRuleSet.compile(List.of("192.168.1.5", "10.0.0.0/8", " 172.16.0.0/12 ", "2001:db8::/32", "fe80::1"));
+
+        assertThat(rules.matches("192.168.1.5")).isTrue();
+        assertThat(rules.matches("192.168.1.6")).isFalse();
+        assertThat(rules.matches("10.255.255.255")).isTrue();
+        assertThat(rules.matches("11.0.0.0")).isFalse();
+        assertThat(rules.matches("172.31.0.1")).isTrue();
+        assertThat(rules.matches("172.32.0.1")).isFalse();
+        assertThat(rules.matches("2001:db8:ffff::1")).isTrue();
+        assertThat(rules.matches("2001:db9::1")).isFalse();
+        assertThat(rules.matches("fe80::1")).isTrue();
+        assertThat(rules.matches("fe80::1%eth0")).isTrue();
+        assertThat(rules.matches("fe80::2")).isFalse();
+        assertThat(rules.size()).isEqualTo(5);
+    }
+
+    @Test
+    void ipv4AndMappedAddressesAreEquivalent() {
+        IpRuleSet rules = IpRuleSet.compile(List.of("1.2.3.4", "::ffff:10.0.0.0/104"));
+
+        assertThat(rules.matches("::ffff:1.2.3.4")).isTrue();
+        assertThat(rules.matches("::ffff:102:304")).isTrue();
+        assertThat(rules.matches("10.1.2.3")).isTrue();
+        assertThat(rules.matches("::ffff:10.1.2.3")).isTrue();
+        assertThat(rules.matches("11.1.2.3")).isFalse();
+        // 不是映射地址的IPv6不按IPv4匹配
+        assertThat(rules.matches("::1.2.3.4")).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"::/0", "::/80", "::ffff:0:0/95", "::ffff:1.2.3.4-::ffff:1.2.3.9", "::1-::ffff:1.2.3.4"})
+    void mappedRulesOutsideTheIpv4TrieStillMatchIpv4Clients(String rule) {
+        IpRuleSet rules = IpRuleSet.compile(List.of(rule));
+
+        assertThat(rules.matches("1.2.3.4")).isTrue();
+        assertThat(rules.matches("::ffff:1.2.3.4")).isTrue();
+    }
+
+    @Test
+    void mappedRangeHasInclusiveBounds() {
+        IpRuleSet rules = IpRuleSet.compile(List.of("::ffff:1.2.3.4-::ffff:1.2.3.9"));
+
+        assertThat(rules.matches("1.2.3.3")).isFalse();
+        assertThat(rules.matches("1.2.3.4")).isTrue();
+        assertThat(rules.matches("::ffff:1.2.3.6")).isTrue();
+        assertThat(rules.matches("1.2.3.9")).isTrue();
+        assertThat(rules.matches("::ffff:1.2.3.10")).isFalse();
+        assertThat(rules.matches("2001:db8::1")).isFalse();
+    }
+
+    @Test
+    void ipv4RangesMatchExactlyTheirAddresses() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            long a = Integer.toUnsignedLong(random.nextInt());
+            long b = round % 2 == 0 ? a + random.nextInt(5000) : Integer.toUnsignedLong(random.nextInt());
+            long start = Math.min(a, Math.min(b, 0xFFFFFFFFL));
+            long end = Math.min(Math.max(a, b), 0xFFFFFFFFL);
+            IpRuleSet rules = IpRuleSet.compile(List.of(ipv4(start) + "-" + ipv4(end)));
+
+            assertThat(rules.matches(ipv4(start))).isTrue();
+            assertThat(rules.matches(ipv4(end))).isTrue();
+            if (start > 0) {
+                assertThat(rules.matches(ipv4(start - 1))).isFalse();
+            }
+            if (end < 0xFFFFFFFFL) {
+                assertThat(rules.matches(ipv4(end + 1))).isFalse();
+            }
+            for (int i = 0; i < 20; i++) {
+                long probe = Integer.toUnsignedLong(random.nextInt());
+                assertThat(rules.matches(ipv4(probe))).isEqualTo(probe >= start && probe <= end);
+            }
+        }
+    }
+
+    @Test
+    void ipv6RangesMatchExactlyTheirAddresses() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            // 区间跨越低64位进位、只在低位变化、以及任意两点三种情况
+            long startHi = 0x20010db8_00000000L | random.nextInt(4);
+            long startLo = round % 3 == 0 ? -1L - random.nextInt(1000) : random.nextLong();
+            long endHi = round % 3 == 1 ? startHi : startHi + random.nextInt(3);
+            long endLo = round % 3 == 1 ? startLo + random.nextInt(1 << 20) : random.nextLong();
+            if (compare(startHi, startLo, endHi, endLo) > 0 || (round % 3 == 1 && Long.compareUnsigned(endLo, startLo) < 0)) {
+                continue;
+            }
+            IpRuleSet rules = IpRuleSet.compile(List.of(ipv6(startHi, startLo) + "-" + ipv6(endHi, endLo)));
+
+            assertThat(rules.matches(ipv6(startHi, startLo))).isTrue();
+            assertThat(rules.matches(ipv6(endHi, endLo))).isTrue();
+            assertThat(rules.matches(ipv6(startLo == 0 ? startHi - 1 : startHi, startLo - 1))).isFalse();
+            assertThat(rules.matches(ipv6(endLo == -1L ? endHi + 1 : endHi, endLo + 1))).isFalse();
+            for (int i = 0; i < 20; i++) {
+                long hi = startHi + random.nextInt(3) - 1;
+                long lo = random.nextLong();
+                boolean inside = compare(hi, lo, startHi, startLo) >= 0 && compare(hi, lo, endHi, endLo) <= 0;
+                assertThat(rules.matches(ipv6(hi, lo))).isEqualTo(inside);
+            }
+        }
+    }
+
+    @Test
+    void fullRangesCoverEverything() {
+        IpRuleSet ipv4 = IpRuleSet.compile(List.of("0.0.0.0-255.255.255.255"));
+        assertThat(ipv4.matches("0.0.0.0")).isTrue();
+        assertThat(ipv4.matches("255.255.255.255")).isTrue();
+        assertThat(ipv4.matches("2001:db8::1")).isFalse();
+
+        IpRuleSet ipv6 = IpRuleSet.compile(List.of("::-ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff"));
+        assertThat(ipv6.matches("::")).isTrue();
+        assertThat(ipv6.matches("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff")).isTrue();
+        assertThat(ipv6.matches("8.8.8.8")).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1.2.3.4", "1.2.3.0/24", "0.0.0.0/0", "2001:db8::/32", "::/0", "1.2.3.4-1.2.3.4",
+            "1.2.3.4 - 1.2.3.9", "2001:db8::1-2001:db8::ff", "::ffff:1.2.3.4-::ffff:1.2.3.9"})
+    void acceptsValidRules(String rule) {
+        assertThat(IpRuleSet.isValidRule(rule)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"localhost", "1.2.3.4/33", "2001:db8::/129", "1.2.3.4/", "1.2.3.9-1.2.3.4",
+            "2001:db8::ff-2001:db8::1", "1.2.3.4-2001:db8::1", "1.2.3.256"})
+    void rejectsInvalidRules(String rule) {
+        assertThat(IpRuleSet.isValidRule(rule)).isFalse();
+    }
+
+    @Test
+    void unparsableRulesFallBackToExactMatch() {
+        IpRuleSet rules = IpRuleSet.compile(List.of("localhost"));
+
+        assertThat(rules.matches("localhost")).isTrue();
+        assertThat(rules.matches("127.0.0.1")).isFalse();
+    }
+
+    @Test
+    void emptyRuleSetMatchesNothing() {
+        assertThat(IpRuleSet.EMPTY.matches("1.2.3.4")).isFalse();
+        assertThat(IpRuleSet.compile(List.of()).matches("::1")).isFalse();
+        assertThat(IpRuleSet.compile(List.of("1.2.3.4")).matches(null)).isFalse();
+    }
+
+    private static String ipv4(long value) {
+        return (value >>> 24) + "." + ((value >>> 16) & 0xFF) + "." + ((value >>> 8) & 0xFF) + "." + (value & 0xFF);
+    }
+
+    private static String ipv6(long hi, long lo) {
+        StringBuilder text = new StringBuilder();
+        for (int group = 0; group < 8; group++) {
+            long word = group < 4 ? hi : lo;
+            if (group > 0) {
+                text.append(':');
+            }
+            text.append(Long.toHexString((word >>> (48 - 16 * (group % 4))) & 0xFFFF));
+        }
+        return text.toString();
+    }
+
+    private static int compare(long aHi, long aLo, long bHi, long bLo) {
+        int high = Long.compareUnsigned(aHi, bHi);
+        return high != 0 ? high : Long.compareUnsigned(aLo, bLo);
+    }
+}
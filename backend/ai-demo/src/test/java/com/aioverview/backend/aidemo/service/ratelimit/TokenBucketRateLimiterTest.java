@@ -0,0 +1,93 @@
+package com.aioverview.backend.aidemo.service.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    void allowsBurstThenRejectsWithWaitTime() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("a", 5, MINUTE)).isZero();
+        }
+        long wait = limiter.tryAcquire("a", 5, MINUTE);
+        assertThat(wait).isPositive().isLessThanOrEqualTo(MINUTE / 5);
+        // 其他key不受影响
+        assertThat(limiter.tryAcquire("b", 5, MINUTE)).isZero();
+    }
+
+    @Test
+    void releaseReturnsOneToken() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100);
+        assertThat(limiter.tryAcquire("a", 2, MINUTE)).isZero();
+        assertThat(limiter.tryAcquire("a", 2, MINUTE)).isZero();
+
+        limiter.release("a", 2, MINUTE);
+
+        assertThat(limiter.tryAcquire("a", 2, MINUTE)).isZero();
+        assertThat(limiter.tryAcquire("a", 2, MINUTE)).isPositive();
+        // 回满的桶不会因退还而超出容量
+        limiter.release("b", 2, MINUTE);
+        assertThat(limiter.tryAcquire("b", 2, MINUTE)).isZero();
+        assertThat(limiter.tryAcquire("b", 2, MINUTE)).isZero();
+        limiter.release("b", 2, MINUTE);
+        limiter.release("b", 2, MINUTE);
+        limiter.release("b", 2, MINUTE);
+        assertThat(limiter.tryAcquire("b", 2, MINUTE)).isZero();
+        assertThat(limiter.tryAcquire("b", 2, MINUTE)).isZero();
+        assertThat(limiter.tryAcquire("b", 2, MINUTE)).isPositive();
+    }
+
+    @Test
+    void rotatingKeysCannotGrowBeyondMaxKeys() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100);
+
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("client-" + i, 10, MINUTE);
+        }
+
+        assertThat(limiter.size()).isEqualTo(100);
+    }
+
+    @Test
+    void keysBeyondMaxKeysShareTheOverflowBucket() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("client-" + i, 1, MINUTE);
+        }
+
+        assertThat(limiter.tryAcquire("new-1", 1, MINUTE)).isZero();
+        assertThat(limiter.tryAcquire("new-2", 1, MINUTE)).isPositive();
+        // 已跟踪的key仍使用自己的桶
+        assertThat(limiter.tryAcquire("client-0", 1, MINUTE)).isPositive();
+        assertThat(limiter.size()).isEqualTo(10);
+    }
+
+    @Test
+    void overCapacitySweepRunsAtMostOncePerInterval() throws InterruptedException {
+        long period = TimeUnit.MILLISECONDS.toNanos(20);
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("client-" + i, 1, period);
+        }
+
+        // 桶已回满，但距上次清理不到间隔，不会为每个新key遍历整个map
+        TimeUnit.MILLISECONDS.sleep(100);
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("rotating-" + i, 1, period);
+        }
+        assertThat(limiter.size()).isEqualTo(10);
+
+        // 到了间隔后清理掉回满的桶，新key重新获得自己的桶
+        TimeUnit.MILLISECONDS.sleep(1_000);
+        assertThat(limiter.tryAcquire("late", 1, period)).isZero();
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+}
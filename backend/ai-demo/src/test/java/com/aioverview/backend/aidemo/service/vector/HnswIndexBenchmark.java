@@ -0,0 +1,217 @@
+package com.aioverview.backend.aidemo.service.vector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * HNSW索引的查询延迟与召回率基准：HNSW查询 与 浮点暴力扫描
+ * 生成聚簇分布的随机向量（近似文本向量的分布），建索引并保存后重新打开（查询走内存映射文件），
+ * 每个ef在准备阶段以暴力扫描的前k个为准输出 recall@k。默认参数：20000条384维向量，1000个查询，M=16，efConstruction=100。
+ *
+ * <p>运行（在 backend 目录下）：
+ * <pre>
+ * mvn -q -pl ai-demo test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp ai-demo/target/test-classes:ai-demo/target/classes:$(cat ai-demo/target/cp.txt) \
+ *      org.openjdk.jmh.Main HnswIndexBenchmark -prof gc
+ * </pre>
+ * 基准进程默认带 --add-modules jdk.incubator.vector --enable-preview（SIMD内积），加 -jvmArgs -Xmx2g 覆盖即为标量内积的结果；
+ * -prof gc 输出的 gc.alloc.rate.norm 为每次查询分配的字节数。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g", "--add-modules", "jdk.incubator.vector", "--enable-preview"})
+public class HnswIndexBenchmark {
+
+    private static final int K = 10;
+    private static final int M = 16;
+    private static final int EF_CONSTRUCTION = 100;
+    private static final int CLUSTERS = 200;
+    private static final int QUERIES = 1_000;
+    private static final long SEED = 42;
+
+    private int next;
+
+    /**
+     * 向量数据和建好的索引，同一组参数下各个基准共用
+     */
+    @State(Scope.Benchmark)
+    public static class Dataset {
+
+        @Param({"20000"})
+        int vectors;
+
+        @Param({"384"})
+        int dimension;
+
+        HnswIndex index;
+        float[][] queries;
+        float[][] normalized;
+        float[][] normalizedQueries;
+        private Path directory;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            Random random = new Random(SEED);
+            float[][] centers = gaussian(random, CLUSTERS, dimension, 1f);
+            float[][] data = clustered(random, centers, vectors);
+            queries = clustered(random, centers, QUERIES);
+            normalized = Arrays.stream(data).map(HnswIndexBenchmark::normalize).toArray(float[][]::new);
+            normalizedQueries = Arrays.stream(queries).map(HnswIndexBenchmark::normalize).toArray(float[][]::new);
+
+            directory = Files.createTempDirectory("hnsw-bench");
+            long start = System.nanoTime();
+            try (HnswIndex built = HnswIndex.open(directory, M, EF_CONSTRUCTION)) {
+                for (float[] vector : data) {
+                    built.add(vector);
+                }
+                built.save();
+            }
+            System.out.printf("%n建索引 %.1f s，内积=%s%n", (System.nanoTime() - start) / 1e9, VectorMath.implementation());
+            index = HnswIndex.open(directory, M, EF_CONSTRUCTION);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            index.close();
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    /**
+     * 查询时的候选集大小，准备阶段输出该ef下的召回率
+     */
+    @State(Scope.Benchmark)
+    public static class Search {
+
+        @Param({"10", "50", "100", "200"})
+        int ef;
+
+        @Setup(Level.Trial)
+        public void setUp(Dataset dataset) {
+            double recall = 0;
+            for (int q = 0; q < QUERIES; q++) {
+                recall += recall(dataset.index.search(dataset.queries[q], K, ef),
+                        bruteForce(dataset.normalized, dataset.normalizedQueries[q], K));
+            }
+            System.out.printf("%nef=%d recall@%d %.3f%n", ef, K, recall / QUERIES);
+        }
+    }
+
+    @Benchmark
+    public List<HnswIndex.Neighbor> hnsw(Dataset dataset, Search search) {
+        return dataset.index.search(dataset.queries[nextQuery()], K, search.ef);
+    }
+
+    @Benchmark
+    public Set<Integer> bruteForce(Dataset dataset) {
+        return bruteForce(dataset.normalized, dataset.normalizedQueries[nextQuery()], K);
+    }
+
+    private int nextQuery() {
+        int query = next;
+        next = (next + 1) % QUERIES;
+        return query;
+    }
+
+    /**
+     * 以暴力扫描的结果为准，HNSW结果中命中的比例
+     */
+    static double recall(List<HnswIndex.Neighbor> found, Set<Integer> truth) {
+        int hits = 0;
+        for (HnswIndex.Neighbor neighbor : found) {
+            if (truth.contains(neighbor.node())) {
+                hits++;
+            }
+        }
+        return (double) hits / truth.size();
+    }
+
+    /**
+     * 浮点精确内积扫描，向量均已单位化
+     */
+    static Set<Integer> bruteForce(float[][] normalized, float[] query, int k) {
+        float[] scores = new float[normalized.length];
+        for (int i = 0; i < normalized.length; i++) {
+            float dot = 0;
+            for (int d = 0; d < query.length; d++) {
+                dot += normalized[i][d] * query[d];
+            }
+            scores[i] = dot;
+        }
+        Set<Integer> top = new HashSet<>();
+        IntStream.range(0, normalized.length).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> scores[i]).reversed())
+                .limit(k)
+                .forEach(top::add);
+        return top;
+    }
+
+    /**
+     * 围绕随机中心的聚簇向量
+     */
+    static float[][] clustered(Random random, float[][] centers, int count) {
+        int dimension = centers[0].length;
+        float[][] vectors = new float[count][dimension];
+        for (int i = 0; i < count; i++) {
+            float[] center = centers[random.nextInt(centers.length)];
+            for (int d = 0; d < dimension; d++) {
+                vectors[i][d] = center[d] + (float) random.nextGaussian() * 0.6f;
+            }
+        }
+        return vectors;
+    }
+
+    static float[][] gaussian(Random random, int count, int dimension, float sigma) {
+        float[][] vectors = new float[count][dimension];
+        for (float[] vector : vectors) {
+            for (int d = 0; d < dimension; d++) {
+                vector[d] = (float) random.nextGaussian() * sigma;
+            }
+        }
+        return vectors;
+    }
+
+    static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        norm = Math.sqrt(norm);
+        float[] unit = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            unit[i] = (float) (vector[i] / norm);
+        }
+        return unit;
+    }
+}
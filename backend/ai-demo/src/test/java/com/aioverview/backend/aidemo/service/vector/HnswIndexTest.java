@@ -0,0 +1,156 @@
+package com.aioverview.backend.aidemo.service.vector;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HnswIndexTest {
+
+    private static final int DIMENSION = 64;
+    private static final int M = 8;
+    private static final int EF_CONSTRUCTION = 64;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void searchFindsMostExactNeighbours() throws IOException {
+        Random random = new Random(1);
+        float[][] centers = HnswIndexBenchmark.gaussian(random, 20, DIMENSION, 1f);
+        float[][] data = HnswIndexBenchmark.clustered(random, centers, 2_000);
+        float[][] queries = HnswIndexBenchmark.clustered(random, centers, 100);
+        try (HnswIndex index = HnswIndex.inMemory(M, EF_CONSTRUCTION)) {
+            for (float[] vector : data) {
+                index.add(vector);
+            }
+            float[][] normalized = new float[data.length][];
+            for (int i = 0; i < data.length; i++) {
+                normalized[i] = HnswIndexBenchmark.normalize(data[i]);
+            }
+            double recall = 0;
+            for (float[] query : queries) {
+                recall += HnswIndexBenchmark.recall(index.search(query, 10, 50),
+                        HnswIndexBenchmark.bruteForce(normalized, HnswIndexBenchmark.normalize(query), 10));
+            }
+            assertThat(recall / queries.length).isGreaterThan(0.9);
+        }
+    }
+
+    @Test
+    void reopenRestoresVectorsGraphAndDeletions() throws IOException {
+        float[][] data = vectors(500, 2);
+        List<HnswIndex.Neighbor> before;
+        int generation;
+        try (HnswIndex index = HnswIndex.open(directory, M, EF_CONSTRUCTION)) {
+            for (float[] vector : data) {
+                index.add(vector);
+            }
+            index.delete(0);
+            index.delete(7);
+            before = index.search(data[7], 10, 50);
+            generation = index.generation();
+            index.save();
+        }
+
+        try (HnswIndex index = HnswIndex.open(directory, M, EF_CONSTRUCTION)) {
+            assertThat(index.size()).isEqualTo(data.length);
+            assertThat(index.dimension()).isEqualTo(DIMENSION);
+            assertThat(index.generation()).isEqualTo(generation);
+            assertThat(index.deletedRatio()).isEqualTo(2.0 / data.length);
+            assertThat(index.search(data[7], 10, 50)).isEqualTo(before);
+            assertThat(index.search(data[7], 10, 50)).extracting(HnswIndex.Neighbor::node).doesNotContain(0, 7);
+            assertThat(index.search(data[42], 1, 50).getFirst().node()).isEqualTo(42);
+
+            // 重新打开后可以继续写入，扩容时保留原有向量
+            for (float[] vector : vectors(2_000, 3)) {
+                index.add(vector);
+            }
+            assertThat(index.search(data[42], 1, 50).getFirst().node()).isEqualTo(42);
+        }
+    }
+
+    @Test
+    void compactDropsDeletedNodesAndRenumbers() throws IOException {
+        float[][] data = vectors(300, 4);
+        try (HnswIndex index = HnswIndex.open(directory, M, EF_CONSTRUCTION)) {
+            for (float[] vector : data) {
+                index.add(vector);
+            }
+            for (int node = 0; node < data.length; node += 3) {
+                index.delete(node);
+            }
+            int generation = index.generation();
+
+            int[] mapping = index.compact();
+
+            assertThat(index.generation()).isEqualTo(generation + 1);
+            assertThat(index.size()).isEqualTo(200);
+            assertThat(index.deletedRatio()).isZero();
+            int next = 0;
+            for (int node = 0; node < data.length; node++) {
+                assertThat(mapping[node]).isEqualTo(node % 3 == 0 ? -1 : next++);
+            }
+            for (int node = 1; node < data.length; node += 3) {
+                assertThat(index.search(data[node], 1, 50).getFirst().node()).isEqualTo(mapping[node]);
+            }
+
+            // 压缩后的索引保存并重新打开后仍然一致
+            index.save();
+        }
+        try (HnswIndex index = HnswIndex.open(directory, M, EF_CONSTRUCTION)) {
+            assertThat(index.size()).isEqualTo(200);
+            assertThat(index.search(data[1], 1, 50).getFirst().node()).isZero();
+        }
+    }
+
+    @Test
+    void generationMismatchDiscardsIndex() throws IOException {
+        float[][] data = vectors(100, 5);
+        try (HnswIndex index = HnswIndex.open(directory, M, EF_CONSTRUCTION)) {
+            for (float[] vector : data) {
+                index.add(vector);
+            }
+            index.save();
+            // 重建只写入了向量文件，没有保存图文件，模拟重建中途退出
+            index.delete(0);
+            index.compact();
+        }
+
+        try (HnswIndex index = HnswIndex.open(directory, M, EF_CONSTRUCTION)) {
+            assertThat(index.size()).isZero();
+            assertThat(index.dimension()).isZero();
+            assertThat(index.search(data[0], 1, 50)).isEmpty();
+            assertThat(Files.exists(directory.resolve(HnswIndex.GRAPH_FILE))).isFalse();
+
+            // 作废后可以重新写入
+            index.add(data[0]);
+            assertThat(index.search(data[0], 1, 50).getFirst().node()).isZero();
+        }
+    }
+
+    @Test
+    void corruptGraphFileDiscardsIndex() throws IOException {
+        try (HnswIndex index = HnswIndex.open(directory, M, EF_CONSTRUCTION)) {
+            for (float[] vector : vectors(10, 6)) {
+                index.add(vector);
+            }
+            index.save();
+        }
+        Files.write(directory.resolve(HnswIndex.GRAPH_FILE), new byte[]{1, 2, 3});
+
+        try (HnswIndex index = HnswIndex.open(directory, M, EF_CONSTRUCTION)) {
+            assertThat(index.size()).isZero();
+        }
+    }
+
+    private static float[][] vectors(int count, long seed) {
+        return HnswIndexBenchmark.gaussian(new Random(seed), count, DIMENSION, 1f);
+    }
+}
@@ -50,31 +50,44 @@ export const promptOptimizerApi = {
     }
 
     try {
-      let currentData = '';
+      // 按 SSE 规范解析：多行 data 以换行拼接，空行表示一个事件结束
+      let buffer = '';
+      let eventName = '';
+      let dataLines: string[] = [];
+
+      const dispatch = () => {
+        if (dataLines.length > 0) {
+          const data = dataLines.join('\n');
+          if (eventName === 'error') {
+            throw new Error(data);
+          }
+          onChunk(data);
+        }
+        eventName = '';
+        dataLines = [];
+      };
+
       while (true) {
         const { done, value } = await reader.read();
         if (done) break;
 
-        const chunk = decoder.decode(value);
-        const lines = chunk.split('\n');
-
-        for (const line of lines) {
-          if (line.startsWith('data: ')) {
-            const data = line.slice(6);
-            if (data) {
-              currentData += data;
-            }
-          } else if (line === '' && currentData) {
-            onChunk(currentData);
-            currentData = '';
-          } else if (currentData) {
-            currentData += '\n' + line;
+        buffer += decoder.decode(value, { stream: true });
+        const lines = buffer.split('\n');
+        // 最后一段可能是不完整的行，留到下一次读取
+        buffer = lines.pop() ?? '';
+
+        for (const rawLine of lines) {
+          const line = rawLine.endsWith('\r') ? rawLine.slice(0, -1) : rawLine;
+          if (line === '') {
+            dispatch();
+          } else if (line.startsWith('data:')) {
+            dataLines.push(line.slice(5));
+          } else if (line.startsWith('event:')) {
+            eventName = line.slice(6).trim();
           }
         }
       }
-      if (currentData) {
-        onChunk(currentData);
-      }
+      dispatch();
     } finally {
       reader.releaseLock();
     }